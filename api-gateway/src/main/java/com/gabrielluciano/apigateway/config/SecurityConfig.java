@@ -28,6 +28,13 @@ public class SecurityConfig {
         http.authorizeExchange(exchange -> exchange
                 .pathMatchers("/eureka/**").permitAll()
                 .pathMatchers("/api/v1/cart/**").hasRole(Role.USER.name())
+                .pathMatchers(HttpMethod.GET, "/api/v1/orders/queue").hasRole(Role.EMPLOYEE.name())
+                .pathMatchers(HttpMethod.PATCH, "/api/v1/orders/{id}/status").hasRole(Role.EMPLOYEE.name())
+                // order-service checks that users only read their own orders
+                .pathMatchers(HttpMethod.GET, "/api/v1/orders", "/api/v1/orders/{id}")
+                .hasAnyRole(Role.USER.name(), Role.EMPLOYEE.name())
+                // Orders are created by cart-service on checkout, never directly by users
+                .pathMatchers("/api/v1/orders/**", "/order-service/**", "/ORDER-SERVICE/**").denyAll()
                 .pathMatchers(HttpMethod.GET, "/api/v1/products", "/api/v1/products/").permitAll()
                 .pathMatchers(HttpMethod.GET, "/api/v1/products/{id}", "/api/v1/products/{id}/").permitAll()
                 .pathMatchers(HttpMethod.POST, "/api/v1/products", "/api/v1/products/").hasRole(Role.ADMIN.name())
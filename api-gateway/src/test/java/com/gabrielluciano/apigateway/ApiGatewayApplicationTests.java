@@ -2,6 +2,7 @@ package com.gabrielluciano.apigateway;
 
 import com.gabrielluciano.apigateway.controller.CartServiceCompatibleController;
 import com.gabrielluciano.apigateway.controller.DiscoveryServerCompatibleController;
+import com.gabrielluciano.apigateway.controller.OrderServiceCompatibleController;
 import com.gabrielluciano.apigateway.controller.ProductServiceCompatibleController;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -25,6 +26,7 @@ import org.springframework.test.web.reactive.server.WebTestClient;
 
 import java.time.Duration;
 import java.util.List;
+import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
@@ -180,6 +182,102 @@ class ApiGatewayApplicationTests {
                 .expectStatus().isForbidden();
     }
 
+    @Test
+    void orderServiceOrderQueueAuthorized() {
+        webClient.mutateWith(mockJwt().authorities(List.of(
+                        new SimpleGrantedAuthority("ROLE_EMPLOYEE"))))
+                .get().uri("/api/v1/orders/queue").exchange()
+                .expectStatus().isOk()
+                .expectBody(Boolean.class)
+                .consumeWith(result -> assertEquals(true, result.getResponseBody()));
+    }
+
+    @Test
+    void orderServiceOrderQueueUnauthorized() {
+        webClient.get().uri("/api/v1/orders/queue").exchange()
+                .expectStatus().isUnauthorized();
+    }
+
+    @Test
+    void orderServiceOrderQueueForbidden() {
+        webClient.mutateWith(mockJwt().authorities(List.of(
+                        new SimpleGrantedAuthority("ROLE_USER"))))
+                .get().uri("/api/v1/orders/queue").exchange()
+                .expectStatus().isForbidden();
+    }
+
+    @Test
+    void orderServiceUpdateOrderStatusAuthorized() {
+        webClient.mutateWith(mockJwt().authorities(List.of(
+                        new SimpleGrantedAuthority("ROLE_EMPLOYEE"))))
+                .patch().uri("/api/v1/orders/" + 1L + "/status").exchange()
+                .expectStatus().isOk()
+                .expectBody(Long.class)
+                .consumeWith(result -> assertEquals(1L, result.getResponseBody()));
+    }
+
+    @Test
+    void orderServiceUpdateOrderStatusForbidden() {
+        webClient.mutateWith(mockJwt().authorities(List.of(
+                        new SimpleGrantedAuthority("ROLE_USER"))))
+                .patch().uri("/api/v1/orders/" + 1L + "/status").exchange()
+                .expectStatus().isForbidden();
+    }
+
+    @Test
+    void orderServiceCreateOrderForbidden() {
+        webClient.mutateWith(mockJwt().authorities(List.of(
+                        new SimpleGrantedAuthority("ROLE_USER"))))
+                .post().uri("/api/v1/orders").exchange()
+                .expectStatus().isForbidden();
+    }
+
+    @Test
+    void orderServiceGetOrdersAuthorized() {
+        webClient.mutateWith(mockJwt().authorities(List.of(
+                        new SimpleGrantedAuthority("ROLE_USER"))))
+                .get().uri("/api/v1/orders?userId=" + UUID.randomUUID()).exchange()
+                .expectStatus().isOk()
+                .expectBody(Boolean.class)
+                .consumeWith(result -> assertEquals(true, result.getResponseBody()));
+    }
+
+    @Test
+    void orderServiceGetOrdersUnauthorized() {
+        webClient.get().uri("/api/v1/orders?userId=" + UUID.randomUUID()).exchange()
+                .expectStatus().isUnauthorized();
+    }
+
+    @Test
+    void orderServiceGetOrderAuthorized() {
+        UUID id = UUID.randomUUID();
+        webClient.mutateWith(mockJwt().authorities(List.of(
+                        new SimpleGrantedAuthority("ROLE_USER"))))
+                .get().uri("/api/v1/orders/" + id).exchange()
+                .expectStatus().isOk()
+                .expectBody(UUID.class)
+                .consumeWith(result -> assertEquals(id, result.getResponseBody()));
+    }
+
+    @Test
+    void orderServiceGetOrderAsEmployeeAuthorized() {
+        UUID id = UUID.randomUUID();
+        webClient.mutateWith(mockJwt().authorities(List.of(
+                        new SimpleGrantedAuthority("ROLE_EMPLOYEE"))))
+                .get().uri("/api/v1/orders/" + id).exchange()
+                .expectStatus().isOk()
+                .expectBody(UUID.class)
+                .consumeWith(result -> assertEquals(id, result.getResponseBody()));
+    }
+
+    @Test
+    void orderServiceDiscoveryLocatorRouteForbidden() {
+        webClient.mutateWith(mockJwt().authorities(List.of(
+                        new SimpleGrantedAuthority("ROLE_EMPLOYEE"))))
+                .get().uri("/ORDER-SERVICE/api/v1/orders/" + UUID.randomUUID()).exchange()
+                .expectStatus().isForbidden();
+    }
+
     @Test
     void discoveryServerHome() {
         webClient.get().uri("/eureka").exchange()
@@ -199,6 +297,7 @@ class ApiGatewayApplicationTests {
     @LoadBalancerClients({
             @LoadBalancerClient(name = "product-service", configuration = ProductServiceLoadBalancerConfig.class),
             @LoadBalancerClient(name = "cart-service", configuration = CartServiceLoadBalancerConfig.class),
+            @LoadBalancerClient(name = "order-service", configuration = OrderServiceLoadBalancerConfig.class),
             @LoadBalancerClient(name = "discovery-server", configuration = DiscoveryServerLoadBalancerConfig.class)
     })
     @Import(ApiGatewayApplication.class)
@@ -214,6 +313,11 @@ class ApiGatewayApplicationTests {
             return new CartServiceCompatibleController();
         }
 
+        @Bean
+        public OrderServiceCompatibleController orderServiceCompatibleController() {
+            return new OrderServiceCompatibleController();
+        }
+
         @Bean
         public DiscoveryServerCompatibleController discoveryServerCompatibleController() {
             return new DiscoveryServerCompatibleController();
@@ -244,6 +348,18 @@ class ApiGatewayApplicationTests {
         }
     }
 
+    static class OrderServiceLoadBalancerConfig {
+
+        @LocalServerPort
+        private int port;
+
+        @Bean
+        public ServiceInstanceListSupplier fixedServiceInstanceListSupplier(Environment env) {
+            return ServiceInstanceListSuppliers.from("order-service",
+                    new DefaultServiceInstance("order-service-1", "order-service", "localhost", port, false));
+        }
+    }
+
     static class DiscoveryServerLoadBalancerConfig {
 
         @Bean
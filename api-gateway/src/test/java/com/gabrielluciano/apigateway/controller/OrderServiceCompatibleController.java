@@ -0,0 +1,35 @@
+package com.gabrielluciano.apigateway.controller;
+
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/v1/orders")
+public class OrderServiceCompatibleController {
+
+    @PostMapping
+    public Boolean createOrder() {
+        return true;
+    }
+
+    @GetMapping
+    public Boolean getOrders() {
+        return true;
+    }
+
+    @GetMapping("/{id}")
+    public UUID getOrder(@PathVariable UUID id) {
+        return id;
+    }
+
+    @GetMapping("/queue")
+    public Boolean subscribeToOrderQueue() {
+        return true;
+    }
+
+    @PatchMapping("/{id}/status")
+    public Long updateOrderStatus(@PathVariable Long id) {
+        return id;
+    }
+}
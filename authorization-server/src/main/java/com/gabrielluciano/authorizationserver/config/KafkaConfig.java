@@ -1,6 +1,7 @@
 package com.gabrielluciano.authorizationserver.config;
 
 import com.gabrielluciano.authorizationserver.event.UserRegisteredEvent;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
@@ -8,9 +9,11 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.MicrometerProducerListener;
 import org.springframework.kafka.core.ProducerFactory;
 import org.springframework.kafka.support.serializer.JsonSerializer;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -20,18 +23,55 @@ public class KafkaConfig {
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
+    @Value("${user-registration.outbox.kafka.acks:all}")
+    private String acks;
+
+    @Value("${user-registration.outbox.kafka.compression-type:lz4}")
+    private String compressionType;
+
+    @Value("${user-registration.outbox.kafka.batch-size:65536}")
+    private int batchSize;
+
+    @Value("${user-registration.outbox.kafka.linger:20ms}")
+    private Duration linger;
+
+    @Value("${user-registration.outbox.kafka.max-block:5s}")
+    private Duration maxBlock;
+
     @Bean
-    public ProducerFactory<String, UserRegisteredEvent> userRegisteredEventProducerFactory() {
+    public ProducerFactory<String, UserRegisteredEvent> userRegisteredEventProducerFactory(MeterRegistry meterRegistry) {
         Map<String, Object> props = new HashMap<>();
         props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
         props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
         props.put(JsonSerializer.TYPE_MAPPINGS, "event:com.gabrielluciano.authorizationserver.event.UserRegisteredEvent");
-        return new DefaultKafkaProducerFactory<>(props);
+        // A signup is announced once, so its event has to survive a leader failover and the producer's own
+        // retries must not write it twice. The producer refuses to start with idempotence on and acks other than
+        // all, so idempotence follows acks: a weaker acks also gives up the duplicate-free retries
+        props.put(ProducerConfig.ACKS_CONFIG, acks);
+        props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, acksAll());
+        // Signups come in bursts of small JSON events that compress well, a short linger packs a burst into a
+        // few compressed requests instead of one request per signup
+        props.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType);
+        props.put(ProducerConfig.BATCH_SIZE_CONFIG, batchSize);
+        props.put(ProducerConfig.LINGER_MS_CONFIG, (int) linger.toMillis());
+        // send() waits this long for broker metadata, so a poll against an unreachable cluster fails well
+        // within the send timeout and the next poll tries again
+        props.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, maxBlock.toMillis());
+
+        DefaultKafkaProducerFactory<String, UserRegisteredEvent> producerFactory = new DefaultKafkaProducerFactory<>(props);
+        // Exports the client metrics (send rate, batch size, compression rate, ...) as kafka.producer.*
+        producerFactory.addListener(new MicrometerProducerListener<>(meterRegistry));
+        return producerFactory;
+    }
+
+    private boolean acksAll() {
+        return "all".equalsIgnoreCase(acks.trim()) || "-1".equals(acks.trim());
     }
 
     @Bean
-    public KafkaTemplate<String, UserRegisteredEvent> kafkaTemplate() {
-        return new KafkaTemplate<>(userRegisteredEventProducerFactory());
+    public KafkaTemplate<String, UserRegisteredEvent> kafkaTemplate(
+            ProducerFactory<String, UserRegisteredEvent> userRegisteredEventProducerFactory) {
+        return new KafkaTemplate<>(userRegisteredEventProducerFactory);
     }
 }
@@ -0,0 +1,8 @@
+package com.gabrielluciano.authorizationserver.exception;
+
+public class UserRegisteredEventPublishingException extends RuntimeException {
+
+    public UserRegisteredEventPublishingException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,146 @@
+package com.gabrielluciano.authorizationserver.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gabrielluciano.authorizationserver.event.UserRegisteredEvent;
+import com.gabrielluciano.authorizationserver.exception.UserRegisteredEventPublishingException;
+import com.gabrielluciano.authorizationserver.model.UserRegistrationOutboxEvent;
+import com.gabrielluciano.authorizationserver.repository.UserRegistrationOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes the UserRegisteredEvents stored with each registration to Kafka in batches, keyed by user id.
+ * <p>
+ * Delivery is at least once: a batch is only deleted after Kafka acknowledged all of it, so a batch that fails
+ * part way is sent whole on the next poll, including the events that already reached the topic. Consumers of
+ * {@code user-registration-events} must tolerate duplicates, e.g. by user id.
+ * <p>
+ * This is the loop of order-service's {@code OrderOutboxRelay} over a different outbox. Each service is its own
+ * Spring Boot application without a shared library, which is also why user-service has its own copy of
+ * {@link UserRegisteredEvent}, so both relays keep a copy. A fix to the batching, acknowledgement or retry
+ * handling of one has to be made in the other as well.
+ */
+@Component
+@Log4j2
+@ConditionalOnProperty(name = "user-registration.outbox.relay.enabled", havingValue = "true")
+public class UserRegistrationOutboxRelay {
+
+    private final UserRegistrationOutboxRepository outboxRepository;
+    private final KafkaTemplate<String, UserRegisteredEvent> kafkaTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter publishedEventsCounter;
+    private final Counter failedBatchesCounter;
+    private final AtomicLong lagSeconds = new AtomicLong();
+
+    @Value("${user-registration.outbox.topic:user-registration-events}")
+    private String topic;
+
+    @Value("${user-registration.outbox.batch-size:500}")
+    private int batchSize;
+
+    @Value("${user-registration.outbox.send-timeout:10s}")
+    private Duration sendTimeout;
+
+    public UserRegistrationOutboxRelay(UserRegistrationOutboxRepository outboxRepository,
+                                       KafkaTemplate<String, UserRegisteredEvent> kafkaTemplate,
+                                       ObjectMapper objectMapper,
+                                       TransactionTemplate transactionTemplate,
+                                       MeterRegistry meterRegistry) {
+        this.outboxRepository = outboxRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.publishedEventsCounter = Counter.builder("user.registration.outbox.published")
+                .description("UserRegisteredEvents published from the outbox")
+                .register(meterRegistry);
+        this.failedBatchesCounter = Counter.builder("user.registration.outbox.failures")
+                .description("Outbox batches that failed to publish and are retried on the next poll")
+                .register(meterRegistry);
+        Gauge.builder("user.registration.outbox.lag", lagSeconds, AtomicLong::get)
+                .description("How long the oldest unpublished UserRegisteredEvent has been waiting in the outbox")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${user-registration.outbox.poll-interval:PT0.5S}",
+            fixedDelayString = "${user-registration.outbox.poll-interval:PT0.5S}")
+    public void relayEvents() {
+        try {
+            Integer published;
+            // Registrations arrive in bursts, so a full batch is followed by another one right away
+            do {
+                published = transactionTemplate.execute(status -> publishOldestEvents());
+            } while (published != null && published == batchSize);
+        } catch (RuntimeException ex) {
+            failedBatchesCounter.increment();
+            log.error("Error publishing UserRegisteredEvents, retrying on next poll", ex);
+        } finally {
+            updateLag();
+        }
+    }
+
+    private int publishOldestEvents() {
+        List<UserRegistrationOutboxEvent> events = outboxRepository.findOldestForUpdate(batchSize);
+        if (events.isEmpty())
+            return 0;
+
+        CompletableFuture<?>[] results = events.stream()
+                .map(event -> kafkaTemplate.send(topic, event.getUserId().toString(), readPayload(event)))
+                .toArray(CompletableFuture[]::new);
+        awaitAcknowledgements(results);
+
+        outboxRepository.deleteAllByIdInBatch(events.stream().map(UserRegistrationOutboxEvent::getId).toList());
+        publishedEventsCounter.increment(events.size());
+        log.debug("Successfully sent '{}' UserRegisteredEvents", events.size());
+        return events.size();
+    }
+
+    private void awaitAcknowledgements(CompletableFuture<?>[] results) {
+        try {
+            CompletableFuture.allOf(results).get(sendTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new UserRegisteredEventPublishingException("Interrupted while sending UserRegisteredEvents", ex);
+        } catch (ExecutionException | TimeoutException ex) {
+            throw new UserRegisteredEventPublishingException("UserRegisteredEvents were not acknowledged by Kafka", ex);
+        }
+    }
+
+    private UserRegisteredEvent readPayload(UserRegistrationOutboxEvent event) {
+        try {
+            return objectMapper.readValue(event.getPayload(), UserRegisteredEvent.class);
+        } catch (JsonProcessingException ex) {
+            throw new UserRegisteredEventPublishingException("Unreadable payload of outbox event " + event.getId(), ex);
+        }
+    }
+
+    private void updateLag() {
+        try {
+            lagSeconds.set(outboxRepository.findOldestCreatedAt()
+                    .map(oldest -> Duration.between(oldest, LocalDateTime.now(ZoneOffset.UTC)).toSeconds())
+                    .orElse(0L));
+        } catch (RuntimeException ex) {
+            log.warn("Error reading the age of the oldest outbox event", ex);
+        }
+    }
+}
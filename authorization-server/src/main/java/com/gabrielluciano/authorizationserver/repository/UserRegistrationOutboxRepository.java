@@ -0,0 +1,23 @@
+package com.gabrielluciano.authorizationserver.repository;
+
+import com.gabrielluciano.authorizationserver.model.UserRegistrationOutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface UserRegistrationOutboxRepository extends JpaRepository<UserRegistrationOutboxEvent, Long> {
+
+    // Locks the oldest events until the transaction ends, so relays of other instances never publish them twice
+    @Query(value = """
+            SELECT * FROM user_registration_outbox
+            ORDER BY id
+            LIMIT :limit
+            FOR UPDATE""", nativeQuery = true)
+    List<UserRegistrationOutboxEvent> findOldestForUpdate(int limit);
+
+    @Query("SELECT MIN(e.createdAt) FROM UserRegistrationOutboxEvent e")
+    Optional<LocalDateTime> findOldestCreatedAt();
+}
@@ -1,5 +1,7 @@
 package com.gabrielluciano.authorizationserver.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.gabrielluciano.authorizationserver.dto.UserRegistrationRequest;
 import com.gabrielluciano.authorizationserver.dto.UserRegistrationResponse;
 import com.gabrielluciano.authorizationserver.event.UserRegisteredEvent;
@@ -7,14 +9,17 @@ import com.gabrielluciano.authorizationserver.exception.UniqueConstraintViolatio
 import com.gabrielluciano.authorizationserver.exception.UserRegistrationException;
 import com.gabrielluciano.authorizationserver.model.Role;
 import com.gabrielluciano.authorizationserver.model.UserCredentials;
+import com.gabrielluciano.authorizationserver.model.UserRegistrationOutboxEvent;
 import com.gabrielluciano.authorizationserver.repository.UserCredentialsRepository;
+import com.gabrielluciano.authorizationserver.repository.UserRegistrationOutboxRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.Set;
 import java.util.UUID;
 
@@ -25,7 +30,8 @@ public class UserCredentialsServiceImpl implements UserCredentialsService {
 
     private final UserCredentialsRepository userCredentialsRepository;
     private final PasswordEncoder passwordEncoder;
-    private final KafkaTemplate<String, UserRegisteredEvent> kafkaTemplate;
+    private final UserRegistrationOutboxRepository userRegistrationOutboxRepository;
+    private final ObjectMapper objectMapper;
 
     @Override
     @Transactional
@@ -35,7 +41,8 @@ public class UserCredentialsServiceImpl implements UserCredentialsService {
         userCredentialsRepository.save(userCredentials);
         UserRegisteredEvent userRegisteredEvent = createUserRegisteredEvent(userCredentials.getId(),
                 userRegistrationRequest);
-        sendUserRegisteredEventOrThrowException(userRegisteredEvent);
+        // Stored in the same transaction as the credentials and sent to Kafka by UserRegistrationOutboxRelay
+        saveUserRegisteredEventOrThrowException(userRegisteredEvent);
 
         log.info("Successfully saved user credentials with id '{}'", userCredentials.getId());
         return UserRegistrationResponse.builder()
@@ -72,17 +79,16 @@ public class UserCredentialsServiceImpl implements UserCredentialsService {
                 .build();
     }
 
-    private void sendUserRegisteredEventOrThrowException(UserRegisteredEvent userRegisteredEvent) {
+    private void saveUserRegisteredEventOrThrowException(UserRegisteredEvent userRegisteredEvent) {
         try {
-            sendUserRegisteredEvent(userRegisteredEvent);
-        } catch (Exception ex) {
-            log.error("Error sending UserRegisteredEvent for user with id '{}'", userRegisteredEvent.getUserId());
+            userRegistrationOutboxRepository.save(UserRegistrationOutboxEvent.builder()
+                    .userId(userRegisteredEvent.getUserId())
+                    .payload(objectMapper.writeValueAsString(userRegisteredEvent))
+                    .createdAt(LocalDateTime.now(ZoneOffset.UTC))
+                    .build());
+        } catch (JsonProcessingException ex) {
+            log.error("Error serializing UserRegisteredEvent for user with id '{}'", userRegisteredEvent.getUserId());
             throw new UserRegistrationException(ex);
         }
     }
-
-    private void sendUserRegisteredEvent(UserRegisteredEvent userRegisteredEvent) throws Exception {
-        kafkaTemplate.send("user-registration-events", userRegisteredEvent).get();
-        log.info("Successfully sent UserRegisteredEvent for user with id '{}'", userRegisteredEvent.getUserId());
-    }
 }
@@ -6,6 +6,14 @@ CREATE TABLE IF NOT EXISTS user_credentials (
     enabled BOOLEAN NOT NULL
 );
 
+-- Events of registrations committed but not yet published to Kafka
+CREATE TABLE IF NOT EXISTS user_registration_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    user_id UUID NOT NULL,
+    payload TEXT NOT NULL,
+    created_at TIMESTAMP NOT NULL
+);
+
 CREATE TABLE IF NOT EXISTS clients (
     id UUID UNIQUE PRIMARY KEY,
     client_id VARCHAR(255) UNIQUE NOT NULL,
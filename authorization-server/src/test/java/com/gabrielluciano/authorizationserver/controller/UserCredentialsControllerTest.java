@@ -4,26 +4,24 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.gabrielluciano.authorizationserver.dto.UserRegistrationRequest;
 import com.gabrielluciano.authorizationserver.event.UserRegisteredEvent;
 import com.gabrielluciano.authorizationserver.model.Role;
+import com.gabrielluciano.authorizationserver.model.UserRegistrationOutboxEvent;
 import com.gabrielluciano.authorizationserver.repository.UserCredentialsRepository;
+import com.gabrielluciano.authorizationserver.repository.UserRegistrationOutboxRepository;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.ArgumentMatchers;
-import org.mockito.BDDMockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
-import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
 import org.testcontainers.containers.PostgreSQLContainer;
 
-import java.util.concurrent.CompletableFuture;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.containsString;
@@ -32,7 +30,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
-@SpringBootTest(properties = {"eureka.client.enabled=false"})
+@SpringBootTest(properties = {"eureka.client.enabled=false", "user-registration.outbox.relay.enabled=false"})
 @AutoConfigureMockMvc
 class UserCredentialsControllerTest {
 
@@ -59,16 +57,15 @@ class UserCredentialsControllerTest {
     private UserCredentialsRepository userCredentialsRepository;
 
     @Autowired
-    private MockMvc mockMvc;
+    private UserRegistrationOutboxRepository userRegistrationOutboxRepository;
 
-    @MockBean
-    private KafkaTemplate<String, UserRegisteredEvent> kafkaTemplate;
+    @Autowired
+    private MockMvc mockMvc;
 
     @BeforeEach
     void setUp() {
-        BDDMockito.when(kafkaTemplate.send(ArgumentMatchers.any(), ArgumentMatchers.any()))
-                .thenReturn(CompletableFuture.completedFuture(null));
         userCredentialsRepository.deleteAll();
+        userRegistrationOutboxRepository.deleteAll();
     }
 
     @Test
@@ -91,26 +88,47 @@ class UserCredentialsControllerTest {
     }
 
     @Test
-    void shouldNotRegisterUserWhenErrorSendingKafkaEvent() throws Exception {
-        BDDMockito.when(kafkaTemplate.send(ArgumentMatchers.any(), ArgumentMatchers.any()))
-                .thenThrow(new RuntimeException());
+    void shouldStoreUserRegisteredEventInOutboxWithoutSendingItToKafka() throws Exception {
+        UserRegistrationRequest userRegistrationRequest = UserRegistrationRequest.builder()
+                .name("John")
+                .email("john@email.com")
+                .password("Passw0rd!")
+                .build();
 
+        String responseBody = mockMvc.perform(post("/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(userRegistrationRequest)))
+                .andDo(print())
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        String userId = new ObjectMapper().readTree(responseBody).get("id").asText();
+
+        // The relay is disabled, registration does not depend on Kafka being reachable
+        List<UserRegistrationOutboxEvent> events = userRegistrationOutboxRepository.findAll();
+        assertThat(events).hasSize(1);
+        assertThat(events.get(0).getUserId()).hasToString(userId);
+        UserRegisteredEvent event = new ObjectMapper().readValue(events.get(0).getPayload(), UserRegisteredEvent.class);
+        assertThat(event.getName()).isEqualTo(userRegistrationRequest.getName());
+        assertThat(event.getEmail()).isEqualTo(userRegistrationRequest.getEmail());
+    }
+
+    @Test
+    void shouldNotStoreUserRegisteredEventOnDuplicatedEmail() throws Exception {
         UserRegistrationRequest userRegistrationRequest = UserRegistrationRequest.builder()
                 .name("John")
                 .email("john@email.com")
                 .password("Passw0rd!")
                 .build();
 
+        mockMvc.perform(post("/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(userRegistrationRequest)));
         mockMvc.perform(post("/register")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(asJsonString(userRegistrationRequest)))
-                .andDo(print())
-                .andExpect(status().isInternalServerError())
-                .andExpect(jsonPath("$.status").value(HttpStatus.INTERNAL_SERVER_ERROR.value()))
-                .andExpect(jsonPath("$.path").value("/register"));
+                .andExpect(status().isConflict());
 
-        long count = userCredentialsRepository.count();
-        assertThat(count).isZero();
+        assertThat(userRegistrationOutboxRepository.count()).isEqualTo(1);
     }
 
     @Test
@@ -1,96 +1,127 @@
 package com.gabrielluciano.authorizationserver.kafka;
 
 import com.gabrielluciano.authorizationserver.dto.UserRegistrationRequest;
+import com.gabrielluciano.authorizationserver.dto.UserRegistrationResponse;
 import com.gabrielluciano.authorizationserver.event.UserRegisteredEvent;
 import com.gabrielluciano.authorizationserver.repository.UserCredentialsRepository;
-import com.gabrielluciano.authorizationserver.service.UserCredentialsServiceImpl;
+import com.gabrielluciano.authorizationserver.repository.UserRegistrationOutboxRepository;
+import com.gabrielluciano.authorizationserver.service.UserCredentialsService;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.apache.kafka.clients.consumer.Consumer;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
-import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
-import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentMatchers;
 import org.mockito.BDDMockito;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.test.mock.mockito.MockBean;
-import org.springframework.context.annotation.Bean;
-import org.springframework.context.annotation.Configuration;
-import org.springframework.kafka.annotation.EnableKafka;
-import org.springframework.kafka.core.*;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
-import org.springframework.kafka.support.serializer.JsonSerializer;
 import org.springframework.kafka.test.EmbeddedKafkaBroker;
 import org.springframework.kafka.test.context.EmbeddedKafka;
 import org.springframework.kafka.test.utils.KafkaTestUtils;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.annotation.DirtiesContext;
-import org.springframework.test.context.ContextConfiguration;
-import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
 
 import java.time.Duration;
-import java.util.HashMap;
 import java.util.Map;
-import java.util.NoSuchElementException;
 import java.util.UUID;
+import java.util.stream.StreamSupport;
 
 import static org.assertj.core.api.Assertions.*;
 
-@ExtendWith(SpringExtension.class)
-@ContextConfiguration(classes = {UserRegisteredEventTest.TestConfig.class, UserCredentialsServiceImpl.class})
+@SpringBootTest(properties = {"eureka.client.enabled=false",
+        "spring.kafka.bootstrap-servers=${" + EmbeddedKafkaBroker.SPRING_EMBEDDED_KAFKA_BROKERS + "}",
+        "user-registration.outbox.poll-interval=PT0.1S"})
 @EmbeddedKafka(topics = "user-registration-events")
 @DirtiesContext
 class UserRegisteredEventTest {
 
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @BeforeAll
+    static void beforeAll() {
+        postgres.start();
+    }
+
+    @AfterAll
+    static void afterAll() {
+        postgres.stop();
+    }
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
     @Autowired
-    private UserCredentialsServiceImpl userCredentialsService;
+    private UserCredentialsService userCredentialsService;
 
-    @MockBean
+    @Autowired
     private UserCredentialsRepository userCredentialsRepository;
 
-    @MockBean
-    private PasswordEncoder passwordEncoder;
+    @SpyBean
+    private UserRegistrationOutboxRepository userRegistrationOutboxRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
 
     @Autowired
     private EmbeddedKafkaBroker embeddedKafka;
 
     @BeforeEach
     void setUp() {
-        BDDMockito.when(passwordEncoder.encode(ArgumentMatchers.anyString()))
-                .thenReturn("encodedPassword");
+        userCredentialsRepository.deleteAll();
+        userRegistrationOutboxRepository.deleteAll();
     }
 
     @Test
     void shouldSendUserRegisteredEvent() {
         Consumer<String, UserRegisteredEvent> consumer = createConsumer();
+        double publishedBefore = meterRegistry.get("user.registration.outbox.published").counter().count();
         UserRegistrationRequest userRegistrationRequest = UserRegistrationRequest.builder()
                 .name("Mark")
                 .email("mark@email.com")
                 .password("Passw0rd!")
                 .build();
 
-        userCredentialsService.registerUser(userRegistrationRequest);
+        UserRegistrationResponse response = userCredentialsService.registerUser(userRegistrationRequest);
 
-        ConsumerRecords<String, UserRegisteredEvent> records = KafkaTestUtils.getRecords(consumer, Duration.ofSeconds(5));
-        UserRegisteredEvent event = records.iterator().next().value();
+        ConsumerRecord<String, UserRegisteredEvent> record = KafkaTestUtils.getSingleRecord(consumer,
+                "user-registration-events", Duration.ofSeconds(10));
+        UserRegisteredEvent event = record.value();
 
-        assertThat(records.count()).isEqualTo(1);
+        assertThat(record.key()).isEqualTo(response.getId().toString());
         assertThat(event.getEventType()).isEqualTo("UserRegisteredEvent");
+        assertThat(event.getUserId()).isEqualTo(response.getId());
         assertThat(event.getName()).isEqualTo(userRegistrationRequest.getName());
+        awaitRelayCommitted(publishedBefore + 1);
+        assertThat(meterRegistry.get("user.registration.outbox.published").counter().count())
+                .isEqualTo(publishedBefore + 1);
+        assertThat(userRegistrationOutboxRepository.count()).isZero();
+        assertThat(meterRegistry.get("user.registration.outbox.lag").gauge().value()).isZero();
     }
 
     @Test
     void shouldNotSendUserRegisteredEvent() {
-        BDDMockito.when(userCredentialsRepository.save(ArgumentMatchers.any()))
-                .thenThrow(RuntimeException.class);
+        // The outbox write fails after the credentials were saved, the whole registration is rolled back
+        BDDMockito.doThrow(RuntimeException.class)
+                .when(userRegistrationOutboxRepository).save(ArgumentMatchers.any());
         Consumer<String, UserRegisteredEvent> consumer = createConsumer();
         UserRegistrationRequest userRegistrationRequest = UserRegistrationRequest.builder()
-                .name("Mark")
-                .email("mark@email.com")
+                .name("Mary")
+                .email("mary@email.com")
                 .password("Passw0rd!")
                 .build();
 
@@ -99,9 +130,24 @@ class UserRegisteredEventTest {
 
         ConsumerRecords<String, UserRegisteredEvent> records = KafkaTestUtils.getRecords(consumer, Duration.ofSeconds(5));
 
-        assertThat(records.count()).isEqualTo(0);
-        assertThatExceptionOfType(NoSuchElementException.class)
-                .isThrownBy(() -> records.iterator().next());
+        assertThat(StreamSupport.stream(records.spliterator(), false))
+                .noneMatch(record -> record.value().getEmail().equals(userRegistrationRequest.getEmail()));
+        assertThat(userCredentialsRepository.findByEmail(userRegistrationRequest.getEmail())).isEmpty();
+    }
+
+    // The record can be consumed before the relay deleted the event and updated its metrics
+    private void awaitRelayCommitted(double expectedPublished) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (System.nanoTime() < deadline
+                && (userRegistrationOutboxRepository.count() > 0
+                || meterRegistry.get("user.registration.outbox.published").counter().count() < expectedPublished)) {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
     }
 
     private Consumer<String, UserRegisteredEvent> createConsumer() {
@@ -115,27 +161,4 @@ class UserRegisteredEventTest {
         this.embeddedKafka.consumeFromAnEmbeddedTopic(consumer, "user-registration-events");
         return consumer;
     }
-
-    @Configuration
-    @EnableKafka
-    static class TestConfig {
-
-        @Value("${" + EmbeddedKafkaBroker.SPRING_EMBEDDED_KAFKA_BROKERS + "}")
-        private String brokerAddresses;
-
-        @Bean
-        public ProducerFactory<String, UserRegisteredEvent> userRegisteredEventProducerFactory() {
-            Map<String, Object> props = new HashMap<>();
-            props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, brokerAddresses);
-            props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-            props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
-            props.put(JsonSerializer.TYPE_MAPPINGS, "event:com.gabrielluciano.authorizationserver.event.UserRegisteredEvent");
-            return new DefaultKafkaProducerFactory<>(props);
-        }
-
-        @Bean
-        public KafkaTemplate<String, UserRegisteredEvent> kafkaTemplate() {
-            return new KafkaTemplate<>(userRegisteredEventProducerFactory());
-        }
-    }
 }
@@ -0,0 +1,181 @@
+package com.gabrielluciano.authorizationserver.load;
+
+import com.gabrielluciano.authorizationserver.dto.UserRegistrationRequest;
+import com.gabrielluciano.authorizationserver.event.UserRegisteredEvent;
+import com.gabrielluciano.authorizationserver.service.UserCredentialsService;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.log4j.Log4j2;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Registers a burst of users concurrently through {@link UserCredentialsService} against a real PostgreSQL and
+ * an embedded Kafka broker, then logs the signup latency percentiles, the rate at which UserRegisteredEvents
+ * reached the topic and the producer metrics, so the tuned and the default producer settings can be compared
+ * side by side.
+ * <p>
+ * Disabled by default, run with {@code mvn test -DloadTest=true -Dtest='*LoadTest'}. The load can be
+ * tuned with {@code loadTest.signups} and {@code loadTest.threads}.
+ */
+@Log4j2
+abstract class AbstractRegistrationBurstLoadTest {
+
+    protected static final int SIGNUPS = Integer.getInteger("loadTest.signups", 2000);
+    protected static final int THREADS = Integer.getInteger("loadTest.threads", 32);
+    private static final String TOPIC = "user-registration-events";
+
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @BeforeAll
+    static void beforeAll() {
+        postgres.start();
+    }
+
+    @AfterAll
+    static void afterAll() {
+        postgres.stop();
+    }
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private UserCredentialsService userCredentialsService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EmbeddedKafkaBroker embeddedKafka;
+
+    protected abstract String settingsName();
+
+    @Test
+    void registerUsersInBurst() throws Exception {
+        Consumer<String, UserRegisteredEvent> consumer = createConsumer();
+        // Warm up the connection pool, the password encoder, the producer and the JIT before measuring
+        registerUsers(SIGNUPS / 10);
+        int warmUpEvents = KafkaTestUtils.getRecords(consumer, Duration.ofSeconds(60), SIGNUPS / 10).count();
+
+        long start = System.nanoTime();
+        List<Long> latencies = registerUsers(SIGNUPS);
+        Duration signupsElapsed = Duration.ofNanos(System.nanoTime() - start);
+        int received = countRecords(consumer, SIGNUPS);
+        Duration eventsElapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        assertThat(warmUpEvents).isEqualTo(SIGNUPS / 10);
+        assertThat(received).isEqualTo(SIGNUPS);
+        Collections.sort(latencies);
+        log.info("[{}] {} signups on {} threads: {} signups/s, latency p50 {} ms, p95 {} ms, p99 {} ms, max {} ms",
+                settingsName(), SIGNUPS, THREADS, perSecond(SIGNUPS, signupsElapsed),
+                millis(percentile(latencies, 50)), millis(percentile(latencies, 95)),
+                millis(percentile(latencies, 99)), millis(latencies.get(latencies.size() - 1)));
+        log.info("[{}] {} events on the topic after {} ms: {} events/s", settingsName(), received,
+                eventsElapsed.toMillis(), perSecond(received, eventsElapsed));
+        log.info("[{}] producer: {} requests, batch size avg {} bytes, records per request avg {}, compression rate avg {}",
+                settingsName(), producerMetric("kafka.producer.request.total"),
+                producerMetric("kafka.producer.batch.size.avg"),
+                producerMetric("kafka.producer.records.per.request.avg"),
+                producerMetric("kafka.producer.compression.rate.avg"));
+    }
+
+    private List<Long> registerUsers(int signups) throws Exception {
+        String run = UUID.randomUUID().toString();
+        List<Callable<Long>> tasks = new ArrayList<>();
+        for (int i = 0; i < signups; i++) {
+            UserRegistrationRequest request = UserRegistrationRequest.builder()
+                    .name("User " + i)
+                    .email("user-" + i + "-" + run + "@email.com")
+                    .password("Passw0rd!")
+                    .build();
+            tasks.add(() -> {
+                long start = System.nanoTime();
+                userCredentialsService.registerUser(request);
+                return System.nanoTime() - start;
+            });
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Long> latencies = new ArrayList<>();
+            for (Future<Long> future : executor.invokeAll(tasks))
+                latencies.add(future.get());
+            return latencies;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private int countRecords(Consumer<String, UserRegisteredEvent> consumer, int expected) {
+        int received = 0;
+        long deadline = System.nanoTime() + Duration.ofSeconds(120).toNanos();
+        while (received < expected && System.nanoTime() < deadline) {
+            ConsumerRecords<String, UserRegisteredEvent> records = consumer.poll(Duration.ofMillis(100));
+            received += records.count();
+        }
+        return received;
+    }
+
+    private Consumer<String, UserRegisteredEvent> createConsumer() {
+        Map<String, Object> consumerProps = KafkaTestUtils.consumerProps(UUID.randomUUID().toString(), "true", embeddedKafka);
+        consumerProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        consumerProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
+        consumerProps.put(JsonDeserializer.TYPE_MAPPINGS, "event:com.gabrielluciano.authorizationserver.event.UserRegisteredEvent");
+        ConsumerFactory<String, UserRegisteredEvent> cf = new DefaultKafkaConsumerFactory<>(consumerProps,
+                new StringDeserializer(), new JsonDeserializer<>(UserRegisteredEvent.class));
+        Consumer<String, UserRegisteredEvent> consumer = cf.createConsumer();
+        embeddedKafka.consumeFromAnEmbeddedTopic(consumer, TOPIC);
+        return consumer;
+    }
+
+    // Totals are exported as function counters and averages as gauges, both have a single measurement
+    private String producerMetric(String name) {
+        Meter meter = meterRegistry.find(name).meter();
+        return meter == null ? "n/a" : String.format("%.1f", meter.measure().iterator().next().getValue());
+    }
+
+    private static long percentile(List<Long> sortedLatencies, int percentile) {
+        int index = (int) Math.ceil(percentile / 100.0 * sortedLatencies.size()) - 1;
+        return sortedLatencies.get(Math.max(index, 0));
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.2f", nanos / 1_000_000.0);
+    }
+
+    private static String perSecond(int count, Duration elapsed) {
+        return String.format("%.0f", count / (elapsed.toNanos() / 1_000_000_000.0));
+    }
+}
@@ -0,0 +1,22 @@
+package com.gabrielluciano.authorizationserver.load;
+
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+
+// Kafka client defaults: no compression, no linger and 16 KB batches
+@SpringBootTest(properties = {"eureka.client.enabled=false",
+        "spring.kafka.bootstrap-servers=${" + EmbeddedKafkaBroker.SPRING_EMBEDDED_KAFKA_BROKERS + "}",
+        "user-registration.outbox.kafka.compression-type=none",
+        "user-registration.outbox.kafka.linger=0ms",
+        "user-registration.outbox.kafka.batch-size=16384"})
+@EmbeddedKafka(topics = "user-registration-events")
+@EnabledIfSystemProperty(named = "loadTest", matches = "true")
+class DefaultProducerRegistrationBurstLoadTest extends AbstractRegistrationBurstLoadTest {
+
+    @Override
+    protected String settingsName() {
+        return "default";
+    }
+}
@@ -0,0 +1,19 @@
+package com.gabrielluciano.authorizationserver.load;
+
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+
+// Runs with the producer settings from application.yml
+@SpringBootTest(properties = {"eureka.client.enabled=false",
+        "spring.kafka.bootstrap-servers=${" + EmbeddedKafkaBroker.SPRING_EMBEDDED_KAFKA_BROKERS + "}"})
+@EmbeddedKafka(topics = "user-registration-events")
+@EnabledIfSystemProperty(named = "loadTest", matches = "true")
+class TunedProducerRegistrationBurstLoadTest extends AbstractRegistrationBurstLoadTest {
+
+    @Override
+    protected String settingsName() {
+        return "tuned";
+    }
+}
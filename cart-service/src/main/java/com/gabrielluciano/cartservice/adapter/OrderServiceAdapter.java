@@ -0,0 +1,66 @@
+package com.gabrielluciano.cartservice.adapter;
+
+import com.gabrielluciano.cartservice.config.AppConfig;
+import com.gabrielluciano.cartservice.dto.OrderCreateRequest;
+import com.gabrielluciano.cartservice.dto.OrderResponse;
+import com.gabrielluciano.cartservice.error.ErrorResponse;
+import com.gabrielluciano.cartservice.exception.OrderRejectedException;
+import com.gabrielluciano.cartservice.exception.ServiceUnavailableException;
+import com.gabrielluciano.cartservice.service.OrderService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.cloud.client.circuitbreaker.ReactiveCircuitBreakerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+@Service
+@RequiredArgsConstructor
+@Log4j2
+public class OrderServiceAdapter implements OrderService {
+
+    private final WebClient orderServiceWebClient;
+    private final ReactiveCircuitBreakerFactory cbFactory;
+
+    private static final String API_URL = "http://order-service/api/v1/orders";
+
+    @Override
+    public OrderResponse createOrder(OrderCreateRequest orderCreateRequest, String idempotencyKey) {
+        return submitOrder(orderCreateRequest, idempotencyKey).block();
+    }
+
+    @Override
+    public Mono<OrderResponse> submitOrder(OrderCreateRequest orderCreateRequest, String idempotencyKey) {
+        return cbFactory.create(AppConfig.ORDER_SERVICE_CIRCUIT_BREAKER)
+                .run(webClientCall(orderCreateRequest, idempotencyKey), throwable -> {
+                    if (throwable instanceof OrderRejectedException)
+                        return Mono.error(throwable);
+                    log.error("Could not reach order service");
+                    return Mono.error(new ServiceUnavailableException("Order Service Unavailable"));
+                });
+    }
+
+    private Mono<OrderResponse> webClientCall(OrderCreateRequest orderCreateRequest, String idempotencyKey) {
+        return orderServiceWebClient.post()
+                .uri(API_URL)
+                .header(IDEMPOTENCY_KEY_HEADER, idempotencyKey)
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .bodyValue(orderCreateRequest)
+                .exchangeToMono(response -> {
+                    if (response.statusCode().is2xxSuccessful())
+                        return response.bodyToMono(OrderResponse.class);
+                    if (response.statusCode().is4xxClientError()) {
+                        log.warn("Order service rejected order of user '{}' with status '{}'",
+                                orderCreateRequest.getUserId(), response.statusCode());
+                        return response.bodyToMono(ErrorResponse.class)
+                                .map(ErrorResponse::getError)
+                                .defaultIfEmpty("Order rejected by order service")
+                                .flatMap(error -> Mono.error(new OrderRejectedException(error)));
+                    }
+                    log.error("Could not create order, order service answered '{}'", response.statusCode());
+                    return Mono.error(new ServiceUnavailableException("Order Service Unavailable"));
+                });
+    }
+}
@@ -1,40 +1,169 @@
 package com.gabrielluciano.cartservice.adapter;
 
+import com.gabrielluciano.cartservice.dto.ProductBatchRequest;
+import com.gabrielluciano.cartservice.dto.ProductBatchResponse;
+import com.gabrielluciano.cartservice.dto.ProductSummary;
+import com.gabrielluciano.cartservice.event.ProductChangedEvent;
 import com.gabrielluciano.cartservice.exception.ServiceUnavailableException;
 import com.gabrielluciano.cartservice.service.ProductService;
+import com.github.benmanes.caffeine.cache.Cache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.cloud.client.circuitbreaker.ReactiveCircuitBreakerFactory;
-import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.context.event.EventListener;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
 @Service
 @RequiredArgsConstructor
 @Log4j2
 public class ProductServiceAdapter implements ProductService {
 
-    @LoadBalanced
-    private final WebClient.Builder webClientBuilder;
+    private final WebClient productServiceWebClient;
     private final ReactiveCircuitBreakerFactory cbFactory;
+    private final Cache<Long, Boolean> productExistenceCache;
+    private final Cache<Long, ProductSummary> productSummaryCache;
 
     private static final String API_URL = "http://product-service/api/v1/products/";
 
     @Override
     public boolean productExists(Long productId) {
-        return Boolean.TRUE.equals(cbFactory.create("product-service")
-                .run(webClientCall(productId), throwable -> {
-                    log.error("Could not reach product service");
-                    return Mono.error(new ServiceUnavailableException("Product Service Unavailable"));
-                })
-                .block());
+        return Boolean.TRUE.equals(checkProductExists(productId).block());
+    }
+
+    @Override
+    public Mono<Boolean> checkProductExists(Long productId) {
+        return Mono.defer(() -> {
+            Boolean cachedResult = productExistenceCache.getIfPresent(productId);
+            if (cachedResult != null)
+                return Mono.just(cachedResult);
+
+            // Failures are not cached, so the next call goes back to product service
+            return cbFactory.create("product-service")
+                    .run(webClientCall(productId), throwable -> {
+                        log.error("Could not reach product service");
+                        return Mono.error(new ServiceUnavailableException("Product Service Unavailable"));
+                    })
+                    .doOnNext(exists -> productExistenceCache.put(productId, exists));
+        });
+    }
+
+    @Override
+    public Set<Long> findMissingProducts(Collection<Long> productIds) {
+        return checkMissingProducts(productIds).block();
+    }
+
+    @Override
+    public Mono<Set<Long>> checkMissingProducts(Collection<Long> productIds) {
+        return Mono.defer(() -> {
+            Set<Long> uniqueProductIds = new LinkedHashSet<>(productIds);
+            Map<Long, Boolean> cachedResults = productExistenceCache.getAllPresent(uniqueProductIds);
+            Set<Long> missingProducts = cachedResults.entrySet().stream()
+                    .filter(cachedResult -> !cachedResult.getValue())
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toCollection(LinkedHashSet::new));
+
+            List<Long> uncachedProductIds = uniqueProductIds.stream()
+                    .filter(productId -> !cachedResults.containsKey(productId))
+                    .toList();
+            if (uncachedProductIds.isEmpty())
+                return Mono.just(missingProducts);
+
+            return batchLookup(uncachedProductIds)
+                    .flatMapIterable(ProductBatchResponse::getNotFound)
+                    .collect(() -> missingProducts, Set::add);
+        });
+    }
+
+    @Override
+    public Map<Long, ProductSummary> findProductSummaries(Collection<Long> productIds) {
+        return fetchProductSummaries(productIds).block();
+    }
+
+    @Override
+    public Mono<Map<Long, ProductSummary>> fetchProductSummaries(Collection<Long> productIds) {
+        return Mono.defer(() -> {
+            Set<Long> uniqueProductIds = new LinkedHashSet<>(productIds);
+            Map<Long, ProductSummary> productSummaries =
+                    new LinkedHashMap<>(productSummaryCache.getAllPresent(uniqueProductIds));
+
+            // Products already known to be missing have no summary, so they are not asked for again
+            List<Long> uncachedProductIds = uniqueProductIds.stream()
+                    .filter(productId -> !productSummaries.containsKey(productId))
+                    .filter(productId -> !Boolean.FALSE.equals(productExistenceCache.getIfPresent(productId)))
+                    .toList();
+            if (uncachedProductIds.isEmpty())
+                return Mono.just(productSummaries);
+
+            return batchLookup(uncachedProductIds)
+                    .flatMapIterable(ProductBatchResponse::getProducts)
+                    .map(ProductSummary::fromProductResponse)
+                    .collect(() -> productSummaries, (summaries, summary) -> summaries.put(summary.getId(), summary));
+        });
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent productChangedEvent) {
+        log.info("Invalidating cached data of product with id '{}'", productChangedEvent.getProductId());
+        productExistenceCache.invalidate(productChangedEvent.getProductId());
+        productSummaryCache.invalidate(productChangedEvent.getProductId());
+    }
+
+    private Flux<ProductBatchResponse> batchLookup(List<Long> productIds) {
+        return Flux.fromIterable(partition(productIds))
+                .concatMap(batch -> cbFactory.create("product-service")
+                        .run(batchWebClientCall(batch), throwable -> {
+                            log.error("Could not reach product service");
+                            return Mono.error(new ServiceUnavailableException("Product Service Unavailable"));
+                        }))
+                .doOnNext(this::cacheBatchResponse);
+    }
+
+    private void cacheBatchResponse(ProductBatchResponse response) {
+        response.getProducts().forEach(product -> {
+            productExistenceCache.put(product.getId(), true);
+            productSummaryCache.put(product.getId(), ProductSummary.fromProductResponse(product));
+        });
+        response.getNotFound().forEach(productId -> productExistenceCache.put(productId, false));
+    }
+
+    private static List<List<Long>> partition(List<Long> productIds) {
+        List<List<Long>> batches = new ArrayList<>();
+        for (int from = 0; from < productIds.size(); from += ProductBatchRequest.MAX_IDS)
+            batches.add(productIds.subList(from, Math.min(from + ProductBatchRequest.MAX_IDS, productIds.size())));
+        return batches;
+    }
+
+    private Mono<ProductBatchResponse> batchWebClientCall(List<Long> productIds) {
+        return productServiceWebClient.post()
+                .uri(API_URL + "batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .bodyValue(ProductBatchRequest.builder().ids(productIds).build())
+                .exchangeToMono(response -> {
+                    if (!response.statusCode().is2xxSuccessful()) {
+                        log.error("Could not check products, product service answered '{}'", response.statusCode());
+                        return Mono.error(new ServiceUnavailableException("Product Service Unavailable"));
+                    }
+                    return response.bodyToMono(ProductBatchResponse.class);
+                });
     }
 
     private Mono<Boolean> webClientCall(Long productId) {
-        return webClientBuilder.build().get()
+        return productServiceWebClient.get()
                 .uri(API_URL + productId)
                 .accept(MediaType.APPLICATION_JSON)
                 .exchangeToMono(response -> {
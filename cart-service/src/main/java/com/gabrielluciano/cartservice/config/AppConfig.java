@@ -1,16 +1,153 @@
 package com.gabrielluciano.cartservice.config;
 
+import com.gabrielluciano.cartservice.dto.ProductSummary;
+import com.gabrielluciano.cartservice.exception.OrderRejectedException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.timelimiter.TimeLimiterConfig;
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.circuitbreaker.resilience4j.ReactiveResilience4JCircuitBreakerFactory;
+import org.springframework.cloud.client.circuitbreaker.Customizer;
 import org.springframework.cloud.client.loadbalancer.LoadBalanced;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
 
 @Configuration
 public class AppConfig {
 
+    public static final String ORDER_SERVICE_CIRCUIT_BREAKER = "order-service";
+
+    @Value("${product-service.http.max-connections:50}")
+    private int maxConnections;
+
+    @Value("${product-service.http.pending-acquire-max-count:500}")
+    private int pendingAcquireMaxCount;
+
+    @Value("${product-service.http.pending-acquire-timeout:2s}")
+    private Duration pendingAcquireTimeout;
+
+    @Value("${product-service.http.max-idle-time:30s}")
+    private Duration maxIdleTime;
+
+    @Value("${product-service.http.evict-in-background:30s}")
+    private Duration evictInBackground;
+
+    @Value("${product-service.http.connect-timeout:1s}")
+    private Duration connectTimeout;
+
+    @Value("${product-service.http.response-timeout:2s}")
+    private Duration responseTimeout;
+
+    @Value("${product-service.existence-cache.positive-ttl:60s}")
+    private Duration productExistsTtl;
+
+    @Value("${product-service.existence-cache.negative-ttl:5s}")
+    private Duration productDoesNotExistTtl;
+
+    @Value("${product-service.existence-cache.maximum-size:10000}")
+    private long productExistenceCacheMaximumSize;
+
+    @Value("${product-service.summary-cache.ttl:60s}")
+    private Duration productSummaryTtl;
+
+    @Value("${product-service.summary-cache.maximum-size:10000}")
+    private long productSummaryCacheMaximumSize;
+
+    // Order creation waits on order service's own product lookups, so it gets a longer limit than reads
+    @Value("${order-service.timeout:5s}")
+    private Duration orderServiceTimeout;
+
     @Bean
     @LoadBalanced
     public WebClient.Builder webClientBuilder() {
         return WebClient.builder();
     }
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider productServiceConnectionProvider() {
+        return ConnectionProvider.builder("product-service")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMaxCount)
+                .pendingAcquireTimeout(pendingAcquireTimeout)
+                .maxIdleTime(maxIdleTime)
+                .evictInBackground(evictInBackground)
+                .metrics(true)
+                .build();
+    }
+
+    @Bean
+    public WebClient productServiceWebClient(@LoadBalanced WebClient.Builder webClientBuilder,
+                                             ConnectionProvider productServiceConnectionProvider) {
+        HttpClient httpClient = HttpClient.create(productServiceConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .responseTimeout(responseTimeout);
+
+        // Clone so the shared load-balanced builder keeps its default connector
+        return webClientBuilder.clone()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
+
+    @Bean
+    public WebClient orderServiceWebClient(@LoadBalanced WebClient.Builder webClientBuilder) {
+        return webClientBuilder.clone().build();
+    }
+
+    @Bean
+    public Customizer<ReactiveResilience4JCircuitBreakerFactory> orderServiceCircuitBreakerCustomizer() {
+        // A rejected order is an answer from a healthy service, so it does not count towards opening the circuit
+        return factory -> factory.configure(builder -> builder
+                .timeLimiterConfig(TimeLimiterConfig.custom()
+                        .timeoutDuration(orderServiceTimeout)
+                        .build())
+                .circuitBreakerConfig(CircuitBreakerConfig.custom()
+                        .ignoreExceptions(OrderRejectedException.class)
+                        .build()), ORDER_SERVICE_CIRCUIT_BREAKER);
+    }
+
+    @Bean
+    public Cache<Long, Boolean> productExistenceCache() {
+        return Caffeine.newBuilder()
+                .maximumSize(productExistenceCacheMaximumSize)
+                .expireAfter(new Expiry<Long, Boolean>() {
+                    @Override
+                    public long expireAfterCreate(Long productId, Boolean exists, long currentTime) {
+                        return ttlOf(exists);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Long productId, Boolean exists, long currentTime,
+                                                  long currentDuration) {
+                        return ttlOf(exists);
+                    }
+
+                    @Override
+                    public long expireAfterRead(Long productId, Boolean exists, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    private long ttlOf(Boolean exists) {
+                        return (exists ? productExistsTtl : productDoesNotExistTtl).toNanos();
+                    }
+                })
+                .build();
+    }
+
+    @Bean
+    public Cache<Long, ProductSummary> productSummaryCache() {
+        return Caffeine.newBuilder()
+                .maximumSize(productSummaryCacheMaximumSize)
+                .expireAfterWrite(productSummaryTtl)
+                .build();
+    }
 }
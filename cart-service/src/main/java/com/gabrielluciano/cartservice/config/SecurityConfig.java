@@ -1,16 +1,21 @@
 package com.gabrielluciano.cartservice.config;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
 import org.springframework.security.web.SecurityFilterChain;
 
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class SecurityConfig {
 
     @Value("${jwks.uri}")
@@ -22,11 +27,14 @@ public class SecurityConfig {
         http.authorizeHttpRequests(requests -> requests
                 .anyRequest().authenticated()
         );
-        http.oauth2ResourceServer(server -> server.
-                jwt(jwt -> jwt
-                        .jwkSetUri(jwksUri)
-                )
+        http.oauth2ResourceServer(server -> server
+                .jwt(Customizer.withDefaults())
         );
         return http.build();
     }
+
+    @Bean
+    public JwtDecoder jwtDecoder() {
+        return NimbusJwtDecoder.withJwkSetUri(jwksUri).build();
+    }
 }
@@ -1,31 +1,49 @@
 package com.gabrielluciano.cartservice.controller;
 
+import com.gabrielluciano.cartservice.dto.CartItemsRequest;
 import com.gabrielluciano.cartservice.dto.CartRequest;
 import com.gabrielluciano.cartservice.dto.CartResponse;
+import com.gabrielluciano.cartservice.dto.OrderResponse;
 import com.gabrielluciano.cartservice.service.CartService;
+import com.gabrielluciano.cartservice.service.OrderService;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
 import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/v1/cart")
 @RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class CartController {
 
     private final CartService cartService;
 
+    private static final String EXPAND_PRODUCTS = "products";
+
     @PostMapping("/add")
     @PreAuthorize("#cartRequest.userId.toString() == principal.claims['userId']")
     public CartResponse addItem(@RequestBody CartRequest cartRequest) {
         return cartService.addItem(cartRequest);
     }
 
+    @PostMapping("/add-all")
+    @PreAuthorize("#cartItemsRequest.userId.toString() == principal.claims['userId']")
+    public CartResponse addItems(@RequestBody @Valid CartItemsRequest cartItemsRequest) {
+        return cartService.addItems(cartItemsRequest);
+    }
+
     @GetMapping("/{userId}")
     @PreAuthorize("#userId.toString() == principal.claims['userId']")
-    public CartResponse getCart(@PathVariable UUID userId) {
+    public CartResponse getCart(@PathVariable UUID userId, @RequestParam(required = false) List<String> expand) {
+        if (expand != null && expand.contains(EXPAND_PRODUCTS))
+            return cartService.getCartWithProducts(userId);
         return cartService.getCart(userId);
     }
 
@@ -35,4 +53,12 @@ public class CartController {
     public void clearCart(@PathVariable UUID userId) {
         cartService.clearCart(userId);
     }
+
+    @PostMapping("/{userId}/checkout")
+    @PreAuthorize("#userId.toString() == principal.claims['userId']")
+    @ResponseStatus(HttpStatus.CREATED)
+    public OrderResponse checkout(@PathVariable UUID userId,
+                                  @RequestHeader(OrderService.IDEMPOTENCY_KEY_HEADER) @Size(max = 100) String idempotencyKey) {
+        return cartService.checkout(userId, idempotencyKey);
+    }
 }
@@ -0,0 +1,22 @@
+package com.gabrielluciano.cartservice.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartItemRequest {
+
+    @NotNull
+    private Long productId;
+
+    @NotNull
+    @Positive
+    private Integer quantity;
+}
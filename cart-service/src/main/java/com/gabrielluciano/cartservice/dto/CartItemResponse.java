@@ -1,20 +1,37 @@
 package com.gabrielluciano.cartservice.dto;
 
-import com.gabrielluciano.cartservice.model.CartItem;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Builder;
 import lombok.Data;
 
+import java.math.BigDecimal;
+import java.util.Map;
+
 @Data
 @Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class CartItemResponse {
 
     private Long productId;
     private Integer quantity;
 
-    public static CartItemResponse fromCartItem(CartItem cartItem) {
+    // Only set when the cart is requested with expand=products
+    private String name;
+    private BigDecimal price;
+
+    public static CartItemResponse fromCartItem(Map.Entry<Long, Integer> cartItem) {
         return CartItemResponse.builder()
-                .productId(cartItem.getProductId())
-                .quantity(cartItem.getQuantity())
+                .productId(cartItem.getKey())
+                .quantity(cartItem.getValue())
                 .build();
     }
+
+    public static CartItemResponse fromCartItem(Map.Entry<Long, Integer> cartItem, ProductSummary product) {
+        CartItemResponse cartItemResponse = fromCartItem(cartItem);
+        if (product != null) {
+            cartItemResponse.setName(product.getName());
+            cartItemResponse.setPrice(product.getPrice());
+        }
+        return cartItemResponse;
+    }
 }
@@ -0,0 +1,42 @@
+package com.gabrielluciano.cartservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartItemsRequest {
+
+    public static final int MAX_ITEMS = 100;
+
+    @NotNull
+    private UUID userId;
+
+    @NotEmpty
+    @Size(max = MAX_ITEMS)
+    private List<@NotNull @Valid CartItemRequest> items;
+
+    /**
+     * Quantities keyed by product id in request order, with repeated products added together.
+     */
+    @JsonIgnore
+    public Map<Long, Integer> getQuantitiesByProductId() {
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        items.forEach(item -> quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum));
+        return quantities;
+    }
+}
@@ -5,6 +5,7 @@ import lombok.Builder;
 import lombok.Data;
 
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @Data
@@ -19,8 +20,21 @@ public class CartResponse {
         return CartResponse.builder()
                 .id(cart.getId())
                 .userId(cart.getUserId())
-                .items(cart.getItems().stream()
+                .items(cart.getItems().entrySet().stream()
                         .map(CartItemResponse::fromCartItem).toList())
                 .build();
     }
+
+    /**
+     * Builds the response with product name and price on every line whose product is in {@code products}.
+     */
+    public static CartResponse fromCart(Cart cart, Map<Long, ProductSummary> products) {
+        return CartResponse.builder()
+                .id(cart.getId())
+                .userId(cart.getUserId())
+                .items(cart.getItems().entrySet().stream()
+                        .map(cartItem -> CartItemResponse.fromCartItem(cartItem, products.get(cartItem.getKey())))
+                        .toList())
+                .build();
+    }
 }
@@ -0,0 +1,29 @@
+package com.gabrielluciano.cartservice.dto;
+
+import com.gabrielluciano.cartservice.model.Cart;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderCreateRequest {
+
+    private UUID userId;
+    private List<OrderCreateRequestItem> items;
+
+    public static OrderCreateRequest fromCart(Cart cart) {
+        return OrderCreateRequest.builder()
+                .userId(cart.getUserId())
+                .items(cart.itemsToOrder().entrySet().stream()
+                        .map(item -> new OrderCreateRequestItem(item.getKey(), item.getValue()))
+                        .toList())
+                .build();
+    }
+}
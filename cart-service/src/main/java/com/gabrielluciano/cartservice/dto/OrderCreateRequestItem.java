@@ -0,0 +1,16 @@
+package com.gabrielluciano.cartservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderCreateRequestItem {
+
+    private Long productId;
+    private Integer quantity;
+}
@@ -0,0 +1,23 @@
+package com.gabrielluciano.cartservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderResponse {
+
+    private UUID id;
+    private UUID userId;
+    private BigDecimal totalAmount;
+    private String status;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,20 @@
+package com.gabrielluciano.cartservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductBatchRequest {
+
+    // Largest batch accepted by product-service
+    public static final int MAX_IDS = 100;
+
+    private List<Long> ids;
+}
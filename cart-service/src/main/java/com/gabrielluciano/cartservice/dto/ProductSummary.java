@@ -0,0 +1,30 @@
+package com.gabrielluciano.cartservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * The slice of a product that cart-service keeps locally to render carts.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSummary {
+
+    private Long id;
+    private String name;
+    private BigDecimal price;
+
+    public static ProductSummary fromProductResponse(ProductResponse productResponse) {
+        return ProductSummary.builder()
+                .id(productResponse.getId())
+                .name(productResponse.getName())
+                .price(productResponse.getPrice())
+                .build();
+    }
+}
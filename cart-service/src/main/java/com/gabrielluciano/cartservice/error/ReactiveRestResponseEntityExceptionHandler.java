@@ -0,0 +1,93 @@
+package com.gabrielluciano.cartservice.error;
+
+import com.gabrielluciano.cartservice.exception.CartNotFoundException;
+import com.gabrielluciano.cartservice.exception.CheckoutInProgressException;
+import com.gabrielluciano.cartservice.exception.EmptyCartException;
+import com.gabrielluciano.cartservice.exception.OrderRejectedException;
+import com.gabrielluciano.cartservice.exception.ProductNotFoundException;
+import com.gabrielluciano.cartservice.exception.ResourceNotFoundException;
+import com.gabrielluciano.cartservice.exception.ServiceUnavailableException;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.reactive.result.method.annotation.ResponseEntityExceptionHandler;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+@RestControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveRestResponseEntityExceptionHandler extends ResponseEntityExceptionHandler {
+
+    @ExceptionHandler({ProductNotFoundException.class, CartNotFoundException.class})
+    protected ResponseEntity<ErrorResponse> handleResourceNotFoundException(
+            ResourceNotFoundException ex, ServerHttpRequest request) {
+
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(ErrorResponse.builder()
+                        .error(ex.getMessage())
+                        .status(HttpStatus.NOT_FOUND.value())
+                        .path(request.getPath().value())
+                        .timestamp(LocalDateTime.now(ZoneOffset.UTC).toString())
+                        .build());
+    }
+
+    @ExceptionHandler({EmptyCartException.class, OrderRejectedException.class})
+    protected ResponseEntity<ErrorResponse> handleCheckoutRejectedException(
+            RuntimeException ex, ServerHttpRequest request) {
+
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+                .body(ErrorResponse.builder()
+                        .error(ex.getMessage())
+                        .status(HttpStatus.UNPROCESSABLE_ENTITY.value())
+                        .path(request.getPath().value())
+                        .timestamp(LocalDateTime.now(ZoneOffset.UTC).toString())
+                        .build());
+    }
+
+    @ExceptionHandler(CheckoutInProgressException.class)
+    protected ResponseEntity<ErrorResponse> handleCheckoutInProgressException(
+            CheckoutInProgressException ex, ServerHttpRequest request) {
+
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(ErrorResponse.builder()
+                        .error(ex.getMessage())
+                        .status(HttpStatus.CONFLICT.value())
+                        .path(request.getPath().value())
+                        .timestamp(LocalDateTime.now(ZoneOffset.UTC).toString())
+                        .build());
+    }
+
+    @ExceptionHandler(ServiceUnavailableException.class)
+    protected ResponseEntity<ErrorResponse> handleServiceUnavailableException(
+            ServiceUnavailableException ex, ServerHttpRequest request) {
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(ErrorResponse.builder()
+                        .error(ex.getMessage())
+                        .status(HttpStatus.SERVICE_UNAVAILABLE.value())
+                        .path(request.getPath().value())
+                        .timestamp(LocalDateTime.now(ZoneOffset.UTC).toString())
+                        .build());
+    }
+
+    @Override
+    protected Mono<ResponseEntity<Object>> handleExceptionInternal(
+            Exception ex, Object body, HttpHeaders headers, HttpStatusCode statusCode, ServerWebExchange exchange) {
+
+        return Mono.just(ResponseEntity.status(statusCode)
+                .body(ErrorResponse.builder()
+                        .error(ex.getMessage())
+                        .status(statusCode.value())
+                        .path(exchange.getRequest().getPath().value())
+                        .timestamp(LocalDateTime.now(ZoneOffset.UTC).toString())
+                        .build()));
+    }
+}
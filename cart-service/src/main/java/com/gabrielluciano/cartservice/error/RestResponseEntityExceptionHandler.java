@@ -1,10 +1,14 @@
 package com.gabrielluciano.cartservice.error;
 
 import com.gabrielluciano.cartservice.exception.CartNotFoundException;
+import com.gabrielluciano.cartservice.exception.CheckoutInProgressException;
+import com.gabrielluciano.cartservice.exception.EmptyCartException;
+import com.gabrielluciano.cartservice.exception.OrderRejectedException;
 import com.gabrielluciano.cartservice.exception.ProductNotFoundException;
 import com.gabrielluciano.cartservice.exception.ResourceNotFoundException;
 import com.gabrielluciano.cartservice.exception.ServiceUnavailableException;
 import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
@@ -19,6 +23,7 @@ import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 
 @RestControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class RestResponseEntityExceptionHandler extends ResponseEntityExceptionHandler {
 
     @ExceptionHandler({ProductNotFoundException.class, CartNotFoundException.class})
@@ -34,6 +39,32 @@ public class RestResponseEntityExceptionHandler extends ResponseEntityExceptionH
                         .build());
     }
 
+    @ExceptionHandler({EmptyCartException.class, OrderRejectedException.class})
+    protected ResponseEntity<ErrorResponse> handleCheckoutRejectedException(
+            RuntimeException ex, HttpServletRequest request) {
+
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+                .body(ErrorResponse.builder()
+                        .error(ex.getMessage())
+                        .status(HttpStatus.UNPROCESSABLE_ENTITY.value())
+                        .path(request.getRequestURI())
+                        .timestamp(LocalDateTime.now(ZoneOffset.UTC).toString())
+                        .build());
+    }
+
+    @ExceptionHandler(CheckoutInProgressException.class)
+    protected ResponseEntity<ErrorResponse> handleCheckoutInProgressException(
+            CheckoutInProgressException ex, HttpServletRequest request) {
+
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(ErrorResponse.builder()
+                        .error(ex.getMessage())
+                        .status(HttpStatus.CONFLICT.value())
+                        .path(request.getRequestURI())
+                        .timestamp(LocalDateTime.now(ZoneOffset.UTC).toString())
+                        .build());
+    }
+
     @ExceptionHandler(ServiceUnavailableException.class)
     protected ResponseEntity<ErrorResponse> handleServiceUnavailableException(
             ServiceUnavailableException ex, HttpServletRequest request) {
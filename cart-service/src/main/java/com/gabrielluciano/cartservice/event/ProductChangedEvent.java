@@ -0,0 +1,14 @@
+package com.gabrielluciano.cartservice.event;
+
+import lombok.*;
+
+@Data
+@Builder
+@EqualsAndHashCode
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductChangedEvent {
+
+    private final String eventType = "ProductChangedEvent";
+    private Long productId;
+}
@@ -0,0 +1,10 @@
+package com.gabrielluciano.cartservice.exception;
+
+import java.util.UUID;
+
+public class CheckoutInProgressException extends RuntimeException {
+
+    public CheckoutInProgressException(UUID userId) {
+        super(String.format("Cart for user with id '%s' is being checked out with another idempotency key", userId));
+    }
+}
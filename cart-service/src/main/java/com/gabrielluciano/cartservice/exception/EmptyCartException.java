@@ -0,0 +1,10 @@
+package com.gabrielluciano.cartservice.exception;
+
+import java.util.UUID;
+
+public class EmptyCartException extends RuntimeException {
+
+    public EmptyCartException(UUID userId) {
+        super(String.format("Cart for user with id '%s' is empty", userId));
+    }
+}
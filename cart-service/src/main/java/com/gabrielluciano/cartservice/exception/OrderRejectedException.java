@@ -0,0 +1,11 @@
+package com.gabrielluciano.cartservice.exception;
+
+/**
+ * Order service refused the order, retrying the same checkout will not succeed.
+ */
+public class OrderRejectedException extends RuntimeException {
+
+    public OrderRejectedException(String message) {
+        super(message);
+    }
+}
@@ -1,8 +1,14 @@
 package com.gabrielluciano.cartservice.exception;
 
+import java.util.Collection;
+
 public class ProductNotFoundException extends ResourceNotFoundException {
 
     public ProductNotFoundException(Long id) {
         super(String.format("Product with id '%s' not found", id));
     }
+
+    public ProductNotFoundException(Collection<Long> ids) {
+        super(String.format("Products with ids '%s' not found", ids));
+    }
 }
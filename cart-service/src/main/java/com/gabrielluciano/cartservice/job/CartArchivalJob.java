@@ -0,0 +1,20 @@
+package com.gabrielluciano.cartservice.job;
+
+import com.gabrielluciano.cartservice.service.CartArchivalService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "cart.archival.enabled", havingValue = "true")
+public class CartArchivalJob {
+
+    private final CartArchivalService cartArchivalService;
+
+    @Scheduled(initialDelayString = "${cart.archival.interval:PT5M}", fixedDelayString = "${cart.archival.interval:PT5M}")
+    public void archiveDeletedCarts() {
+        cartArchivalService.archiveDeletedCarts();
+    }
+}
@@ -0,0 +1,69 @@
+package com.gabrielluciano.cartservice.migration;
+
+import com.gabrielluciano.cartservice.model.ArchivedCart;
+import com.gabrielluciano.cartservice.model.Cart;
+import com.mongodb.client.result.UpdateResult;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.bson.Document;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Rewrites carts stored with the former {@code items: [{productId, quantity}]} layout into the
+ * {@code items: {"<productId>": quantity}} layout. Runs server-side and only touches documents still
+ * holding an array, so it is a no-op once every cart has been converted.
+ * <p>
+ * Disabled by default. Instances of the list layout cannot read converted carts and instances of the map layout
+ * cannot read unconverted ones, so the layouts must never serve traffic side by side:
+ * <ol>
+ *     <li>scale cart-service down to zero instances</li>
+ *     <li>start a single instance of the map layout with {@code CART_ITEMS_MAP_MIGRATION_ENABLED=true} and wait
+ *     for it to log the migrated collections</li>
+ *     <li>scale out with the flag unset</li>
+ * </ol>
+ * The conversion is not reversible, rolling back to the list layout needs a restore of both collections.
+ */
+@Component
+@RequiredArgsConstructor
+@Log4j2
+@ConditionalOnProperty(name = "cart.migration.items-map.enabled", havingValue = "true")
+public class CartItemsMigration implements ApplicationRunner {
+
+    private static final int BSON_ARRAY_TYPE = 4;
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        migrate(Cart.class);
+        migrate(ArchivedCart.class);
+    }
+
+    private void migrate(Class<?> entityClass) {
+        Query cartsWithItemsList = Query.query(Criteria.where("items").type(BSON_ARRAY_TYPE));
+        UpdateResult result = mongoTemplate.updateMulti(cartsWithItemsList, itemsListToMap(), entityClass);
+        if (result.getModifiedCount() > 0)
+            log.info("Successfully migrated items of '{}' documents in collection '{}'",
+                    result.getModifiedCount(), mongoTemplate.getCollectionName(entityClass));
+    }
+
+    private static AggregationUpdate itemsListToMap() {
+        Document itemsMap = new Document("$arrayToObject", new Document("$map", new Document("input", "$items")
+                .append("as", "item")
+                .append("in", new Document("k", new Document("$toString", "$$item.productId"))
+                        .append("v", "$$item.quantity"))));
+
+        AggregationOperation setItems = context -> new Document("$set", new Document("items", itemsMap));
+        return AggregationUpdate.from(List.of(setItems));
+    }
+}
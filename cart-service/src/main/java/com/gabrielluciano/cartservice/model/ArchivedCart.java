@@ -0,0 +1,35 @@
+package com.gabrielluciano.cartservice.model;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Document(collection = "cart_archive")
+public class ArchivedCart {
+
+    @Id
+    private String id;
+    private UUID userId;
+    private Map<Long, Integer> items;
+    private LocalDateTime deletedAt;
+    private LocalDateTime archivedAt;
+
+    public static ArchivedCart fromCart(Cart cart, LocalDateTime archivedAt) {
+        return ArchivedCart.builder()
+                .id(cart.getId())
+                .userId(cart.getUserId())
+                .items(cart.getItems())
+                .deletedAt(cart.getDeletedAt())
+                .archivedAt(archivedAt)
+                .build();
+    }
+}
@@ -2,9 +2,12 @@ package com.gabrielluciano.cartservice.model;
 
 import lombok.*;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
-import java.util.List;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
 
@@ -13,16 +16,53 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@Document
 public class Cart {
 
+    public static final String ACTIVE_CART_INDEX = "active_cart_by_user";
+
     @Id
     private String id;
+    // Soft-deleted carts are left out of the index, so a user has at most one active cart
+    @Indexed(name = ACTIVE_CART_INDEX, unique = true, partialFilter = "{ 'deletedAt': null }")
     private UUID userId;
-    private List<CartItem> items;
+    // Quantities keyed by product id, stored as an embedded document so an add is a single $inc on
+    // items.<productId>. Insertion order is kept both by MongoDB and by the LinkedHashMap it is read into
+    @Builder.Default
+    private Map<Long, Integer> items = new LinkedHashMap<>();
+    // Lets the archival job find the oldest soft-deleted carts without scanning the collection
+    @Indexed(name = "cart_by_deleted_at")
     private LocalDateTime deletedAt;
+    // Idempotency key of the checkout that ordered this cart, so a retried checkout finds it once it is deleted
+    @Indexed(name = "cart_by_checkout_key", sparse = true)
+    private String checkoutKey;
+    // Copy of the items taken when the checkout started, the items its order is created with
+    private Map<Long, Integer> checkoutItems;
+
+    public void addItem(long productId, int quantity) {
+        this.items.merge(productId, quantity, Integer::sum);
+    }
+
+    public int getQuantity(long productId) {
+        return this.items.getOrDefault(productId, 0);
+    }
+
+    public Map<Long, Integer> itemsToOrder() {
+        // Carts checked out before the copy was kept were ordered with all of their items
+        return this.checkoutItems != null ? this.checkoutItems : this.items;
+    }
 
-    public void addItem(CartItem item) {
-        this.items.add(item);
+    /**
+     * @return the quantities added to the cart after its checkout started, which its order does not contain
+     */
+    public Map<Long, Integer> itemsAddedSinceCheckout() {
+        Map<Long, Integer> addedItems = new LinkedHashMap<>();
+        this.items.forEach((productId, quantity) -> {
+            int added = quantity - itemsToOrder().getOrDefault(productId, 0);
+            if (added > 0)
+                addedItems.put(productId, added);
+        });
+        return addedItems;
     }
 
     @Override
@@ -30,11 +70,12 @@ public class Cart {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Cart cart = (Cart) o;
-        return Objects.equals(id, cart.id) && Objects.equals(userId, cart.userId) && Objects.equals(items, cart.items) && Objects.equals(deletedAt, cart.deletedAt);
+        return Objects.equals(id, cart.id) && Objects.equals(userId, cart.userId) && Objects.equals(items, cart.items) && Objects.equals(deletedAt, cart.deletedAt) && Objects.equals(checkoutKey, cart.checkoutKey) && Objects.equals(checkoutItems, cart.checkoutItems);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(id, userId, items, deletedAt);
+        // Items are left out so hashing does not walk large carts, equal carts still hash the same
+        return Objects.hash(id, userId, deletedAt);
     }
 }
@@ -1,39 +0,0 @@
-package com.gabrielluciano.cartservice.model;
-
-import lombok.AllArgsConstructor;
-import lombok.Getter;
-import lombok.NoArgsConstructor;
-import lombok.Setter;
-
-import java.util.Objects;
-
-@Getter
-@Setter
-@NoArgsConstructor
-@AllArgsConstructor
-public class CartItem {
-
-    private Long productId;
-    private Integer quantity;
-
-    public static CartItem fromProductIdAndQuantity(Long productId, Integer quantity) {
-        return new CartItem(productId, quantity);
-    }
-
-    public void increaseQuantityBy(Integer quantity) {
-        this.quantity += quantity;
-    }
-
-    @Override
-    public boolean equals(Object o) {
-        if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
-        CartItem cartItem = (CartItem) o;
-        return Objects.equals(productId, cartItem.productId) && Objects.equals(quantity, cartItem.quantity);
-    }
-
-    @Override
-    public int hashCode() {
-        return Objects.hash(productId, quantity);
-    }
-}
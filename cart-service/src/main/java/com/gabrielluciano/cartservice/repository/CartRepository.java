@@ -7,8 +7,10 @@ import org.springframework.data.mongodb.repository.Query;
 import java.util.Optional;
 import java.util.UUID;
 
-public interface CartRepository extends MongoRepository<Cart, String> {
+public interface CartRepository extends MongoRepository<Cart, String>, CartRepositoryCustom {
 
     @Query("{ 'userId': ?0, 'deletedAt': null }")
     Optional<Cart> findByUserIdAndDeletedAtIsNull(UUID userId);
+
+    Optional<Cart> findByUserIdAndCheckoutKey(UUID userId, String checkoutKey);
 }
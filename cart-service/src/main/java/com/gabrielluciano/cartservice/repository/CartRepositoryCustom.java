@@ -0,0 +1,51 @@
+package com.gabrielluciano.cartservice.repository;
+
+import com.gabrielluciano.cartservice.exception.CheckoutInProgressException;
+import com.gabrielluciano.cartservice.model.Cart;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface CartRepositoryCustom {
+
+    /**
+     * Adds the quantity to the user's active cart in one database operation, creating the cart or the
+     * item when they do not exist yet.
+     *
+     * @return the cart as it is after the update
+     */
+    Cart addItemToActiveCart(UUID userId, Long productId, Integer quantity);
+
+    /**
+     * Adds every quantity to the user's active cart in one database operation, creating the cart or the
+     * items when they do not exist yet.
+     *
+     * @return the cart as it is after the update
+     */
+    Cart addItemsToActiveCart(UUID userId, Map<Long, Integer> quantities);
+
+    /**
+     * Starts the checkout with the given key. When an attempt with the key already checked its cart out, that
+     * cart is returned. Otherwise the key is recorded on the user's active cart, with a copy of its items taken
+     * in the same database operation, unless a start with the same key took the copy already. The copy is what
+     * the checkout orders, adds made afterwards are left out of it.
+     *
+     * @return the cart, or empty when the user has no active cart
+     * @throws CheckoutInProgressException when the active cart is being checked out with another key
+     */
+    Optional<Cart> startCheckout(UUID userId, String checkoutKey);
+
+    /**
+     * Soft-deletes the user's active cart started by the checkout, keeping only the items it ordered. The
+     * quantities added after the checkout started are moved to a new active cart.
+     *
+     * @return the deleted cart, or empty when no active cart was started by the checkout
+     */
+    Optional<Cart> checkoutActiveCart(UUID userId, String checkoutKey);
+
+    /**
+     * Removes the checkout key and its copy of the items from the user's active cart.
+     */
+    void cancelCheckoutOfActiveCart(UUID userId, String checkoutKey);
+}
@@ -0,0 +1,81 @@
+package com.gabrielluciano.cartservice.repository;
+
+import com.gabrielluciano.cartservice.exception.CheckoutInProgressException;
+import com.gabrielluciano.cartservice.model.Cart;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+@RequiredArgsConstructor
+class CartRepositoryCustomImpl implements CartRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public Cart addItemToActiveCart(UUID userId, Long productId, Integer quantity) {
+        return addItemsToActiveCart(userId, Map.of(productId, quantity));
+    }
+
+    @Override
+    public Cart addItemsToActiveCart(UUID userId, Map<Long, Integer> quantities) {
+        try {
+            return upsertActiveCart(userId, quantities);
+        } catch (DuplicateKeyException ex) {
+            // A concurrent add created the user's active cart first, so the retry updates that cart
+            return upsertActiveCart(userId, quantities);
+        }
+    }
+
+    @Override
+    public Optional<Cart> startCheckout(UUID userId, String checkoutKey) {
+        Cart startedCart = mongoTemplate.findAndModify(CartUpdates.activeCartOpenToCheckout(userId, checkoutKey),
+                CartUpdates.startCheckout(checkoutKey), CartUpdates.RETURN_NEW, Cart.class);
+        // Looked up after the start, so an attempt with the same key that finished meanwhile is seen too. The
+        // active cart then holds the items added during that attempt, which are not in its order
+        Cart checkedOutCart = mongoTemplate.findOne(CartUpdates.cartCheckedOutBy(userId, checkoutKey), Cart.class);
+        if (checkedOutCart != null) {
+            if (startedCart != null)
+                cancelCheckoutOfActiveCart(userId, checkoutKey);
+            return Optional.of(checkedOutCart);
+        }
+        if (startedCart != null)
+            return Optional.of(startedCart);
+        if (mongoTemplate.exists(CartUpdates.activeCartOf(userId), Cart.class))
+            throw new CheckoutInProgressException(userId);
+        return Optional.empty();
+    }
+
+    @Override
+    public Optional<Cart> checkoutActiveCart(UUID userId, String checkoutKey) {
+        while (true) {
+            Cart cart = mongoTemplate.findOne(CartUpdates.activeCartCheckedOutBy(userId, checkoutKey), Cart.class);
+            if (cart == null)
+                return Optional.empty();
+
+            // Only matches while the cart holds the items just read, an add in between makes it read them again
+            Cart checkedOutCart = mongoTemplate.findAndModify(CartUpdates.sameItemsAs(cart),
+                    CartUpdates.checkout(cart), CartUpdates.RETURN_NEW, Cart.class);
+            if (checkedOutCart != null) {
+                Map<Long, Integer> addedItems = cart.itemsAddedSinceCheckout();
+                if (!addedItems.isEmpty())
+                    addItemsToActiveCart(userId, addedItems);
+                return Optional.of(checkedOutCart);
+            }
+        }
+    }
+
+    @Override
+    public void cancelCheckoutOfActiveCart(UUID userId, String checkoutKey) {
+        mongoTemplate.updateFirst(CartUpdates.activeCartCheckedOutBy(userId, checkoutKey),
+                CartUpdates.cancelCheckout(), Cart.class);
+    }
+
+    private Cart upsertActiveCart(UUID userId, Map<Long, Integer> quantities) {
+        return mongoTemplate.findAndModify(CartUpdates.activeCartOf(userId),
+                CartUpdates.addItems(quantities), CartUpdates.UPSERT_AND_RETURN_NEW, Cart.class);
+    }
+}
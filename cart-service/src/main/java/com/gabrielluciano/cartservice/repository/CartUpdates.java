@@ -0,0 +1,86 @@
+package com.gabrielluciano.cartservice.repository;
+
+import com.gabrielluciano.cartservice.model.Cart;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Query and update definitions shared by the blocking and reactive cart repositories.
+ */
+final class CartUpdates {
+
+    static final FindAndModifyOptions UPSERT_AND_RETURN_NEW = FindAndModifyOptions.options()
+            .upsert(true)
+            .returnNew(true);
+
+    static final FindAndModifyOptions RETURN_NEW = FindAndModifyOptions.options()
+            .returnNew(true);
+
+    private CartUpdates() {
+    }
+
+    static Query activeCartOf(UUID userId) {
+        return Query.query(Criteria.where("userId").is(userId).and("deletedAt").is(null));
+    }
+
+    static UpdateDefinition addItems(Map<Long, Integer> quantities) {
+        // Creates the items whose product is not in the cart yet
+        Update update = new Update();
+        quantities.forEach((productId, quantity) -> update.inc("items." + productId, quantity));
+        return update;
+    }
+
+    static Query activeCartCheckedOutBy(UUID userId, String checkoutKey) {
+        return activeCartOf(userId).addCriteria(Criteria.where("checkoutKey").is(checkoutKey));
+    }
+
+    static Query cartCheckedOutBy(UUID userId, String checkoutKey) {
+        return Query.query(Criteria.where("userId").is(userId)
+                .and("checkoutKey").is(checkoutKey)
+                .and("deletedAt").ne(null));
+    }
+
+    static Query activeCartOpenToCheckout(UUID userId, String checkoutKey) {
+        // Also matches carts that never had a checkout key, null matches a missing field
+        return activeCartOf(userId).addCriteria(Criteria.where("checkoutKey").in(null, checkoutKey));
+    }
+
+    static UpdateDefinition startCheckout(String checkoutKey) {
+        // A pipeline update, so the copy is of the items as they are when the update is applied. A copy taken
+        // by a concurrent start with the same key is kept, it may already have been ordered
+        return AggregationUpdate.from(List.of(context -> new Document("$set",
+                new Document("checkoutKey", new Document("$literal", checkoutKey))
+                        .append("checkoutItems", new Document("$ifNull", List.of("$checkoutItems", "$items"))))));
+    }
+
+    static UpdateDefinition cancelCheckout() {
+        return new Update().unset("checkoutKey").unset("checkoutItems");
+    }
+
+    static Query sameItemsAs(Cart cart) {
+        // Embedded documents only match with the same fields in the same order, as the items were read
+        Document items = new Document();
+        cart.getItems().forEach((productId, quantity) -> items.append(productId.toString(), quantity));
+        return Query.query(Criteria.where("_id").is(cart.getId())
+                .and("deletedAt").is(null)
+                .and("checkoutKey").is(cart.getCheckoutKey())
+                .and("items").is(items));
+    }
+
+    static UpdateDefinition checkout(Cart cart) {
+        return new Update()
+                .set("deletedAt", LocalDateTime.now(ZoneOffset.UTC))
+                .set("items", cart.itemsToOrder());
+    }
+}
@@ -0,0 +1,16 @@
+package com.gabrielluciano.cartservice.repository;
+
+import com.gabrielluciano.cartservice.model.Cart;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+public interface ReactiveCartRepository extends ReactiveMongoRepository<Cart, String>, ReactiveCartRepositoryCustom {
+
+    @Query("{ 'userId': ?0, 'deletedAt': null }")
+    Mono<Cart> findByUserIdAndDeletedAtIsNull(UUID userId);
+
+    Mono<Cart> findByUserIdAndCheckoutKey(UUID userId, String checkoutKey);
+}
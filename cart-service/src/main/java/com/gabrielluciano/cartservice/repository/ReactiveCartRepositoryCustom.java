@@ -0,0 +1,35 @@
+package com.gabrielluciano.cartservice.repository;
+
+import com.gabrielluciano.cartservice.model.Cart;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.UUID;
+
+public interface ReactiveCartRepositoryCustom {
+
+    /**
+     * Reactive counterpart of {@link CartRepositoryCustom#addItemToActiveCart(UUID, Long, Integer)}.
+     */
+    Mono<Cart> addItemToActiveCart(UUID userId, Long productId, Integer quantity);
+
+    /**
+     * Reactive counterpart of {@link CartRepositoryCustom#addItemsToActiveCart(UUID, Map)}.
+     */
+    Mono<Cart> addItemsToActiveCart(UUID userId, Map<Long, Integer> quantities);
+
+    /**
+     * Reactive counterpart of {@link CartRepositoryCustom#startCheckout(UUID, String)}.
+     */
+    Mono<Cart> startCheckout(UUID userId, String checkoutKey);
+
+    /**
+     * Reactive counterpart of {@link CartRepositoryCustom#checkoutActiveCart(UUID, String)}.
+     */
+    Mono<Cart> checkoutActiveCart(UUID userId, String checkoutKey);
+
+    /**
+     * Reactive counterpart of {@link CartRepositoryCustom#cancelCheckoutOfActiveCart(UUID, String)}.
+     */
+    Mono<Void> cancelCheckoutOfActiveCart(UUID userId, String checkoutKey);
+}
@@ -0,0 +1,75 @@
+package com.gabrielluciano.cartservice.repository;
+
+import com.gabrielluciano.cartservice.exception.CheckoutInProgressException;
+import com.gabrielluciano.cartservice.model.Cart;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+@RequiredArgsConstructor
+class ReactiveCartRepositoryCustomImpl implements ReactiveCartRepositoryCustom {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    @Override
+    public Mono<Cart> addItemToActiveCart(UUID userId, Long productId, Integer quantity) {
+        return addItemsToActiveCart(userId, Map.of(productId, quantity));
+    }
+
+    @Override
+    public Mono<Cart> addItemsToActiveCart(UUID userId, Map<Long, Integer> quantities) {
+        // A concurrent add may create the user's active cart first, so the retry updates that cart
+        return upsertActiveCart(userId, quantities)
+                .onErrorResume(DuplicateKeyException.class, ex -> upsertActiveCart(userId, quantities));
+    }
+
+    @Override
+    public Mono<Cart> startCheckout(UUID userId, String checkoutKey) {
+        return mongoTemplate.findAndModify(CartUpdates.activeCartOpenToCheckout(userId, checkoutKey),
+                        CartUpdates.startCheckout(checkoutKey), CartUpdates.RETURN_NEW, Cart.class)
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(startedCart -> mongoTemplate.findOne(CartUpdates.cartCheckedOutBy(userId, checkoutKey), Cart.class)
+                        .flatMap(checkedOutCart -> startedCart.isPresent()
+                                ? cancelCheckoutOfActiveCart(userId, checkoutKey).thenReturn(checkedOutCart)
+                                : Mono.just(checkedOutCart))
+                        .switchIfEmpty(Mono.defer(() -> startedCart.map(Mono::just)
+                                .orElseGet(() -> failIfActiveCartExists(userId)))));
+    }
+
+    @Override
+    public Mono<Cart> checkoutActiveCart(UUID userId, String checkoutKey) {
+        return mongoTemplate.findOne(CartUpdates.activeCartCheckedOutBy(userId, checkoutKey), Cart.class)
+                .flatMap(cart -> mongoTemplate.findAndModify(CartUpdates.sameItemsAs(cart),
+                                CartUpdates.checkout(cart), CartUpdates.RETURN_NEW, Cart.class)
+                        .flatMap(checkedOutCart -> {
+                            Map<Long, Integer> addedItems = cart.itemsAddedSinceCheckout();
+                            if (addedItems.isEmpty())
+                                return Mono.just(checkedOutCart);
+                            return addItemsToActiveCart(userId, addedItems).thenReturn(checkedOutCart);
+                        })
+                        // An add in between changed the items just read, so they are read again
+                        .switchIfEmpty(Mono.defer(() -> checkoutActiveCart(userId, checkoutKey))));
+    }
+
+    @Override
+    public Mono<Void> cancelCheckoutOfActiveCart(UUID userId, String checkoutKey) {
+        return mongoTemplate.updateFirst(CartUpdates.activeCartCheckedOutBy(userId, checkoutKey),
+                CartUpdates.cancelCheckout(), Cart.class).then();
+    }
+
+    private Mono<Cart> failIfActiveCartExists(UUID userId) {
+        return mongoTemplate.exists(CartUpdates.activeCartOf(userId), Cart.class)
+                .flatMap(exists -> exists ? Mono.error(new CheckoutInProgressException(userId)) : Mono.empty());
+    }
+
+    private Mono<Cart> upsertActiveCart(UUID userId, Map<Long, Integer> quantities) {
+        return mongoTemplate.findAndModify(CartUpdates.activeCartOf(userId),
+                CartUpdates.addItems(quantities), CartUpdates.UPSERT_AND_RETURN_NEW, Cart.class);
+    }
+}
@@ -0,0 +1,11 @@
+package com.gabrielluciano.cartservice.service;
+
+public interface CartArchivalService {
+
+    /**
+     * Moves carts soft-deleted longer than the configured minimum age to the archive collection.
+     *
+     * @return the number of carts archived by this run
+     */
+    long archiveDeletedCarts();
+}
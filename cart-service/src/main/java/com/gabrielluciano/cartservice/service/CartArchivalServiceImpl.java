@@ -0,0 +1,119 @@
+package com.gabrielluciano.cartservice.service;
+
+import com.gabrielluciano.cartservice.model.ArchivedCart;
+import com.gabrielluciano.cartservice.model.Cart;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+@Log4j2
+@ConditionalOnProperty(name = "cart.archival.enabled", havingValue = "true")
+public class CartArchivalServiceImpl implements CartArchivalService {
+
+    private final MongoTemplate mongoTemplate;
+    private final Counter archivedCartsCounter;
+    private final AtomicLong lagSeconds = new AtomicLong();
+
+    @Value("${cart.archival.min-age:7d}")
+    private Duration minAge;
+
+    @Value("${cart.archival.batch-size:500}")
+    private int batchSize;
+
+    @Value("${cart.archival.max-batches-per-run:20}")
+    private int maxBatchesPerRun;
+
+    @Value("${cart.archival.batch-pause:200ms}")
+    private Duration batchPause;
+
+    public CartArchivalServiceImpl(MongoTemplate mongoTemplate, MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.archivedCartsCounter = Counter.builder("cart.archival.archived")
+                .description("Soft-deleted carts moved to the archive collection")
+                .register(meterRegistry);
+        Gauge.builder("cart.archival.lag", lagSeconds, AtomicLong::get)
+                .description("How long the oldest soft-deleted cart has been due for archival")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public long archiveDeletedCarts() {
+        LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+        LocalDateTime cutoff = now.minus(minAge);
+
+        // Bounded, paused batches keep the job from competing with request traffic for the database
+        long archived = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            if (batch > 0 && !pauseBetweenBatches())
+                break;
+            int archivedInBatch = archiveBatch(cutoff, now);
+            archived += archivedInBatch;
+            if (archivedInBatch < batchSize)
+                break;
+        }
+
+        updateLag(cutoff);
+        if (archived > 0)
+            log.info("Successfully archived '{}' carts deleted before '{}'", archived, cutoff);
+        return archived;
+    }
+
+    private int archiveBatch(LocalDateTime cutoff, LocalDateTime archivedAt) {
+        List<Cart> carts = mongoTemplate.find(deletedBefore(cutoff).limit(batchSize), Cart.class);
+        if (carts.isEmpty())
+            return 0;
+
+        // Copies are upserted by id, so a batch interrupted before the removal is just copied again next run
+        BulkOperations bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ArchivedCart.class);
+        carts.forEach(cart -> bulkOperations.replaceOne(Query.query(Criteria.where("_id").is(cart.getId())),
+                ArchivedCart.fromCart(cart, archivedAt), FindAndReplaceOptions.options().upsert()));
+        bulkOperations.execute();
+
+        List<String> ids = carts.stream()
+                .map(Cart::getId)
+                .toList();
+        mongoTemplate.remove(Query.query(Criteria.where("_id").in(ids).and("deletedAt").lt(cutoff)), Cart.class);
+        archivedCartsCounter.increment(carts.size());
+        return carts.size();
+    }
+
+    private void updateLag(LocalDateTime cutoff) {
+        Query oldestDeletedCart = deletedBefore(cutoff).limit(1);
+        oldestDeletedCart.fields().include("deletedAt");
+        Cart oldest = mongoTemplate.findOne(oldestDeletedCart, Cart.class);
+        lagSeconds.set(oldest == null ? 0 : Duration.between(oldest.getDeletedAt(), cutoff).toSeconds());
+    }
+
+    private boolean pauseBetweenBatches() {
+        try {
+            Thread.sleep(batchPause.toMillis());
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static Query deletedBefore(LocalDateTime cutoff) {
+        return Query.query(Criteria.where("deletedAt").lt(cutoff))
+                .with(Sort.by(Sort.Direction.ASC, "deletedAt"));
+    }
+}
@@ -1,7 +1,9 @@
 package com.gabrielluciano.cartservice.service;
 
+import com.gabrielluciano.cartservice.dto.CartItemsRequest;
 import com.gabrielluciano.cartservice.dto.CartRequest;
 import com.gabrielluciano.cartservice.dto.CartResponse;
+import com.gabrielluciano.cartservice.dto.OrderResponse;
 
 import java.util.UUID;
 
@@ -9,7 +11,20 @@ public interface CartService {
 
     CartResponse addItem(CartRequest cartRequest);
 
+    CartResponse addItems(CartItemsRequest cartItemsRequest);
+
     CartResponse getCart(UUID userId);
 
+    /**
+     * Same as {@link #getCart(UUID)} with name and price of every product, fetched in one batched lookup.
+     */
+    CartResponse getCartWithProducts(UUID userId);
+
     void clearCart(UUID userId);
+
+    /**
+     * Turns the user's active cart into an order and clears the cart once order service has committed it.
+     * Retrying with the same idempotency key returns the same order, even after the cart was cleared.
+     */
+    OrderResponse checkout(UUID userId, String idempotencyKey);
 }
@@ -1,30 +1,37 @@
 package com.gabrielluciano.cartservice.service;
 
+import com.gabrielluciano.cartservice.dto.CartItemsRequest;
 import com.gabrielluciano.cartservice.dto.CartRequest;
 import com.gabrielluciano.cartservice.dto.CartResponse;
+import com.gabrielluciano.cartservice.dto.OrderCreateRequest;
+import com.gabrielluciano.cartservice.dto.OrderResponse;
+import com.gabrielluciano.cartservice.dto.ProductSummary;
 import com.gabrielluciano.cartservice.exception.CartNotFoundException;
+import com.gabrielluciano.cartservice.exception.EmptyCartException;
+import com.gabrielluciano.cartservice.exception.OrderRejectedException;
 import com.gabrielluciano.cartservice.exception.ProductNotFoundException;
 import com.gabrielluciano.cartservice.model.Cart;
-import com.gabrielluciano.cartservice.model.CartItem;
-import com.gabrielluciano.cartservice.repository.CartRepository;
+import com.gabrielluciano.cartservice.store.CartStore;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
-import java.time.ZoneOffset;
-import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
 @Log4j2
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class CartServiceImpl implements CartService {
 
-    private final CartRepository cartRepository;
+    private final CartStore cartStore;
     private final ProductService productService;
+    private final OrderService orderService;
 
     @Override
     @Transactional
@@ -33,7 +40,22 @@ public class CartServiceImpl implements CartService {
         if (productDoesNotExist(productId))
             throw new ProductNotFoundException(productId);
 
-        Cart savedCart = createOrUpdateCartFromCartRequest(cartRequest);
+        // Creates the cart or item if missing, otherwise increases the item quantity
+        Cart savedCart = cartStore.addItems(cartRequest.getUserId(), Map.of(productId, cartRequest.getQuantity()));
+        log.info("Successfully added product '{}' with quantity '{}' to cart of id '{}'",
+                productId, cartRequest.getQuantity(), savedCart.getId());
+        return CartResponse.fromCart(savedCart);
+    }
+
+    @Override
+    public CartResponse addItems(CartItemsRequest cartItemsRequest) {
+        Map<Long, Integer> quantities = cartItemsRequest.getQuantitiesByProductId();
+        Set<Long> missingProducts = productService.findMissingProducts(quantities.keySet());
+        if (!missingProducts.isEmpty())
+            throw new ProductNotFoundException(missingProducts);
+
+        Cart savedCart = cartStore.addItems(cartItemsRequest.getUserId(), quantities);
+        log.info("Successfully added '{}' products to cart of id '{}'", quantities.size(), savedCart.getId());
         return CartResponse.fromCart(savedCart);
     }
 
@@ -46,83 +68,50 @@ public class CartServiceImpl implements CartService {
     }
 
     @Override
-    public void clearCart(UUID userId) {
-        findCartByUserId(userId).ifPresent(cart -> {
-            cart.setDeletedAt(LocalDateTime.now(ZoneOffset.UTC));
-            cartRepository.save(cart);
-            log.info("Successfully deleted cart with id '{}'", cart.getId());
-        });
-    }
-
-    private boolean productDoesNotExist(Long productId) {
-        return !productService.productExists(productId);
-    }
-
-    private Cart createOrUpdateCartFromCartRequest(CartRequest cartRequest) {
-        // Check if a cart already exists for the user; update if exists, otherwise create a new cart
-        Optional<Cart> optionalCart = findCartByUserId(cartRequest.getUserId());
-        return optionalCart
-                .map(cart -> updateAndSaveCart(cart, cartRequest))
-                .orElseGet(() -> createAndSaveCart(cartRequest));
-    }
-
-    private Optional<Cart> findCartByUserId(UUID userId) {
-        return cartRepository.findByUserIdAndDeletedAtIsNull(userId);
+    public CartResponse getCartWithProducts(UUID userId) {
+        Cart cart = findCartByUserId(userId).orElseThrow(() -> new CartNotFoundException(userId));
+        Map<Long, ProductSummary> products = productService.findProductSummaries(cart.getItems().keySet());
+        return CartResponse.fromCart(cart, products);
     }
 
-    private Cart updateAndSaveCart(Cart cart, CartRequest cartRequest) {
-        Cart updatedCart = updateCartWithCartRequest(cart, cartRequest);
-        cartRepository.save(updatedCart);
-        log.info("Successfully updated cart of id '{}' with product '{}' and quantity '{}'",
-                cart.getId(), cartRequest.getProductId(), cartRequest.getQuantity());
-        return updatedCart;
-    }
-
-    private Cart createAndSaveCart(CartRequest cartRequest) {
-        Cart newCart = createCartFromCartRequest(cartRequest);
-        Cart savedCart = cartRepository.save(newCart);
-        log.info("Successfully created cart of id '{}' with product '{}' and quantity '{}'",
-                savedCart.getId(), cartRequest.getProductId(), cartRequest.getQuantity());
-        return newCart;
+    @Override
+    public void clearCart(UUID userId) {
+        cartStore.deleteActiveCart(userId).ifPresent(cart ->
+                log.info("Successfully deleted cart with id '{}'", cart.getId()));
     }
 
-    private Cart updateCartWithCartRequest(Cart cart, CartRequest cartRequest) {
-        // If item is already in the cart, increase its quantity, otherwise add the new item to cart
-        Optional<CartItem> optionalCartItem = findCartItemInCart(cart, cartRequest.getProductId());
-        if (optionalCartItem.isPresent()) {
-            increaseCartItemQuantity(optionalCartItem.get(), cartRequest.getQuantity());
-        } else {
-            createCartItemFromCartRequestAndAddToCart(cartRequest, cart);
+    @Override
+    public OrderResponse checkout(UUID userId, String idempotencyKey) {
+        // A retry gets the cart of the earlier attempt, so it orders the same items and order service answers
+        // with the order that attempt may have created even when items were added in between
+        Cart cart = cartStore.startCheckout(userId, idempotencyKey)
+                .orElseThrow(() -> new CartNotFoundException(userId));
+        if (cart.itemsToOrder().isEmpty()) {
+            cartStore.cancelCheckout(userId, idempotencyKey);
+            throw new EmptyCartException(userId);
         }
-        return cart;
-    }
-
-    private Cart createCartFromCartRequest(CartRequest cartRequest) {
-        CartItem cartItem = createCartItemFromCartRequest(cartRequest);
 
-        return Cart.builder()
-                .userId(cartRequest.getUserId())
-                .items(List.of(cartItem))
-                .build();
-    }
-
-    private Optional<CartItem> findCartItemInCart(Cart cart, Long productId) {
-        return cart.getItems().stream()
-                .filter(item -> item.getProductId().equals(productId))
-                .findFirst();
-    }
+        // Products were checked when added and order service prices them itself, so they are not looked up here
+        OrderResponse order;
+        try {
+            order = orderService.createOrder(OrderCreateRequest.fromCart(cart), idempotencyKey);
+        } catch (OrderRejectedException ex) {
+            // No order was created, so a retry with the same key orders the cart as it is then
+            cartStore.cancelCheckout(userId, idempotencyKey);
+            throw ex;
+        }
 
-    private void increaseCartItemQuantity(CartItem cartItem, Integer quantity) {
-        cartItem.increaseQuantityBy(quantity);
+        // Only reached once the order is committed, other failures leave the cart in place for a retry
+        cartStore.checkoutActiveCart(userId, idempotencyKey).ifPresent(checkedOut ->
+                log.info("Successfully checked out cart with id '{}' into order '{}'", checkedOut.getId(), order.getId()));
+        return order;
     }
 
-    private void createCartItemFromCartRequestAndAddToCart(CartRequest cartRequest, Cart cart) {
-        CartItem cartItem = createCartItemFromCartRequest(cartRequest);
-        cart.addItem(cartItem);
+    private boolean productDoesNotExist(Long productId) {
+        return !productService.productExists(productId);
     }
 
-    private CartItem createCartItemFromCartRequest(CartRequest cartRequest) {
-        return CartItem.fromProductIdAndQuantity(cartRequest.getProductId(),
-                cartRequest.getQuantity());
+    private Optional<Cart> findCartByUserId(UUID userId) {
+        return cartStore.findActiveCart(userId);
     }
 }
@@ -0,0 +1,18 @@
+package com.gabrielluciano.cartservice.service;
+
+import com.gabrielluciano.cartservice.dto.OrderCreateRequest;
+import com.gabrielluciano.cartservice.dto.OrderResponse;
+import reactor.core.publisher.Mono;
+
+public interface OrderService {
+
+    String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    /**
+     * Creates the order in order service. Calls with the same user and idempotency key all return the
+     * order created by the first one, so a call that timed out can be retried.
+     */
+    OrderResponse createOrder(OrderCreateRequest orderCreateRequest, String idempotencyKey);
+
+    Mono<OrderResponse> submitOrder(OrderCreateRequest orderCreateRequest, String idempotencyKey);
+}
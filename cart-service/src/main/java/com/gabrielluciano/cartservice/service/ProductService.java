@@ -1,6 +1,33 @@
 package com.gabrielluciano.cartservice.service;
 
+import com.gabrielluciano.cartservice.dto.ProductSummary;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
 public interface ProductService {
 
     boolean productExists(Long productId);
+
+    Mono<Boolean> checkProductExists(Long productId);
+
+    /**
+     * Checks all products with as few product-service calls as possible.
+     *
+     * @return the ids of the products that do not exist
+     */
+    Set<Long> findMissingProducts(Collection<Long> productIds);
+
+    Mono<Set<Long>> checkMissingProducts(Collection<Long> productIds);
+
+    /**
+     * Looks up name and price of all products with as few product-service calls as possible.
+     *
+     * @return the summaries keyed by product id, products that do not exist are left out
+     */
+    Map<Long, ProductSummary> findProductSummaries(Collection<Long> productIds);
+
+    Mono<Map<Long, ProductSummary>> fetchProductSummaries(Collection<Long> productIds);
 }
@@ -0,0 +1,31 @@
+package com.gabrielluciano.cartservice.service;
+
+import com.gabrielluciano.cartservice.dto.CartItemsRequest;
+import com.gabrielluciano.cartservice.dto.CartRequest;
+import com.gabrielluciano.cartservice.dto.CartResponse;
+import com.gabrielluciano.cartservice.dto.OrderResponse;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+public interface ReactiveCartService {
+
+    Mono<CartResponse> addItem(CartRequest cartRequest);
+
+    Mono<CartResponse> addItems(CartItemsRequest cartItemsRequest);
+
+    Mono<CartResponse> getCart(UUID userId);
+
+    /**
+     * Same as {@link #getCart(UUID)} with name and price of every product, fetched in one batched lookup.
+     */
+    Mono<CartResponse> getCartWithProducts(UUID userId);
+
+    Mono<Void> clearCart(UUID userId);
+
+    /**
+     * Turns the user's active cart into an order and clears the cart once order service has committed it.
+     * Retrying with the same idempotency key returns the same order, even after the cart was cleared.
+     */
+    Mono<OrderResponse> checkout(UUID userId, String idempotencyKey);
+}
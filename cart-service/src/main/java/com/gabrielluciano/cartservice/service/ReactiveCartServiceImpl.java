@@ -0,0 +1,116 @@
+package com.gabrielluciano.cartservice.service;
+
+import com.gabrielluciano.cartservice.dto.CartItemsRequest;
+import com.gabrielluciano.cartservice.dto.CartRequest;
+import com.gabrielluciano.cartservice.dto.CartResponse;
+import com.gabrielluciano.cartservice.dto.OrderCreateRequest;
+import com.gabrielluciano.cartservice.dto.OrderResponse;
+import com.gabrielluciano.cartservice.exception.CartNotFoundException;
+import com.gabrielluciano.cartservice.exception.EmptyCartException;
+import com.gabrielluciano.cartservice.exception.OrderRejectedException;
+import com.gabrielluciano.cartservice.exception.ProductNotFoundException;
+import com.gabrielluciano.cartservice.model.Cart;
+import com.gabrielluciano.cartservice.repository.ReactiveCartRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
+@Log4j2
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveCartServiceImpl implements ReactiveCartService {
+
+    private final ReactiveCartRepository cartRepository;
+    private final ProductService productService;
+    private final OrderService orderService;
+
+    @Override
+    public Mono<CartResponse> addItem(CartRequest cartRequest) {
+        Long productId = cartRequest.getProductId();
+        return productService.checkProductExists(productId)
+                .filter(Boolean::booleanValue)
+                .switchIfEmpty(Mono.error(() -> new ProductNotFoundException(productId)))
+                .flatMap(exists -> cartRepository.addItemToActiveCart(cartRequest.getUserId(), productId,
+                        cartRequest.getQuantity()))
+                .doOnNext(cart -> log.info("Successfully added product '{}' with quantity '{}' to cart of id '{}'",
+                        productId, cartRequest.getQuantity(), cart.getId()))
+                .map(CartResponse::fromCart);
+    }
+
+    @Override
+    public Mono<CartResponse> addItems(CartItemsRequest cartItemsRequest) {
+        Map<Long, Integer> quantities = cartItemsRequest.getQuantitiesByProductId();
+        return productService.checkMissingProducts(quantities.keySet())
+                .flatMap(missingProducts -> missingProducts.isEmpty()
+                        ? cartRepository.addItemsToActiveCart(cartItemsRequest.getUserId(), quantities)
+                        : Mono.<Cart>error(new ProductNotFoundException(missingProducts)))
+                .doOnNext(cart -> log.info("Successfully added '{}' products to cart of id '{}'",
+                        quantities.size(), cart.getId()))
+                .map(CartResponse::fromCart);
+    }
+
+    @Override
+    public Mono<CartResponse> getCart(UUID userId) {
+        return findCartByUserId(userId)
+                .map(CartResponse::fromCart)
+                .switchIfEmpty(Mono.error(() -> new CartNotFoundException(userId)));
+    }
+
+    @Override
+    public Mono<CartResponse> getCartWithProducts(UUID userId) {
+        return findCartByUserId(userId)
+                .switchIfEmpty(Mono.error(() -> new CartNotFoundException(userId)))
+                .flatMap(cart -> productService.fetchProductSummaries(cart.getItems().keySet())
+                        .map(products -> CartResponse.fromCart(cart, products)));
+    }
+
+    @Override
+    public Mono<Void> clearCart(UUID userId) {
+        return findCartByUserId(userId)
+                .flatMap(cart -> {
+                    cart.setDeletedAt(LocalDateTime.now(ZoneOffset.UTC));
+                    return cartRepository.save(cart);
+                })
+                .doOnNext(cart -> log.info("Successfully deleted cart with id '{}'", cart.getId()))
+                .then();
+    }
+
+    @Override
+    public Mono<OrderResponse> checkout(UUID userId, String idempotencyKey) {
+        // A retry gets the cart of the earlier attempt, so it orders the same items and order service answers
+        // with the order that attempt may have created even when items were added in between
+        return cartRepository.startCheckout(userId, idempotencyKey)
+                .switchIfEmpty(Mono.error(() -> new CartNotFoundException(userId)))
+                .flatMap(cart -> {
+                    if (cart.itemsToOrder().isEmpty())
+                        return cartRepository.cancelCheckoutOfActiveCart(userId, idempotencyKey)
+                                .then(Mono.error(() -> new EmptyCartException(userId)));
+                    return checkoutCart(cart, idempotencyKey);
+                });
+    }
+
+    private Mono<OrderResponse> checkoutCart(Cart cart, String idempotencyKey) {
+        UUID userId = cart.getUserId();
+        return orderService.submitOrder(OrderCreateRequest.fromCart(cart), idempotencyKey)
+                // No order was created, so a retry with the same key orders the cart as it is then
+                .onErrorResume(OrderRejectedException.class, ex ->
+                        cartRepository.cancelCheckoutOfActiveCart(userId, idempotencyKey).then(Mono.error(ex)))
+                // Only reached once the order is committed
+                .flatMap(order -> cartRepository.checkoutActiveCart(userId, idempotencyKey)
+                        .doOnNext(checkedOut -> log.info("Successfully checked out cart with id '{}' into order '{}'",
+                                checkedOut.getId(), order.getId()))
+                        .thenReturn(order));
+    }
+
+    private Mono<Cart> findCartByUserId(UUID userId) {
+        return cartRepository.findByUserIdAndDeletedAtIsNull(userId);
+    }
+}
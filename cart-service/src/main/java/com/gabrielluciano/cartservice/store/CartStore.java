@@ -0,0 +1,53 @@
+package com.gabrielluciano.cartservice.store;
+
+import com.gabrielluciano.cartservice.exception.CheckoutInProgressException;
+import com.gabrielluciano.cartservice.model.Cart;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface CartStore {
+
+    /**
+     * Adds the quantities, keyed by product id, to the user's active cart, creating it when needed.
+     *
+     * @return the cart as it is after the add
+     */
+    Cart addItems(UUID userId, Map<Long, Integer> quantities);
+
+    Optional<Cart> findActiveCart(UUID userId);
+
+    /**
+     * Soft-deletes the user's active cart once every accepted add has been persisted.
+     *
+     * @return the deleted cart, or empty when the user has no active cart
+     */
+    Optional<Cart> deleteActiveCart(UUID userId);
+
+    /**
+     * Starts the checkout with the given key. A checkout started before, by an attempt whose order may have
+     * been created, gets the cart of that attempt, deleted or not. Otherwise the key is recorded on the
+     * user's active cart once every accepted add has been persisted, along with a copy of its items.
+     *
+     * @return the cart, whose {@link Cart#itemsToOrder()} are the items to order, or empty when the user
+     * has no active cart
+     * @throws CheckoutInProgressException when the active cart is being checked out with another key, which
+     * has to be retried or cleared first
+     */
+    Optional<Cart> startCheckout(UUID userId, String checkoutKey);
+
+    /**
+     * Soft-deletes the user's active cart started by the checkout, once its order was created. The adds
+     * accepted after the checkout started are not in the order, they are moved to a new active cart.
+     *
+     * @return the deleted cart, or empty when the cart of the checkout was deleted already
+     */
+    Optional<Cart> checkoutActiveCart(UUID userId, String checkoutKey);
+
+    /**
+     * Forgets the checkout started on the user's active cart, so a retry with the same key orders the
+     * cart as it is then.
+     */
+    void cancelCheckout(UUID userId, String checkoutKey);
+}
@@ -0,0 +1,57 @@
+package com.gabrielluciano.cartservice.store;
+
+import com.gabrielluciano.cartservice.model.Cart;
+import com.gabrielluciano.cartservice.repository.CartRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Writes every change straight to MongoDB.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "cart.write-behind.enabled", havingValue = "false", matchIfMissing = true)
+public class MongoCartStore implements CartStore {
+
+    private final CartRepository cartRepository;
+
+    @Override
+    public Cart addItems(UUID userId, Map<Long, Integer> quantities) {
+        return cartRepository.addItemsToActiveCart(userId, quantities);
+    }
+
+    @Override
+    public Optional<Cart> findActiveCart(UUID userId) {
+        return cartRepository.findByUserIdAndDeletedAtIsNull(userId);
+    }
+
+    @Override
+    public Optional<Cart> deleteActiveCart(UUID userId) {
+        return findActiveCart(userId).map(cart -> {
+            cart.setDeletedAt(LocalDateTime.now(ZoneOffset.UTC));
+            return cartRepository.save(cart);
+        });
+    }
+
+    @Override
+    public Optional<Cart> startCheckout(UUID userId, String checkoutKey) {
+        return cartRepository.startCheckout(userId, checkoutKey);
+    }
+
+    @Override
+    public Optional<Cart> checkoutActiveCart(UUID userId, String checkoutKey) {
+        return cartRepository.checkoutActiveCart(userId, checkoutKey);
+    }
+
+    @Override
+    public void cancelCheckout(UUID userId, String checkoutKey) {
+        cartRepository.cancelCheckoutOfActiveCart(userId, checkoutKey);
+    }
+}
@@ -0,0 +1,219 @@
+package com.gabrielluciano.cartservice.store;
+
+import com.gabrielluciano.cartservice.model.Cart;
+import com.gabrielluciano.cartservice.repository.CartRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Keeps carts being edited in memory and writes their adds to MongoDB in the background.
+ * <p>
+ * Adds are applied to the in-memory cart and coalesced per product into pending quantities, which are
+ * written with one atomic {@code $inc} per cart every {@code cart.write-behind.flush-interval}, when the
+ * cart is deleted and when the application shuts down gracefully.
+ * <p>
+ * Durability: an add is acknowledged before it is persisted. If the process dies without a graceful
+ * shutdown, the adds accepted since the last successful flush of that cart are lost. Flushes run with a
+ * fixed delay on the scheduler pool, which {@code spring.task.scheduling.pool.size} keeps large enough
+ * that the other scheduled jobs cannot hold them back, so that is normally one flush interval plus the
+ * time a flush of all carts takes. A failed flush keeps the pending quantities and retries them on the
+ * next flush, so while MongoDB is unreachable the adds at risk keep growing. Carts already flushed are
+ * untouched and are reloaded from MongoDB on the next access.
+ * <p>
+ * Only the servlet stack goes through {@link CartStore}, the reactive service writes every add straight
+ * to MongoDB whether this store is enabled or not.
+ * <p>
+ * Carts are held per instance, so with several instances a user's requests must stick to one of them,
+ * otherwise reads on the other instances can miss unflushed adds.
+ */
+@Component
+@Log4j2
+@ConditionalOnProperty(name = "cart.write-behind.enabled", havingValue = "true")
+public class WriteBehindCartStore implements CartStore {
+
+    private final CartRepository cartRepository;
+    private final Duration idleEviction;
+    private final ConcurrentMap<UUID, CartEntry> carts = new ConcurrentHashMap<>();
+
+    public WriteBehindCartStore(CartRepository cartRepository,
+                                @Value("${cart.write-behind.idle-eviction:10m}") Duration idleEviction) {
+        this.cartRepository = cartRepository;
+        this.idleEviction = idleEviction;
+    }
+
+    @Override
+    public Cart addItems(UUID userId, Map<Long, Integer> quantities) {
+        while (true) {
+            CartEntry entry = getOrLoadEntry(userId);
+            synchronized (entry) {
+                // The entry may have been evicted or deleted since it was looked up
+                if (entry.removed)
+                    continue;
+                quantities.forEach(entry::add);
+                return entry.snapshot();
+            }
+        }
+    }
+
+    @Override
+    public Optional<Cart> findActiveCart(UUID userId) {
+        CartEntry entry = carts.get(userId);
+        if (entry != null) {
+            synchronized (entry) {
+                if (!entry.removed)
+                    return Optional.of(entry.snapshot());
+            }
+        }
+        return cartRepository.findByUserIdAndDeletedAtIsNull(userId);
+    }
+
+    @Override
+    public Optional<Cart> deleteActiveCart(UUID userId) {
+        flushAndRemove(userId);
+        return cartRepository.findByUserIdAndDeletedAtIsNull(userId).map(cart -> {
+            cart.setDeletedAt(LocalDateTime.now(ZoneOffset.UTC));
+            return cartRepository.save(cart);
+        });
+    }
+
+    @Override
+    public Optional<Cart> startCheckout(UUID userId, String checkoutKey) {
+        // The items are copied in MongoDB, so the adds still held here are written first
+        flush(userId);
+        return cartRepository.startCheckout(userId, checkoutKey);
+    }
+
+    @Override
+    public Optional<Cart> checkoutActiveCart(UUID userId, String checkoutKey) {
+        flushAndRemove(userId);
+        return cartRepository.checkoutActiveCart(userId, checkoutKey);
+    }
+
+    @Override
+    public void cancelCheckout(UUID userId, String checkoutKey) {
+        cartRepository.cancelCheckoutOfActiveCart(userId, checkoutKey);
+    }
+
+    /**
+     * Writes the pending adds of the user's cart, if it is held in memory.
+     */
+    public void flush(UUID userId) {
+        CartEntry entry = carts.get(userId);
+        if (entry != null) {
+            synchronized (entry) {
+                flush(entry);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${cart.write-behind.flush-interval:PT1S}")
+    public void flushAll() {
+        long idleSince = System.nanoTime() - idleEviction.toNanos();
+        carts.forEach((userId, entry) -> {
+            synchronized (entry) {
+                try {
+                    flush(entry);
+                } catch (RuntimeException ex) {
+                    log.error("Could not flush cart of user '{}', will retry on next flush", userId, ex);
+                    return;
+                }
+                if (!entry.hasPendingItems() && entry.lastAccess - idleSince < 0) {
+                    entry.removed = true;
+                    carts.remove(userId, entry);
+                }
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushAll();
+    }
+
+    private void flushAndRemove(UUID userId) {
+        CartEntry entry = carts.get(userId);
+        if (entry != null) {
+            synchronized (entry) {
+                flush(entry);
+                entry.removed = true;
+                carts.remove(userId, entry);
+            }
+        }
+    }
+
+    private CartEntry getOrLoadEntry(UUID userId) {
+        CartEntry entry = carts.get(userId);
+        if (entry != null)
+            return entry;
+
+        // Loaded outside the map so a slow read does not block other users hashed to the same bin
+        CartEntry loadedEntry = new CartEntry(loadOrCreateActiveCart(userId));
+        CartEntry existingEntry = carts.putIfAbsent(userId, loadedEntry);
+        return existingEntry != null ? existingEntry : loadedEntry;
+    }
+
+    private Cart loadOrCreateActiveCart(UUID userId) {
+        // The cart is created up front so it has an id to return before its first flush
+        return cartRepository.findByUserIdAndDeletedAtIsNull(userId).orElseGet(() -> {
+            try {
+                return cartRepository.insert(Cart.builder().userId(userId).build());
+            } catch (DuplicateKeyException ex) {
+                return cartRepository.findByUserIdAndDeletedAtIsNull(userId).orElseThrow(() -> ex);
+            }
+        });
+    }
+
+    // Must be called holding the entry's lock, so adds for the cart wait until its pending items are written.
+    // Pending items are only cleared once written, so a failed flush leaves them for the next one
+    private void flush(CartEntry entry) {
+        if (!entry.hasPendingItems())
+            return;
+        cartRepository.addItemsToActiveCart(entry.cart.getUserId(), entry.pendingItems);
+        entry.pendingItems = new LinkedHashMap<>();
+    }
+
+    private static class CartEntry {
+
+        private final Cart cart;
+        private Map<Long, Integer> pendingItems = new LinkedHashMap<>();
+        private long lastAccess = System.nanoTime();
+        private boolean removed;
+
+        CartEntry(Cart cart) {
+            this.cart = cart;
+        }
+
+        void add(Long productId, Integer quantity) {
+            cart.addItem(productId, quantity);
+            pendingItems.merge(productId, quantity, Integer::sum);
+            lastAccess = System.nanoTime();
+        }
+
+        boolean hasPendingItems() {
+            return !pendingItems.isEmpty();
+        }
+
+        Cart snapshot() {
+            return Cart.builder()
+                    .id(cart.getId())
+                    .userId(cart.getUserId())
+                    .items(new LinkedHashMap<>(cart.getItems()))
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.gabrielluciano.cartservice.adapter;
+
+import com.gabrielluciano.cartservice.CartServiceApplication;
+import com.gabrielluciano.cartservice.dto.OrderCreateRequest;
+import com.gabrielluciano.cartservice.dto.OrderCreateRequestItem;
+import com.gabrielluciano.cartservice.dto.OrderResponse;
+import com.gabrielluciano.cartservice.exception.OrderRejectedException;
+import com.gabrielluciano.cartservice.exception.ServiceUnavailableException;
+import com.gabrielluciano.cartservice.repository.CartRepository;
+import com.gabrielluciano.cartservice.repository.ReactiveCartRepository;
+import com.gabrielluciano.cartservice.util.controller.OrderServiceCompatibleController;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.mongo.MongoDataAutoConfiguration;
+import org.springframework.boot.autoconfigure.mongo.MongoAutoConfiguration;
+import org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClient;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.ServiceInstanceListSuppliers;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.env.Environment;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.web.SecurityFilterChain;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+
+@SpringBootTest(classes = {OrderServiceAdapterTest.TestConfig.class}, webEnvironment = RANDOM_PORT,
+        properties = {"eureka.client.enabled=false", "spring.main.allow-bean-definition-overriding=true",
+        "cart.archival.enabled=false", "cart.migration.items-map.enabled=false"})
+@EnableAutoConfiguration(exclude = {MongoAutoConfiguration.class, MongoDataAutoConfiguration.class, SecurityAutoConfiguration.class})
+class OrderServiceAdapterTest {
+
+    @Autowired
+    private OrderServiceAdapter orderServiceAdapter;
+
+    // These mocks are required because MongoAutoConfiguration and MongoDataAutoConfiguration are disabled
+    @MockBean
+    private CartRepository cartRepository;
+
+    @MockBean
+    private ReactiveCartRepository reactiveCartRepository;
+
+    @MockBean
+    private MongoTemplate mongoTemplate;
+
+    @Test
+    void shouldReturnSameOrderWhenCalledAgainWithSameIdempotencyKey() {
+        OrderCreateRequest orderCreateRequest = orderCreateRequest(1L);
+        String idempotencyKey = UUID.randomUUID().toString();
+
+        OrderResponse firstOrder = orderServiceAdapter.createOrder(orderCreateRequest, idempotencyKey);
+        OrderResponse retriedOrder = orderServiceAdapter.createOrder(orderCreateRequest, idempotencyKey);
+
+        assertNotNull(firstOrder.getId());
+        assertEquals(orderCreateRequest.getUserId(), firstOrder.getUserId());
+        assertEquals(firstOrder.getId(), retriedOrder.getId());
+    }
+
+    @Test
+    void shouldThrowOrderRejectedExceptionWhenOrderServiceRejectsOrder() {
+        OrderCreateRequest orderCreateRequest = orderCreateRequest(OrderServiceCompatibleController.NON_EXISTENT_PRODUCT_ID);
+
+        OrderRejectedException exception = assertThrows(OrderRejectedException.class, () ->
+                orderServiceAdapter.createOrder(orderCreateRequest, UUID.randomUUID().toString()));
+        assertEquals("Product with id '2' is not available or doesn't exist", exception.getMessage());
+    }
+
+    @Test
+    void shouldThrowServiceUnavailableExceptionWhenOrderServiceIsNotAvailable() {
+        OrderCreateRequest orderCreateRequest = orderCreateRequest(OrderServiceCompatibleController.SERVICE_UNAVAILABLE_PRODUCT_ID);
+
+        assertThrows(ServiceUnavailableException.class, () ->
+                orderServiceAdapter.createOrder(orderCreateRequest, UUID.randomUUID().toString()));
+    }
+
+    private static OrderCreateRequest orderCreateRequest(Long productId) {
+        return OrderCreateRequest.builder()
+                .userId(UUID.randomUUID())
+                .items(List.of(new OrderCreateRequestItem(productId, 2)))
+                .build();
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @EnableAutoConfiguration
+    @LoadBalancerClients({
+            @LoadBalancerClient(name = "order-service", configuration = OrderServiceLoadBalancerConfig.class),
+    })
+    @Import(CartServiceApplication.class)
+    static class TestConfig {
+
+        @Bean
+        public OrderServiceCompatibleController orderServiceCompatibleController() {
+            return new OrderServiceCompatibleController();
+        }
+
+        @Bean
+        public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+            http.csrf(csrf -> csrf.disable());
+            http.authorizeHttpRequests(requests -> requests
+                    .anyRequest().permitAll()
+            );
+            return http.build();
+        }
+    }
+
+    static class OrderServiceLoadBalancerConfig {
+
+        @LocalServerPort
+        private int port;
+
+        @Bean
+        public ServiceInstanceListSupplier fixedServiceInstanceListSupplier(Environment env) {
+            return ServiceInstanceListSuppliers.from("order-service",
+                    new DefaultServiceInstance("order-service-1", "order-service", "localhost", port, false));
+        }
+    }
+}
@@ -1,9 +1,14 @@
 package com.gabrielluciano.cartservice.adapter;
 
 import com.gabrielluciano.cartservice.CartServiceApplication;
+import com.gabrielluciano.cartservice.dto.ProductSummary;
+import com.gabrielluciano.cartservice.event.ProductChangedEvent;
 import com.gabrielluciano.cartservice.exception.ServiceUnavailableException;
 import com.gabrielluciano.cartservice.repository.CartRepository;
+import com.gabrielluciano.cartservice.repository.ReactiveCartRepository;
 import com.gabrielluciano.cartservice.util.controller.ProductServiceCompatibleController;
+import com.github.benmanes.caffeine.cache.Cache;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
@@ -18,29 +23,62 @@ import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClient;
 import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
 import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
 import org.springframework.cloud.loadbalancer.support.ServiceInstanceListSuppliers;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
 import org.springframework.core.env.Environment;
+import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.web.SecurityFilterChain;
 
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
 
 @SpringBootTest(classes = {ProductServiceAdapterTest.TestConfig.class}, webEnvironment = RANDOM_PORT,
-        properties = {"eureka.client.enabled=false", "spring.main.allow-bean-definition-overriding=true"})
+        properties = {"eureka.client.enabled=false", "spring.main.allow-bean-definition-overriding=true",
+        "cart.archival.enabled=false", "cart.migration.items-map.enabled=false"})
 @EnableAutoConfiguration(exclude = {MongoAutoConfiguration.class, MongoDataAutoConfiguration.class, SecurityAutoConfiguration.class})
 class ProductServiceAdapterTest {
 
     @Autowired
     private ProductServiceAdapter productServiceAdapter;
 
+    @Autowired
+    private ProductServiceCompatibleController productServiceCompatibleController;
+
+    @Autowired
+    private Cache<Long, Boolean> productExistenceCache;
+
+    @Autowired
+    private Cache<Long, ProductSummary> productSummaryCache;
+
+    @Autowired
+    private ApplicationEventPublisher applicationEventPublisher;
+
     // This mock is required because otherwise Spring will try to create the cartRepository bean
     // leading to an error because MongoAutoConfiguration and MongoDataAutoConfiguration are disabled
     @MockBean
     private CartRepository cartRepository;
 
+    @MockBean
+    private ReactiveCartRepository reactiveCartRepository;
+
+    // Required by the cart repository fragments, which are still created next to the mocked repositories
+    @MockBean
+    private MongoTemplate mongoTemplate;
+
+    @BeforeEach
+    void setUp() {
+        productExistenceCache.invalidateAll();
+        productSummaryCache.invalidateAll();
+    }
+
     @Test
     void shouldReturnTrueWhenProductExists() {
         long productId = ProductServiceCompatibleController.EXISTENT_PRODUCT_ID;
@@ -59,6 +97,109 @@ class ProductServiceAdapterTest {
         assertFalse(result);
     }
 
+    @Test
+    void shouldReturnCachedResultWithoutCallingProductService() {
+        long existentProductId = ProductServiceCompatibleController.EXISTENT_PRODUCT_ID;
+        long nonExistentProductId = ProductServiceCompatibleController.NON_EXISTENT_PRODUCT_ID;
+        productServiceAdapter.productExists(existentProductId);
+        productServiceAdapter.productExists(nonExistentProductId);
+        int requestsBefore = productServiceCompatibleController.getRequests();
+
+        assertTrue(productServiceAdapter.productExists(existentProductId));
+        assertFalse(productServiceAdapter.productExists(nonExistentProductId));
+        assertEquals(requestsBefore, productServiceCompatibleController.getRequests());
+    }
+
+    @Test
+    void shouldCallProductServiceAgainWhenProductChangedEventIsPublished() {
+        long productId = ProductServiceCompatibleController.EXISTENT_PRODUCT_ID;
+        productServiceAdapter.productExists(productId);
+        int requestsBefore = productServiceCompatibleController.getRequests();
+
+        applicationEventPublisher.publishEvent(ProductChangedEvent.builder().productId(productId).build());
+
+        assertTrue(productServiceAdapter.productExists(productId));
+        assertEquals(requestsBefore + 1, productServiceCompatibleController.getRequests());
+    }
+
+    @Test
+    void shouldReturnMissingProductsWithSingleBatchRequest() {
+        long existentProductId = ProductServiceCompatibleController.EXISTENT_PRODUCT_ID;
+        long nonExistentProductId = ProductServiceCompatibleController.NON_EXISTENT_PRODUCT_ID;
+        int requestsBefore = productServiceCompatibleController.getRequests();
+
+        Set<Long> missingProducts = productServiceAdapter.findMissingProducts(
+                List.of(existentProductId, nonExistentProductId, existentProductId));
+
+        assertEquals(Set.of(nonExistentProductId), missingProducts);
+        assertEquals(requestsBefore + 1, productServiceCompatibleController.getRequests());
+    }
+
+    @Test
+    void shouldOnlyRequestUncachedProductsWhenFindMissingProducts() {
+        long existentProductId = ProductServiceCompatibleController.EXISTENT_PRODUCT_ID;
+        long nonExistentProductId = ProductServiceCompatibleController.NON_EXISTENT_PRODUCT_ID;
+        productServiceAdapter.findMissingProducts(List.of(existentProductId));
+        productServiceAdapter.productExists(nonExistentProductId);
+        int requestsBefore = productServiceCompatibleController.getRequests();
+
+        Set<Long> missingProducts = productServiceAdapter.findMissingProducts(
+                List.of(existentProductId, nonExistentProductId));
+
+        assertEquals(Set.of(nonExistentProductId), missingProducts);
+        assertEquals(requestsBefore, productServiceCompatibleController.getRequests());
+    }
+
+    @Test
+    void shouldReturnProductSummariesWithSingleBatchRequest() {
+        long existentProductId = ProductServiceCompatibleController.EXISTENT_PRODUCT_ID;
+        long nonExistentProductId = ProductServiceCompatibleController.NON_EXISTENT_PRODUCT_ID;
+        int requestsBefore = productServiceCompatibleController.getRequests();
+
+        Map<Long, ProductSummary> productSummaries = productServiceAdapter.findProductSummaries(
+                List.of(existentProductId, nonExistentProductId));
+
+        assertEquals(Set.of(existentProductId), productSummaries.keySet());
+        assertEquals("Coffee", productSummaries.get(existentProductId).getName());
+        assertEquals(BigDecimal.valueOf(12.99), productSummaries.get(existentProductId).getPrice());
+        assertEquals(requestsBefore + 1, productServiceCompatibleController.getRequests());
+    }
+
+    @Test
+    void shouldReturnCachedProductSummariesWithoutCallingProductService() {
+        long existentProductId = ProductServiceCompatibleController.EXISTENT_PRODUCT_ID;
+        long nonExistentProductId = ProductServiceCompatibleController.NON_EXISTENT_PRODUCT_ID;
+        productServiceAdapter.findProductSummaries(List.of(existentProductId, nonExistentProductId));
+        int requestsBefore = productServiceCompatibleController.getRequests();
+
+        Map<Long, ProductSummary> productSummaries = productServiceAdapter.findProductSummaries(
+                List.of(existentProductId, nonExistentProductId));
+
+        assertEquals(Set.of(existentProductId), productSummaries.keySet());
+        assertEquals(requestsBefore, productServiceCompatibleController.getRequests());
+    }
+
+    @Test
+    void shouldRequestProductSummaryAgainWhenProductChangedEventIsPublished() {
+        long productId = ProductServiceCompatibleController.EXISTENT_PRODUCT_ID;
+        productServiceAdapter.findProductSummaries(List.of(productId));
+        int requestsBefore = productServiceCompatibleController.getRequests();
+
+        applicationEventPublisher.publishEvent(ProductChangedEvent.builder().productId(productId).build());
+
+        assertTrue(productServiceAdapter.findProductSummaries(List.of(productId)).containsKey(productId));
+        assertEquals(requestsBefore + 1, productServiceCompatibleController.getRequests());
+    }
+
+    @Test
+    void shouldThrowServiceUnavailableExceptionWhenBatchProductServiceIsNotAvailable() {
+        long productId = ProductServiceCompatibleController.SERVICE_UNAVAILABLE_PRODUCT_ID;
+
+        assertThrows(ServiceUnavailableException.class, () -> {
+            productServiceAdapter.findMissingProducts(List.of(productId));
+        });
+    }
+
     @Test
     void shouldThrowServiceUnavailableExceptionWhenTimeout() {
         long productId = ProductServiceCompatibleController.SLOW_RESPONSE_PRODUCT_ID;
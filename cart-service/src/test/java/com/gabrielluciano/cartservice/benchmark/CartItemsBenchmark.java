@@ -0,0 +1,132 @@
+package com.gabrielluciano.cartservice.benchmark;
+
+import com.gabrielluciano.cartservice.model.Cart;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the product-id keyed {@link Cart} items against the former list of items, which was
+ * scanned linearly to find a product and boxed both product id and quantity.
+ * <p>
+ * Run from the cart-service directory with
+ * {@code mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java
+ * -Dexec.args="-cp %classpath com.gabrielluciano.cartservice.benchmark.CartItemsBenchmark"}, the forked benchmark
+ * JVMs need the test classpath on the command line.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CartItemsBenchmark {
+
+    @Param({"10", "100", "500"})
+    private int lines;
+
+    private Cart mapCart;
+    private ListCart listCart;
+
+    // Shared by every invocation of an iteration, the add benchmarks work on copies so the fixture never grows
+    @Setup(Level.Iteration)
+    public void setUp() {
+        mapCart = Cart.builder().items(new LinkedHashMap<>()).build();
+        listCart = new ListCart();
+        for (long productId = 0; productId < lines; productId++) {
+            mapCart.addItem(productId, 1);
+            listCart.addItem(productId, 1);
+        }
+    }
+
+    @Benchmark
+    public Cart addEveryLineAgainToMapCart() {
+        Cart cart = Cart.builder().items(new LinkedHashMap<>(mapCart.getItems())).build();
+        for (long productId = 0; productId < lines; productId++)
+            cart.addItem(productId, 1);
+        return cart;
+    }
+
+    @Benchmark
+    public ListCart addEveryLineAgainToListCart() {
+        ListCart cart = listCart.copy();
+        for (long productId = 0; productId < lines; productId++)
+            cart.addItem(productId, 1);
+        return cart;
+    }
+
+    @Benchmark
+    public void lookupEveryLineInMapCart(Blackhole blackhole) {
+        for (long productId = 0; productId < lines; productId++)
+            blackhole.consume(mapCart.getQuantity(productId));
+    }
+
+    @Benchmark
+    public void lookupEveryLineInListCart(Blackhole blackhole) {
+        for (long productId = 0; productId < lines; productId++)
+            blackhole.consume(listCart.getQuantity(productId));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(CartItemsBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+
+    /**
+     * The cart items model before they were keyed by product id.
+     */
+    public static class ListCart {
+
+        private final List<ListCartItem> items = new ArrayList<>();
+
+        void addItem(Long productId, Integer quantity) {
+            Optional<ListCartItem> optionalCartItem = findItem(productId);
+            if (optionalCartItem.isPresent()) {
+                optionalCartItem.get().quantity += quantity;
+            } else {
+                items.add(new ListCartItem(productId, quantity));
+            }
+        }
+
+        ListCart copy() {
+            ListCart copy = new ListCart();
+            items.forEach(item -> copy.items.add(new ListCartItem(item.productId, item.quantity)));
+            return copy;
+        }
+
+        int getQuantity(Long productId) {
+            return findItem(productId)
+                    .map(item -> item.quantity)
+                    .orElse(0);
+        }
+
+        private Optional<ListCartItem> findItem(Long productId) {
+            return items.stream()
+                    .filter(item -> Objects.equals(item.productId, productId))
+                    .findFirst();
+        }
+    }
+
+    private static class ListCartItem {
+
+        private final Long productId;
+        private Integer quantity;
+
+        ListCartItem(Long productId, Integer quantity) {
+            this.productId = productId;
+            this.quantity = quantity;
+        }
+    }
+}
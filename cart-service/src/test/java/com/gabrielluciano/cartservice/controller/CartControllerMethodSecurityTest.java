@@ -4,6 +4,7 @@ import com.gabrielluciano.cartservice.dto.CartItemResponse;
 import com.gabrielluciano.cartservice.dto.CartRequest;
 import com.gabrielluciano.cartservice.dto.CartResponse;
 import com.gabrielluciano.cartservice.repository.CartRepository;
+import com.gabrielluciano.cartservice.repository.ReactiveCartRepository;
 import com.gabrielluciano.cartservice.security.WithMockJwt;
 import com.gabrielluciano.cartservice.service.CartService;
 import org.junit.jupiter.api.Assertions;
@@ -17,6 +18,7 @@ import org.springframework.boot.autoconfigure.data.mongo.MongoDataAutoConfigurat
 import org.springframework.boot.autoconfigure.mongo.MongoAutoConfiguration;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.security.access.AccessDeniedException;
 
 import java.util.List;
@@ -24,7 +26,7 @@ import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 
-@SpringBootTest
+@SpringBootTest(properties = {"cart.archival.enabled=false", "cart.migration.items-map.enabled=false"})
 @EnableAutoConfiguration(exclude = {MongoAutoConfiguration.class, MongoDataAutoConfiguration.class})
 class CartControllerMethodSecurityTest {
 
@@ -39,6 +41,13 @@ class CartControllerMethodSecurityTest {
     @MockBean
     private CartRepository cartRepository;
 
+    @MockBean
+    private ReactiveCartRepository reactiveCartRepository;
+
+    // Required by the cart repository fragments, which are still created next to the mocked repositories
+    @MockBean
+    private MongoTemplate mongoTemplate;
+
     @BeforeEach
     void setUp() {
         CartItemResponse cartItemResponse = CartItemResponse.builder()
@@ -100,7 +109,7 @@ class CartControllerMethodSecurityTest {
     @Test
     @WithMockJwt(userId = "5730f4bb-30ea-4cc5-b0a5-9cae8c3da714")
     void getCartAuthorized() {
-        CartResponse cartResponse = cartController.getCart(UUID.fromString("5730f4bb-30ea-4cc5-b0a5-9cae8c3da714"));
+        CartResponse cartResponse = cartController.getCart(UUID.fromString("5730f4bb-30ea-4cc5-b0a5-9cae8c3da714"), null);
         assertNotNull(cartResponse);
         assertInstanceOf(CartResponse.class, cartResponse);
     }
@@ -108,14 +117,14 @@ class CartControllerMethodSecurityTest {
     @Test
     void getCartUnauthenticated() {
         Assertions.assertThrows(IllegalArgumentException.class, () ->
-                cartController.getCart(UUID.fromString("5730f4bb-30ea-4cc5-b0a5-9cae8c3da714")));
+                cartController.getCart(UUID.fromString("5730f4bb-30ea-4cc5-b0a5-9cae8c3da714"), null));
     }
 
     @Test
     @WithMockJwt(userId = "5730f4bb-30ea-4cc5-b0a5-9cae8c3da714")
     void getCartUnauthorized() {
         Assertions.assertThrows(AccessDeniedException.class, () ->
-                cartController.getCart(UUID.randomUUID()));
+                cartController.getCart(UUID.randomUUID(), null));
     }
 
     @Test
@@ -1,10 +1,17 @@
 package com.gabrielluciano.cartservice.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gabrielluciano.cartservice.dto.CartItemRequest;
+import com.gabrielluciano.cartservice.dto.CartItemsRequest;
 import com.gabrielluciano.cartservice.dto.CartRequest;
+import com.gabrielluciano.cartservice.dto.OrderCreateRequest;
+import com.gabrielluciano.cartservice.dto.OrderResponse;
+import com.gabrielluciano.cartservice.dto.ProductSummary;
+import com.gabrielluciano.cartservice.exception.OrderRejectedException;
+import com.gabrielluciano.cartservice.exception.ServiceUnavailableException;
 import com.gabrielluciano.cartservice.model.Cart;
-import com.gabrielluciano.cartservice.model.CartItem;
 import com.gabrielluciano.cartservice.repository.CartRepository;
+import com.gabrielluciano.cartservice.service.OrderService;
 import com.gabrielluciano.cartservice.service.ProductService;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
@@ -24,10 +31,16 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
 import org.testcontainers.containers.MongoDBContainer;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
 import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
@@ -63,6 +76,9 @@ class CartControllerTest {
     @MockBean
     private ProductService productService;
 
+    @MockBean
+    private OrderService orderService;
+
     @Autowired
     private WebApplicationContext context;
 
@@ -77,6 +93,8 @@ class CartControllerTest {
 
         BDDMockito.when(productService.productExists(ArgumentMatchers.anyLong()))
                 .thenReturn(true);
+        BDDMockito.when(productService.findMissingProducts(ArgumentMatchers.anyCollection()))
+                .thenReturn(Set.of());
 
         authenticatedMockMvc = MockMvcBuilders.webAppContextSetup(context)
                 .apply(springSecurity())
@@ -207,6 +225,84 @@ class CartControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    void shouldAddItems() throws Exception {
+        CartItemsRequest cartItemsRequest = CartItemsRequest.builder()
+                .userId(UUID.randomUUID())
+                .items(List.of(
+                        CartItemRequest.builder().productId(1L).quantity(2).build(),
+                        CartItemRequest.builder().productId(2L).quantity(1).build(),
+                        CartItemRequest.builder().productId(1L).quantity(1).build()))
+                .build();
+
+        authenticatedMockMvc.perform(post("/api/v1/cart/add-all")
+                        .with(jwt().jwt(jwt -> jwt.claim("userId", cartItemsRequest.getUserId().toString())))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(cartItemsRequest)))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.userId").value(cartItemsRequest.getUserId().toString()))
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[0].productId").value(1L))
+                .andExpect(jsonPath("$.items[0].quantity").value(3))
+                .andExpect(jsonPath("$.items[1].productId").value(2L))
+                .andExpect(jsonPath("$.items[1].quantity").value(1));
+
+        BDDMockito.verify(productService).findMissingProducts(Set.of(1L, 2L));
+    }
+
+    @Test
+    void shouldReturn404WhenAddItemsAndAnyProductIsNotFound() throws Exception {
+        BDDMockito.when(productService.findMissingProducts(ArgumentMatchers.anyCollection()))
+                .thenReturn(Set.of(2L));
+
+        CartItemsRequest cartItemsRequest = CartItemsRequest.builder()
+                .userId(UUID.randomUUID())
+                .items(List.of(
+                        CartItemRequest.builder().productId(1L).quantity(2).build(),
+                        CartItemRequest.builder().productId(2L).quantity(1).build()))
+                .build();
+
+        authenticatedMockMvc.perform(post("/api/v1/cart/add-all")
+                        .with(jwt().jwt(jwt -> jwt.claim("userId", cartItemsRequest.getUserId().toString())))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(cartItemsRequest)))
+                .andDo(print())
+                .andExpect(status().isNotFound());
+
+        assertTrue(cartRepository.findByUserIdAndDeletedAtIsNull(cartItemsRequest.getUserId()).isEmpty());
+    }
+
+    @Test
+    void shouldReturn400WhenAddItemsAndItemsAreEmpty() throws Exception {
+        CartItemsRequest cartItemsRequest = CartItemsRequest.builder()
+                .userId(UUID.randomUUID())
+                .items(List.of())
+                .build();
+
+        authenticatedMockMvc.perform(post("/api/v1/cart/add-all")
+                        .with(jwt().jwt(jwt -> jwt.claim("userId", cartItemsRequest.getUserId().toString())))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(cartItemsRequest)))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldReturn403WhenAddItemsAndCartItemsRequestUserIdIsDifferentFromJwtUserIdClaim() throws Exception {
+        CartItemsRequest cartItemsRequest = CartItemsRequest.builder()
+                .userId(UUID.randomUUID())
+                .items(List.of(CartItemRequest.builder().productId(1L).quantity(2).build()))
+                .build();
+
+        authenticatedMockMvc.perform(post("/api/v1/cart/add-all")
+                        .with(jwt().jwt(jwt -> jwt.claim("userId", UUID.randomUUID().toString())))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(cartItemsRequest)))
+                .andDo(print())
+                .andExpect(status().isForbidden());
+    }
+
     @Test
     void shouldReturn401WhenGetCartAndNotAuthenticated() throws Exception {
         mockMvc.perform(get("/api/v1/cart/" + UUID.randomUUID()))
@@ -225,10 +321,10 @@ class CartControllerTest {
     @Test
     void shouldGetCart() throws Exception {
         UUID userId = UUID.randomUUID();
-        CartItem cartItem = CartItem.fromProductIdAndQuantity(1L, 2);
+        Long productId = 1L;
         Cart cart = Cart.builder()
                 .userId(userId)
-                .items(List.of(cartItem))
+                .items(Map.of(productId, 2))
                 .build();
 
         cartRepository.save(cart);
@@ -238,7 +334,40 @@ class CartControllerTest {
                 .andDo(print())
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.userId").value(userId.toString()))
-                .andExpect(jsonPath("$.items[0].productId").value(cartItem.getProductId()));
+                .andExpect(jsonPath("$.items[0].productId").value(productId));
+    }
+
+    @Test
+    void shouldGetCartWithProducts() throws Exception {
+        UUID userId = UUID.randomUUID();
+        Long productId = 1L;
+        Long deletedProductId = 2L;
+        Map<Long, Integer> items = new LinkedHashMap<>();
+        items.put(productId, 2);
+        items.put(deletedProductId, 1);
+        Cart cart = Cart.builder()
+                .userId(userId)
+                .items(items)
+                .build();
+
+        cartRepository.save(cart);
+        BDDMockito.when(productService.findProductSummaries(Set.of(productId, deletedProductId)))
+                .thenReturn(Map.of(productId, ProductSummary.builder()
+                        .id(productId)
+                        .name("Coffee")
+                        .price(BigDecimal.valueOf(12.99))
+                        .build()));
+
+        authenticatedMockMvc.perform(get("/api/v1/cart/" + userId)
+                        .param("expand", "products")
+                        .with(jwt().jwt(jwt -> jwt.claim("userId", userId.toString()))))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].productId").value(productId))
+                .andExpect(jsonPath("$.items[0].name").value("Coffee"))
+                .andExpect(jsonPath("$.items[0].price").value(12.99))
+                .andExpect(jsonPath("$.items[1].productId").value(deletedProductId))
+                .andExpect(jsonPath("$.items[1].name").doesNotExist());
     }
 
     @Test
@@ -268,10 +397,10 @@ class CartControllerTest {
     @Test
     void shouldClearCart() throws Exception {
         UUID userId = UUID.randomUUID();
-        CartItem cartItem = CartItem.fromProductIdAndQuantity(1L, 2);
+        Long productId = 1L;
         Cart cart = Cart.builder()
                 .userId(userId)
-                .items(List.of(cartItem))
+                .items(Map.of(productId, 2))
                 .build();
 
         cartRepository.save(cart);
@@ -285,6 +414,191 @@ class CartControllerTest {
         assertTrue(optionalCart.isEmpty());
     }
 
+    @Test
+    void shouldReturn403WhenCheckoutAndUserIdIsDifferentFromJwtUserIdClaim() throws Exception {
+        authenticatedMockMvc.perform(post("/api/v1/cart/" + UUID.randomUUID() + "/checkout")
+                        .header(OrderService.IDEMPOTENCY_KEY_HEADER, UUID.randomUUID().toString())
+                        .with(jwt().jwt(jwt -> jwt.claim("userId", UUID.randomUUID().toString()))))
+                .andDo(print())
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void shouldCheckoutCart() throws Exception {
+        UUID userId = UUID.randomUUID();
+        Long productId = 1L;
+        String idempotencyKey = UUID.randomUUID().toString();
+        cartRepository.save(Cart.builder()
+                .userId(userId)
+                .items(Map.of(productId, 2))
+                .build());
+
+        OrderResponse orderResponse = orderResponse(userId);
+        BDDMockito.when(orderService.createOrder(ArgumentMatchers.any(), ArgumentMatchers.eq(idempotencyKey)))
+                .thenReturn(orderResponse);
+
+        authenticatedMockMvc.perform(post("/api/v1/cart/" + userId + "/checkout")
+                        .header(OrderService.IDEMPOTENCY_KEY_HEADER, idempotencyKey)
+                        .with(jwt().jwt(jwt -> jwt.claim("userId", userId.toString()))))
+                .andDo(print())
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value(orderResponse.getId().toString()));
+
+        BDDMockito.verify(orderService).createOrder(OrderCreateRequest.fromCart(Cart.builder()
+                .userId(userId)
+                .items(Map.of(productId, 2))
+                .build()), idempotencyKey);
+        assertTrue(cartRepository.findByUserIdAndDeletedAtIsNull(userId).isEmpty());
+        assertTrue(cartRepository.findByUserIdAndCheckoutKey(userId, idempotencyKey).isPresent());
+    }
+
+    @Test
+    void shouldReturnSameOrderWhenCheckoutIsRetriedAfterCartWasCleared() throws Exception {
+        UUID userId = UUID.randomUUID();
+        String idempotencyKey = UUID.randomUUID().toString();
+        cartRepository.save(Cart.builder()
+                .userId(userId)
+                .items(Map.of(1L, 2))
+                .build());
+
+        OrderResponse orderResponse = orderResponse(userId);
+        BDDMockito.when(orderService.createOrder(ArgumentMatchers.any(), ArgumentMatchers.eq(idempotencyKey)))
+                .thenReturn(orderResponse);
+
+        for (int attempt = 0; attempt < 2; attempt++) {
+            authenticatedMockMvc.perform(post("/api/v1/cart/" + userId + "/checkout")
+                            .header(OrderService.IDEMPOTENCY_KEY_HEADER, idempotencyKey)
+                            .with(jwt().jwt(jwt -> jwt.claim("userId", userId.toString()))))
+                    .andDo(print())
+                    .andExpect(status().isCreated())
+                    .andExpect(jsonPath("$.id").value(orderResponse.getId().toString()));
+        }
+
+        // The retry replays the original items, order service answers it with the order it already created
+        BDDMockito.verify(orderService, BDDMockito.times(2))
+                .createOrder(ArgumentMatchers.argThat(request -> request.getItems().size() == 1),
+                        ArgumentMatchers.eq(idempotencyKey));
+        assertEquals(1, cartRepository.count());
+    }
+
+    @Test
+    void shouldKeepItemsAddedBetweenAttemptsWhenCheckoutIsRetried() throws Exception {
+        UUID userId = UUID.randomUUID();
+        String idempotencyKey = UUID.randomUUID().toString();
+        cartRepository.save(Cart.builder()
+                .userId(userId)
+                .items(Map.of(1L, 2))
+                .build());
+
+        // The first attempt may have created the order even though its response was lost
+        OrderResponse orderResponse = orderResponse(userId);
+        BDDMockito.when(orderService.createOrder(ArgumentMatchers.any(), ArgumentMatchers.eq(idempotencyKey)))
+                .thenThrow(new ServiceUnavailableException("Order Service Unavailable"))
+                .thenReturn(orderResponse);
+
+        authenticatedMockMvc.perform(post("/api/v1/cart/" + userId + "/checkout")
+                        .header(OrderService.IDEMPOTENCY_KEY_HEADER, idempotencyKey)
+                        .with(jwt().jwt(jwt -> jwt.claim("userId", userId.toString()))))
+                .andDo(print())
+                .andExpect(status().isServiceUnavailable());
+        cartRepository.addItemToActiveCart(userId, 2L, 1);
+        authenticatedMockMvc.perform(post("/api/v1/cart/" + userId + "/checkout")
+                        .header(OrderService.IDEMPOTENCY_KEY_HEADER, idempotencyKey)
+                        .with(jwt().jwt(jwt -> jwt.claim("userId", userId.toString()))))
+                .andDo(print())
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value(orderResponse.getId().toString()));
+
+        BDDMockito.verify(orderService, BDDMockito.times(2)).createOrder(OrderCreateRequest.fromCart(Cart.builder()
+                .userId(userId)
+                .items(Map.of(1L, 2))
+                .build()), idempotencyKey);
+        assertEquals(Map.of(1L, 2), cartRepository.findByUserIdAndCheckoutKey(userId, idempotencyKey)
+                .orElseThrow().getItems());
+        assertEquals(Map.of(2L, 1), cartRepository.findByUserIdAndDeletedAtIsNull(userId)
+                .orElseThrow().getItems());
+    }
+
+    @Test
+    void shouldReturn409WhenCartIsBeingCheckedOutWithAnotherKey() throws Exception {
+        UUID userId = UUID.randomUUID();
+        cartRepository.save(Cart.builder()
+                .userId(userId)
+                .items(Map.of(1L, 2))
+                .build());
+        cartRepository.startCheckout(userId, UUID.randomUUID().toString());
+
+        authenticatedMockMvc.perform(post("/api/v1/cart/" + userId + "/checkout")
+                        .header(OrderService.IDEMPOTENCY_KEY_HEADER, UUID.randomUUID().toString())
+                        .with(jwt().jwt(jwt -> jwt.claim("userId", userId.toString()))))
+                .andDo(print())
+                .andExpect(status().isConflict());
+
+        BDDMockito.verifyNoInteractions(orderService);
+        assertTrue(cartRepository.findByUserIdAndDeletedAtIsNull(userId).isPresent());
+    }
+
+    @Test
+    void shouldKeepCartWhenOrderServiceIsUnavailable() throws Exception {
+        UUID userId = UUID.randomUUID();
+        cartRepository.save(Cart.builder()
+                .userId(userId)
+                .items(Map.of(1L, 2))
+                .build());
+
+        BDDMockito.when(orderService.createOrder(ArgumentMatchers.any(), ArgumentMatchers.any()))
+                .thenThrow(new ServiceUnavailableException("Order Service Unavailable"));
+
+        authenticatedMockMvc.perform(post("/api/v1/cart/" + userId + "/checkout")
+                        .header(OrderService.IDEMPOTENCY_KEY_HEADER, UUID.randomUUID().toString())
+                        .with(jwt().jwt(jwt -> jwt.claim("userId", userId.toString()))))
+                .andDo(print())
+                .andExpect(status().isServiceUnavailable());
+
+        assertTrue(cartRepository.findByUserIdAndDeletedAtIsNull(userId).isPresent());
+    }
+
+    @Test
+    void shouldReturn422WhenOrderIsRejected() throws Exception {
+        UUID userId = UUID.randomUUID();
+        cartRepository.save(Cart.builder()
+                .userId(userId)
+                .items(Map.of(1L, 2))
+                .build());
+
+        BDDMockito.when(orderService.createOrder(ArgumentMatchers.any(), ArgumentMatchers.any()))
+                .thenThrow(new OrderRejectedException("Product with id '1' is not available or doesn't exist"));
+
+        authenticatedMockMvc.perform(post("/api/v1/cart/" + userId + "/checkout")
+                        .header(OrderService.IDEMPOTENCY_KEY_HEADER, UUID.randomUUID().toString())
+                        .with(jwt().jwt(jwt -> jwt.claim("userId", userId.toString()))))
+                .andDo(print())
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.error").value("Product with id '1' is not available or doesn't exist"));
+
+        assertTrue(cartRepository.findByUserIdAndDeletedAtIsNull(userId).isPresent());
+    }
+
+    @Test
+    void shouldReturn404WhenCheckoutAndCartIsNotFound() throws Exception {
+        UUID userId = UUID.randomUUID();
+        authenticatedMockMvc.perform(post("/api/v1/cart/" + userId + "/checkout")
+                        .header(OrderService.IDEMPOTENCY_KEY_HEADER, UUID.randomUUID().toString())
+                        .with(jwt().jwt(jwt -> jwt.claim("userId", userId.toString()))))
+                .andDo(print())
+                .andExpect(status().isNotFound());
+    }
+
+    static OrderResponse orderResponse(UUID userId) {
+        return OrderResponse.builder()
+                .id(UUID.randomUUID())
+                .userId(userId)
+                .totalAmount(new BigDecimal("25.98"))
+                .status("PENDING")
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
     static String asJsonString(final Object object) throws Exception {
         return new ObjectMapper().writeValueAsString(object);
     }
@@ -0,0 +1,316 @@
+package com.gabrielluciano.cartservice.controller;
+
+import com.gabrielluciano.cartservice.dto.CartItemRequest;
+import com.gabrielluciano.cartservice.dto.CartItemsRequest;
+import com.gabrielluciano.cartservice.dto.CartRequest;
+import com.gabrielluciano.cartservice.dto.OrderResponse;
+import com.gabrielluciano.cartservice.dto.ProductSummary;
+import com.gabrielluciano.cartservice.model.Cart;
+import com.gabrielluciano.cartservice.repository.ReactiveCartRepository;
+import com.gabrielluciano.cartservice.service.OrderService;
+import com.gabrielluciano.cartservice.service.ProductService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.testcontainers.containers.MongoDBContainer;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.springframework.security.test.web.reactive.server.SecurityMockServerConfigurers.mockJwt;
+
+@SpringBootTest(properties = {"eureka.client.enabled=false", "spring.main.web-application-type=reactive"})
+@AutoConfigureWebTestClient
+class ReactiveCartControllerTest {
+
+    static final MongoDBContainer mongodb = new MongoDBContainer("mongo:7.0.5");
+
+    @BeforeAll
+    static void beforeAll() {
+        mongodb.start();
+    }
+
+    @AfterAll
+    static void afterAll() {
+        mongodb.stop();
+    }
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", () -> mongodb.getReplicaSetUrl("cartservice"));
+    }
+
+    @Autowired
+    private ReactiveCartRepository cartRepository;
+
+    @MockBean
+    private ProductService productService;
+
+    @MockBean
+    private OrderService orderService;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @BeforeEach
+    void setUp() {
+        cartRepository.deleteAll().block();
+
+        BDDMockito.when(productService.checkProductExists(ArgumentMatchers.anyLong()))
+                .thenReturn(Mono.just(true));
+        BDDMockito.when(productService.checkMissingProducts(ArgumentMatchers.anyCollection()))
+                .thenReturn(Mono.just(Set.of()));
+    }
+
+    @Test
+    void shouldReturn401WhenAddItemAndNotAuthenticated() {
+        CartRequest cartRequest = CartRequest.builder()
+                .userId(UUID.randomUUID())
+                .productId(1L)
+                .quantity(2)
+                .build();
+
+        webTestClient.post().uri("/api/v1/cart/add")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(cartRequest)
+                .exchange()
+                .expectStatus().isUnauthorized();
+    }
+
+    @Test
+    void shouldReturn403WhenAddItemAndCartRequestUserIdIsDifferentFromJwtUserIdClaim() {
+        CartRequest cartRequest = CartRequest.builder()
+                .userId(UUID.randomUUID())
+                .productId(1L)
+                .quantity(2)
+                .build();
+
+        webTestClient.mutateWith(mockJwt().jwt(jwt -> jwt.claim("userId", UUID.randomUUID().toString())))
+                .post().uri("/api/v1/cart/add")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(cartRequest)
+                .exchange()
+                .expectStatus().isForbidden();
+    }
+
+    @Test
+    void shouldAddItemAndIncreaseItemQuantity() {
+        CartRequest cartRequest = CartRequest.builder()
+                .userId(UUID.randomUUID())
+                .productId(1L)
+                .quantity(2)
+                .build();
+        WebTestClient authenticatedClient = webTestClient
+                .mutateWith(mockJwt().jwt(jwt -> jwt.claim("userId", cartRequest.getUserId().toString())));
+
+        authenticatedClient.post().uri("/api/v1/cart/add")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(cartRequest)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.userId").isEqualTo(cartRequest.getUserId().toString())
+                .jsonPath("$.items[0].productId").isEqualTo(cartRequest.getProductId())
+                .jsonPath("$.items[0].quantity").isEqualTo(cartRequest.getQuantity());
+
+        authenticatedClient.post().uri("/api/v1/cart/add")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(cartRequest)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.items.length()").isEqualTo(1)
+                .jsonPath("$.items[0].quantity").isEqualTo(cartRequest.getQuantity() * 2);
+    }
+
+    @Test
+    void shouldReturn404WhenAddItemAndProductIsNotFound() {
+        BDDMockito.when(productService.checkProductExists(ArgumentMatchers.anyLong()))
+                .thenReturn(Mono.just(false));
+
+        CartRequest cartRequest = CartRequest.builder()
+                .userId(UUID.randomUUID())
+                .productId(1L)
+                .quantity(2)
+                .build();
+
+        webTestClient.mutateWith(mockJwt().jwt(jwt -> jwt.claim("userId", cartRequest.getUserId().toString())))
+                .post().uri("/api/v1/cart/add")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(cartRequest)
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.path").isEqualTo("/api/v1/cart/add");
+    }
+
+    @Test
+    void shouldAddItems() {
+        CartItemsRequest cartItemsRequest = CartItemsRequest.builder()
+                .userId(UUID.randomUUID())
+                .items(List.of(
+                        CartItemRequest.builder().productId(1L).quantity(2).build(),
+                        CartItemRequest.builder().productId(2L).quantity(1).build()))
+                .build();
+
+        webTestClient.mutateWith(mockJwt().jwt(jwt -> jwt.claim("userId", cartItemsRequest.getUserId().toString())))
+                .post().uri("/api/v1/cart/add-all")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(cartItemsRequest)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.items.length()").isEqualTo(2)
+                .jsonPath("$.items[0].quantity").isEqualTo(2);
+    }
+
+    @Test
+    void shouldReturn404WhenAddItemsAndAnyProductIsNotFound() {
+        BDDMockito.when(productService.checkMissingProducts(ArgumentMatchers.anyCollection()))
+                .thenReturn(Mono.just(Set.of(2L)));
+
+        CartItemsRequest cartItemsRequest = CartItemsRequest.builder()
+                .userId(UUID.randomUUID())
+                .items(List.of(
+                        CartItemRequest.builder().productId(1L).quantity(2).build(),
+                        CartItemRequest.builder().productId(2L).quantity(1).build()))
+                .build();
+
+        webTestClient.mutateWith(mockJwt().jwt(jwt -> jwt.claim("userId", cartItemsRequest.getUserId().toString())))
+                .post().uri("/api/v1/cart/add-all")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(cartItemsRequest)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void shouldGetCart() {
+        UUID userId = UUID.randomUUID();
+        Long productId = 1L;
+        Cart cart = Cart.builder()
+                .userId(userId)
+                .items(Map.of(productId, 2))
+                .build();
+
+        cartRepository.save(cart).block();
+
+        webTestClient.mutateWith(mockJwt().jwt(jwt -> jwt.claim("userId", userId.toString())))
+                .get().uri("/api/v1/cart/" + userId)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.userId").isEqualTo(userId.toString())
+                .jsonPath("$.items[0].productId").isEqualTo(productId);
+    }
+
+    @Test
+    void shouldGetCartWithProducts() {
+        UUID userId = UUID.randomUUID();
+        Long productId = 1L;
+        Cart cart = Cart.builder()
+                .userId(userId)
+                .items(Map.of(productId, 2))
+                .build();
+
+        cartRepository.save(cart).block();
+        BDDMockito.when(productService.fetchProductSummaries(Set.of(productId)))
+                .thenReturn(Mono.just(Map.of(productId, ProductSummary.builder()
+                        .id(productId)
+                        .name("Coffee")
+                        .price(BigDecimal.valueOf(12.99))
+                        .build())));
+
+        webTestClient.mutateWith(mockJwt().jwt(jwt -> jwt.claim("userId", userId.toString())))
+                .get().uri("/api/v1/cart/" + userId + "?expand=products")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.items[0].productId").isEqualTo(productId)
+                .jsonPath("$.items[0].name").isEqualTo("Coffee")
+                .jsonPath("$.items[0].price").isEqualTo(12.99);
+    }
+
+    @Test
+    void shouldReturn404WhenCartIsNotFound() {
+        UUID userId = UUID.randomUUID();
+
+        webTestClient.mutateWith(mockJwt().jwt(jwt -> jwt.claim("userId", userId.toString())))
+                .get().uri("/api/v1/cart/" + userId)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void shouldClearCart() {
+        UUID userId = UUID.randomUUID();
+        Long productId = 1L;
+        Cart cart = Cart.builder()
+                .userId(userId)
+                .items(Map.of(productId, 2))
+                .build();
+
+        cartRepository.save(cart).block();
+
+        webTestClient.mutateWith(mockJwt().jwt(jwt -> jwt.claim("userId", userId.toString())))
+                .delete().uri("/api/v1/cart/" + userId)
+                .exchange()
+                .expectStatus().isNoContent();
+
+        StepVerifier.create(cartRepository.findByUserIdAndDeletedAtIsNull(userId))
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldCheckoutCartAndReturnSameOrderWhenRetried() {
+        UUID userId = UUID.randomUUID();
+        String idempotencyKey = UUID.randomUUID().toString();
+        cartRepository.save(Cart.builder()
+                .userId(userId)
+                .items(Map.of(1L, 2))
+                .build()).block();
+
+        OrderResponse orderResponse = OrderResponse.builder()
+                .id(UUID.randomUUID())
+                .userId(userId)
+                .totalAmount(new BigDecimal("25.98"))
+                .status("PENDING")
+                .createdAt(LocalDateTime.now())
+                .build();
+        BDDMockito.when(orderService.submitOrder(ArgumentMatchers.any(), ArgumentMatchers.eq(idempotencyKey)))
+                .thenReturn(Mono.just(orderResponse));
+
+        for (int attempt = 0; attempt < 2; attempt++) {
+            webTestClient.mutateWith(mockJwt().jwt(jwt -> jwt.claim("userId", userId.toString())))
+                    .post().uri("/api/v1/cart/" + userId + "/checkout")
+                    .header(OrderService.IDEMPOTENCY_KEY_HEADER, idempotencyKey)
+                    .exchange()
+                    .expectStatus().isCreated()
+                    .expectBody()
+                    .jsonPath("$.id").isEqualTo(orderResponse.getId().toString());
+        }
+
+        StepVerifier.create(cartRepository.findByUserIdAndDeletedAtIsNull(userId))
+                .verifyComplete();
+        StepVerifier.create(cartRepository.count())
+                .expectNext(1L)
+                .verifyComplete();
+    }
+}
@@ -0,0 +1,130 @@
+package com.gabrielluciano.cartservice.load;
+
+import com.gabrielluciano.cartservice.dto.CartRequest;
+import lombok.extern.log4j.Log4j2;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.testcontainers.containers.MongoDBContainer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Drives concurrent {@code POST /api/v1/cart/add} requests against a running cart-service while
+ * product-service answers with a fixed latency, and logs throughput and peak JVM thread count so
+ * the servlet and reactive stacks can be compared side by side.
+ * <p>
+ * Disabled by default, run with {@code mvn test -DloadTest=true -Dtest='*LoadTest'}. The load can be
+ * tuned with {@code loadTest.requests}, {@code loadTest.concurrency} and
+ * {@code loadTest.productServiceLatencyMs}.
+ */
+@Log4j2
+abstract class AbstractCartLoadTest {
+
+    protected static final int REQUESTS = Integer.getInteger("loadTest.requests", 2000);
+    protected static final int CONCURRENCY = Integer.getInteger("loadTest.concurrency", 200);
+    protected static final Duration PRODUCT_SERVICE_LATENCY =
+            Duration.ofMillis(Long.getLong("loadTest.productServiceLatencyMs", 100));
+
+    static final MongoDBContainer mongodb = new MongoDBContainer("mongo:7.0.5");
+
+    @BeforeAll
+    static void beforeAll() {
+        mongodb.start();
+    }
+
+    @AfterAll
+    static void afterAll() {
+        mongodb.stop();
+    }
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", () -> mongodb.getReplicaSetUrl("cartservice"));
+    }
+
+    @LocalServerPort
+    private int port;
+
+    protected abstract String stackName();
+
+    // The bearer token is the user id itself, so every request can act on its own cart
+    protected static Jwt jwtForToken(String token) {
+        return Jwt.withTokenValue(token)
+                .header("alg", "none")
+                .claim("userId", token)
+                .build();
+    }
+
+    @Test
+    void addItemUnderLoad() {
+        ConnectionProvider connectionProvider = ConnectionProvider.builder("cart-load-test")
+                .maxConnections(CONCURRENCY)
+                .pendingAcquireMaxCount(-1)
+                .build();
+        try {
+            WebClient webClient = WebClient.builder()
+                    .baseUrl("http://localhost:" + port)
+                    .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connectionProvider)))
+                    .build();
+
+            // Warm up connections, worker pools and the JIT before measuring
+            sendAddItemRequests(webClient, CONCURRENCY);
+
+            ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+            threadMXBean.resetPeakThreadCount();
+            long start = System.nanoTime();
+            long successful = sendAddItemRequests(webClient, REQUESTS);
+            Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+            log.info("[{}] {} requests, concurrency {}, product-service latency {} ms: {} successful in {} ms "
+                            + "({} req/s), peak threads {}",
+                    stackName(), REQUESTS, CONCURRENCY, PRODUCT_SERVICE_LATENCY.toMillis(), successful,
+                    elapsed.toMillis(), String.format("%.1f", REQUESTS * 1000.0 / elapsed.toMillis()),
+                    threadMXBean.getPeakThreadCount());
+
+            assertEquals(REQUESTS, successful);
+        } finally {
+            connectionProvider.dispose();
+        }
+    }
+
+    private long sendAddItemRequests(WebClient webClient, int requests) {
+        return Flux.range(0, requests)
+                .flatMap(i -> addItem(webClient), CONCURRENCY)
+                .filter(HttpStatusCode::is2xxSuccessful)
+                .count()
+                .block();
+    }
+
+    private Mono<HttpStatusCode> addItem(WebClient webClient) {
+        UUID userId = UUID.randomUUID();
+        CartRequest cartRequest = CartRequest.builder()
+                .userId(userId)
+                .productId(1L)
+                .quantity(1)
+                .build();
+
+        return webClient.post()
+                .uri("/api/v1/cart/add")
+                .headers(headers -> headers.setBearerAuth(userId.toString()))
+                .bodyValue(cartRequest)
+                .exchangeToMono(response -> response.releaseBody().thenReturn(response.statusCode()));
+    }
+}
@@ -0,0 +1,151 @@
+package com.gabrielluciano.cartservice.load;
+
+import com.gabrielluciano.cartservice.model.Cart;
+import com.gabrielluciano.cartservice.repository.CartRepository;
+import com.mongodb.client.MongoCollection;
+import lombok.extern.log4j.Log4j2;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Measures {@link CartRepository#findByUserIdAndDeletedAtIsNull(UUID)} latency on a collection holding
+ * millions of soft-deleted carts, with and without the partial {@value Cart#ACTIVE_CART_INDEX} index.
+ * <p>
+ * Disabled by default, run with {@code mvn test -DloadTest=true -Dtest=ActiveCartLookupLoadTest}. The
+ * data set can be tuned with {@code loadTest.deletedCarts}, {@code loadTest.activeCarts} and
+ * {@code loadTest.lookups}.
+ */
+@DataMongoTest
+@EnabledIfSystemProperty(named = "loadTest", matches = "true")
+@Log4j2
+class ActiveCartLookupLoadTest {
+
+    private static final int DELETED_CARTS = Integer.getInteger("loadTest.deletedCarts", 2_000_000);
+    private static final int ACTIVE_CARTS = Integer.getInteger("loadTest.activeCarts", 1000);
+    private static final int LOOKUPS = Integer.getInteger("loadTest.lookups", 200);
+    private static final int INSERT_BATCH_SIZE = 10_000;
+
+    static final MongoDBContainer mongodb = new MongoDBContainer("mongo:7.0.5");
+
+    @BeforeAll
+    static void beforeAll() {
+        mongodb.start();
+    }
+
+    @AfterAll
+    static void afterAll() {
+        mongodb.stop();
+    }
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", () -> mongodb.getReplicaSetUrl("cartservice"));
+    }
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MongoMappingContext mappingContext;
+
+    @Test
+    void findActiveCartAmongSoftDeletedCarts() {
+        cartRepository.deleteAll();
+        insertDeletedCarts();
+        List<UUID> activeUserIds = insertActiveCarts();
+
+        long[] indexedLatencies = measureLookups(activeUserIds);
+
+        IndexOperations indexOperations = mongoTemplate.indexOps(Cart.class);
+        indexOperations.dropIndex(Cart.ACTIVE_CART_INDEX);
+        long[] collectionScanLatencies;
+        try {
+            collectionScanLatencies = measureLookups(activeUserIds.subList(0, Math.min(LOOKUPS, 20)));
+        } finally {
+            IndexResolver.create(mappingContext).resolveIndexFor(Cart.class)
+                    .forEach(indexOperations::ensureIndex);
+        }
+
+        log.info("[{} deleted carts] with {}: mean {} us, p99 {} us", DELETED_CARTS, Cart.ACTIVE_CART_INDEX,
+                mean(indexedLatencies), percentile(indexedLatencies, 0.99));
+        log.info("[{} deleted carts] without index: mean {} us, p99 {} us", DELETED_CARTS,
+                mean(collectionScanLatencies), percentile(collectionScanLatencies, 0.99));
+
+        assertThat(mean(indexedLatencies)).isLessThan(mean(collectionScanLatencies));
+    }
+
+    private void insertDeletedCarts() {
+        // Raw documents go straight to the driver, mapping millions of entities would dominate the run
+        MongoCollection<Document> collection = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Cart.class));
+        List<Document> batch = new ArrayList<>(INSERT_BATCH_SIZE);
+        for (int i = 0; i < DELETED_CARTS; i++) {
+            batch.add(new Document("userId", UUID.randomUUID())
+                    .append("items", new Document("1", 1))
+                    .append("deletedAt", LocalDateTime.now()));
+            if (batch.size() == INSERT_BATCH_SIZE) {
+                collection.insertMany(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty())
+            collection.insertMany(batch);
+    }
+
+    private List<UUID> insertActiveCarts() {
+        List<Cart> carts = new ArrayList<>(ACTIVE_CARTS);
+        for (int i = 0; i < ACTIVE_CARTS; i++) {
+            carts.add(Cart.builder()
+                    .userId(UUID.randomUUID())
+                    .items(Map.of(1L, 1))
+                    .build());
+        }
+        return cartRepository.saveAll(carts).stream()
+                .map(Cart::getUserId)
+                .toList();
+    }
+
+    private long[] measureLookups(List<UUID> userIds) {
+        int lookups = Math.min(LOOKUPS, userIds.size());
+        long[] latencies = new long[lookups];
+        for (int i = 0; i < lookups; i++) {
+            long start = System.nanoTime();
+            assertThat(cartRepository.findByUserIdAndDeletedAtIsNull(userIds.get(i))).isPresent();
+            latencies[i] = (System.nanoTime() - start) / 1000;
+        }
+        return latencies;
+    }
+
+    private static long mean(long[] latencies) {
+        return (long) Arrays.stream(latencies).average().orElse(0);
+    }
+
+    private static long percentile(long[] latencies, double percentile) {
+        long[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+        return sorted[(int) Math.ceil(percentile * sorted.length) - 1];
+    }
+}
@@ -0,0 +1,38 @@
+package com.gabrielluciano.cartservice.load;
+
+import com.gabrielluciano.cartservice.service.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import reactor.core.publisher.Mono;
+
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+
+@SpringBootTest(webEnvironment = RANDOM_PORT,
+        properties = {"eureka.client.enabled=false", "spring.main.web-application-type=reactive"})
+@EnabledIfSystemProperty(named = "loadTest", matches = "true")
+class ReactiveCartLoadTest extends AbstractCartLoadTest {
+
+    @MockBean
+    private ProductService productService;
+
+    @MockBean
+    private ReactiveJwtDecoder jwtDecoder;
+
+    @BeforeEach
+    void setUp() {
+        BDDMockito.when(productService.checkProductExists(ArgumentMatchers.anyLong()))
+                .thenAnswer(invocation -> Mono.delay(PRODUCT_SERVICE_LATENCY).thenReturn(true));
+        BDDMockito.when(jwtDecoder.decode(ArgumentMatchers.anyString()))
+                .thenAnswer(invocation -> Mono.just(jwtForToken(invocation.getArgument(0))));
+    }
+
+    @Override
+    protected String stackName() {
+        return "reactive";
+    }
+}
@@ -0,0 +1,40 @@
+package com.gabrielluciano.cartservice.load;
+
+import com.gabrielluciano.cartservice.service.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+
+@SpringBootTest(webEnvironment = RANDOM_PORT, properties = {"eureka.client.enabled=false"})
+@EnabledIfSystemProperty(named = "loadTest", matches = "true")
+class ServletCartLoadTest extends AbstractCartLoadTest {
+
+    @MockBean
+    private ProductService productService;
+
+    @MockBean
+    private JwtDecoder jwtDecoder;
+
+    @BeforeEach
+    void setUp() {
+        // Same cost as the adapter blocking a Tomcat worker on a slow product-service response
+        BDDMockito.when(productService.productExists(ArgumentMatchers.anyLong()))
+                .thenAnswer(invocation -> {
+                    Thread.sleep(PRODUCT_SERVICE_LATENCY.toMillis());
+                    return true;
+                });
+        BDDMockito.when(jwtDecoder.decode(ArgumentMatchers.anyString()))
+                .thenAnswer(invocation -> jwtForToken(invocation.getArgument(0)));
+    }
+
+    @Override
+    protected String stackName() {
+        return "servlet";
+    }
+}
@@ -0,0 +1,81 @@
+package com.gabrielluciano.cartservice.migration;
+
+import com.gabrielluciano.cartservice.model.Cart;
+import com.gabrielluciano.cartservice.repository.CartRepository;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+@DataMongoTest(properties = {"cart.migration.items-map.enabled=true"})
+@Import(CartItemsMigration.class)
+class CartItemsMigrationTest {
+
+    static final MongoDBContainer mongodb = new MongoDBContainer("mongo:7.0.5");
+
+    @BeforeAll
+    static void beforeAll() {
+        mongodb.start();
+    }
+
+    @AfterAll
+    static void afterAll() {
+        mongodb.stop();
+    }
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", () -> mongodb.getReplicaSetUrl("cartservice"));
+    }
+
+    @Autowired
+    private CartItemsMigration cartItemsMigration;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @BeforeEach
+    void setUp() {
+        cartRepository.deleteAll();
+    }
+
+    @Test
+    void shouldConvertItemsListToMapKeepingOrder() {
+        UUID userId = UUID.randomUUID();
+        mongoTemplate.getCollection(mongoTemplate.getCollectionName(Cart.class))
+                .insertOne(new Document("userId", userId)
+                        .append("items", List.of(
+                                new Document("productId", 2L).append("quantity", 3),
+                                new Document("productId", 1L).append("quantity", 1))));
+        Cart migratedCart = cartRepository.save(Cart.builder()
+                .userId(UUID.randomUUID())
+                .items(Map.of(5L, 2))
+                .build());
+
+        cartItemsMigration.run(null);
+        cartItemsMigration.run(null);
+
+        Cart cart = cartRepository.findByUserIdAndDeletedAtIsNull(userId).orElseThrow();
+        assertThat(cart.getItems()).containsExactly(entry(2L, 3), entry(1L, 1));
+        assertThat(cartRepository.findById(migratedCart.getId()).orElseThrow().getItems())
+                .containsExactly(entry(5L, 2));
+    }
+}
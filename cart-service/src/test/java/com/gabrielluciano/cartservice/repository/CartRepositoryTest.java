@@ -1,24 +1,38 @@
 package com.gabrielluciano.cartservice.repository;
 
+import com.gabrielluciano.cartservice.exception.CheckoutInProgressException;
 import com.gabrielluciano.cartservice.model.Cart;
-import com.gabrielluciano.cartservice.model.CartItem;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.bson.Document;
 import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.testcontainers.containers.MongoDBContainer;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @DataMongoTest
 class CartRepositoryTest {
@@ -43,6 +57,9 @@ class CartRepositoryTest {
     @Autowired
     private CartRepository cartRepository;
 
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
     @BeforeEach
     void setUp() {
         cartRepository.deleteAll();
@@ -52,12 +69,12 @@ class CartRepositoryTest {
     void shouldFindByUserIdAndDeletedAtIsNull() {
         Cart cart = Cart.builder()
                 .userId(UUID.randomUUID())
-                .items(List.of(CartItem.fromProductIdAndQuantity(1L, 2)))
+                .items(Map.of(1L, 2))
                 .build();
 
         Cart deletedCart = Cart.builder()
                 .userId(UUID.randomUUID())
-                .items(List.of(CartItem.fromProductIdAndQuantity(1L, 2)))
+                .items(Map.of(1L, 2))
                 .deletedAt(LocalDateTime.now())
                 .build();
 
@@ -75,7 +92,7 @@ class CartRepositoryTest {
     void shouldNotFindByUserIdAndDeletedAtIsNull() {
         Cart deletedCart = Cart.builder()
                 .userId(UUID.randomUUID())
-                .items(List.of(CartItem.fromProductIdAndQuantity(1L, 2)))
+                .items(Map.of(1L, 2))
                 .deletedAt(LocalDateTime.now())
                 .build();
 
@@ -85,4 +102,265 @@ class CartRepositoryTest {
 
         assertThat(optionalCartFromDb).isEmpty();
     }
+
+    @Test
+    void shouldCreateCartWhenAddItemToActiveCartAndUserHasNoCart() {
+        UUID userId = UUID.randomUUID();
+
+        Cart cart = cartRepository.addItemToActiveCart(userId, 1L, 2);
+
+        assertThat(cart.getId()).isNotNull();
+        assertEquals(userId, cart.getUserId());
+        assertThat(cart.getItems()).containsExactly(entry(1L, 2));
+        assertEquals(cart, cartRepository.findByUserIdAndDeletedAtIsNull(userId).orElseThrow());
+    }
+
+    @Test
+    void shouldIncreaseQuantityOrAppendItemWhenAddItemToActiveCart() {
+        Cart cart = Cart.builder()
+                .userId(UUID.randomUUID())
+                .items(Map.of(1L, 2))
+                .build();
+        cartRepository.save(cart);
+
+        cartRepository.addItemToActiveCart(cart.getUserId(), 1L, 3);
+        Cart updatedCart = cartRepository.addItemToActiveCart(cart.getUserId(), 2L, 1);
+
+        assertEquals(cart.getId(), updatedCart.getId());
+        assertThat(updatedCart.getItems()).containsExactly(entry(1L, 5), entry(2L, 1));
+    }
+
+    @Test
+    void shouldNotUpdateDeletedCartWhenAddItemToActiveCart() {
+        Cart deletedCart = Cart.builder()
+                .userId(UUID.randomUUID())
+                .items(Map.of(1L, 2))
+                .deletedAt(LocalDateTime.now())
+                .build();
+        cartRepository.save(deletedCart);
+
+        Cart cart = cartRepository.addItemToActiveCart(deletedCart.getUserId(), 1L, 1);
+
+        assertThat(cart.getId()).isNotEqualTo(deletedCart.getId());
+        assertThat(cart.getItems()).containsExactly(entry(1L, 1));
+        assertEquals(deletedCart, cartRepository.findById(deletedCart.getId()).orElseThrow());
+    }
+
+    @Test
+    void shouldNotLoseUpdatesWhenAddItemToActiveCartConcurrently() throws Exception {
+        Cart cart = Cart.builder()
+                .userId(UUID.randomUUID())
+                .items(Map.of(1L, 1))
+                .build();
+        cartRepository.save(cart);
+        int concurrentAdds = 50;
+
+        ExecutorService executorService = Executors.newFixedThreadPool(10);
+        try {
+            List<Future<Cart>> futures = IntStream.range(0, concurrentAdds)
+                    .mapToObj(i -> executorService.submit(() ->
+                            cartRepository.addItemToActiveCart(cart.getUserId(), 1L, 1)))
+                    .toList();
+            for (Future<Cart> future : futures)
+                future.get();
+        } finally {
+            executorService.shutdown();
+        }
+
+        Cart cartFromDb = cartRepository.findByUserIdAndDeletedAtIsNull(cart.getUserId()).orElseThrow();
+        assertThat(cartFromDb.getItems()).containsExactly(entry(1L, 1 + concurrentAdds));
+    }
+
+    @Test
+    void shouldCreateSingleCartWhenAddItemToActiveCartConcurrentlyAndUserHasNoCart() throws Exception {
+        UUID userId = UUID.randomUUID();
+        int concurrentAdds = 20;
+
+        ExecutorService executorService = Executors.newFixedThreadPool(10);
+        try {
+            List<Future<Cart>> futures = IntStream.range(0, concurrentAdds)
+                    .mapToObj(i -> executorService.submit(() -> cartRepository.addItemToActiveCart(userId, 1L, 1)))
+                    .toList();
+            for (Future<Cart> future : futures)
+                future.get();
+        } finally {
+            executorService.shutdown();
+        }
+
+        Cart cartFromDb = cartRepository.findByUserIdAndDeletedAtIsNull(userId).orElseThrow();
+        assertThat(cartFromDb.getItems()).containsExactly(entry(1L, concurrentAdds));
+        assertEquals(1, cartRepository.count());
+    }
+
+    @Test
+    void shouldMoveItemsAddedAfterCheckoutStartedToNewActiveCartWhenCheckoutActiveCart() {
+        Cart cart = Cart.builder()
+                .userId(UUID.randomUUID())
+                .items(Map.of(1L, 2))
+                .build();
+        cartRepository.save(cart);
+        String checkoutKey = UUID.randomUUID().toString();
+
+        Cart startedCart = cartRepository.startCheckout(cart.getUserId(), checkoutKey).orElseThrow();
+        cartRepository.addItemToActiveCart(cart.getUserId(), 1L, 1);
+        cartRepository.addItemToActiveCart(cart.getUserId(), 2L, 3);
+        Cart checkedOutCart = cartRepository.checkoutActiveCart(cart.getUserId(), checkoutKey).orElseThrow();
+
+        assertThat(startedCart.itemsToOrder()).containsExactly(entry(1L, 2));
+        assertEquals(cart.getId(), checkedOutCart.getId());
+        assertThat(checkedOutCart.getDeletedAt()).isNotNull();
+        assertThat(checkedOutCart.getItems()).containsExactly(entry(1L, 2));
+        Cart activeCart = cartRepository.findByUserIdAndDeletedAtIsNull(cart.getUserId()).orElseThrow();
+        assertThat(activeCart.getId()).isNotEqualTo(cart.getId());
+        assertThat(activeCart.getItems()).containsExactly(entry(1L, 1), entry(2L, 3));
+        assertThat(activeCart.getCheckoutKey()).isNull();
+    }
+
+    @Test
+    void shouldKeepFirstCopyOfItemsWhenSameCheckoutStartsConcurrently() throws Exception {
+        Cart cart = Cart.builder()
+                .userId(UUID.randomUUID())
+                .items(Map.of(1L, 2))
+                .build();
+        cartRepository.save(cart);
+        String checkoutKey = UUID.randomUUID().toString();
+
+        List<Cart> startedCarts = new ArrayList<>();
+        for (Future<Optional<Cart>> future : startConcurrently(cart.getUserId(), checkoutKey, checkoutKey))
+            startedCarts.add(future.get().orElseThrow());
+        cartRepository.addItemToActiveCart(cart.getUserId(), 2L, 1);
+        Cart retriedCart = cartRepository.startCheckout(cart.getUserId(), checkoutKey).orElseThrow();
+
+        assertThat(startedCarts).allSatisfy(startedCart -> {
+            assertEquals(cart.getId(), startedCart.getId());
+            assertThat(startedCart.itemsToOrder()).containsExactly(entry(1L, 2));
+        });
+        assertThat(retriedCart.itemsToOrder()).containsExactly(entry(1L, 2));
+    }
+
+    @Test
+    void shouldStartOnlyOneCheckoutWhenCheckoutsWithDifferentKeysStartConcurrently() throws Exception {
+        Cart cart = Cart.builder()
+                .userId(UUID.randomUUID())
+                .items(Map.of(1L, 2))
+                .build();
+        cartRepository.save(cart);
+        String firstKey = UUID.randomUUID().toString();
+        String secondKey = UUID.randomUUID().toString();
+
+        List<String> startedKeys = new ArrayList<>();
+        int conflicts = 0;
+        for (Future<Optional<Cart>> future : startConcurrently(cart.getUserId(), firstKey, secondKey)) {
+            try {
+                startedKeys.add(future.get().orElseThrow().getCheckoutKey());
+            } catch (ExecutionException ex) {
+                assertThat(ex.getCause()).isInstanceOf(CheckoutInProgressException.class);
+                conflicts++;
+            }
+        }
+
+        assertThat(startedKeys).hasSize(1);
+        assertEquals(1, conflicts);
+        assertEquals(startedKeys.get(0),
+                cartRepository.findByUserIdAndDeletedAtIsNull(cart.getUserId()).orElseThrow().getCheckoutKey());
+    }
+
+    @Test
+    void shouldReturnCheckedOutCartWithoutStartingNewActiveCartWhenCheckoutIsRetried() {
+        Cart cart = Cart.builder()
+                .userId(UUID.randomUUID())
+                .items(Map.of(1L, 2))
+                .build();
+        cartRepository.save(cart);
+        String checkoutKey = UUID.randomUUID().toString();
+
+        cartRepository.startCheckout(cart.getUserId(), checkoutKey);
+        cartRepository.addItemToActiveCart(cart.getUserId(), 2L, 1);
+        cartRepository.checkoutActiveCart(cart.getUserId(), checkoutKey);
+        Cart retriedCart = cartRepository.startCheckout(cart.getUserId(), checkoutKey).orElseThrow();
+
+        assertEquals(cart.getId(), retriedCart.getId());
+        assertThat(retriedCart.itemsToOrder()).containsExactly(entry(1L, 2));
+        Cart activeCart = cartRepository.findByUserIdAndDeletedAtIsNull(cart.getUserId()).orElseThrow();
+        assertThat(activeCart.getItems()).containsExactly(entry(2L, 1));
+        assertThat(activeCart.getCheckoutKey()).isNull();
+        assertThat(activeCart.getCheckoutItems()).isNull();
+    }
+
+    @Test
+    void shouldNotCheckoutActiveCartWhenCheckoutWasCancelled() {
+        Cart cart = Cart.builder()
+                .userId(UUID.randomUUID())
+                .items(Map.of(1L, 2))
+                .build();
+        cartRepository.save(cart);
+        String checkoutKey = UUID.randomUUID().toString();
+
+        cartRepository.startCheckout(cart.getUserId(), checkoutKey);
+        cartRepository.cancelCheckoutOfActiveCart(cart.getUserId(), checkoutKey);
+
+        assertThat(cartRepository.checkoutActiveCart(cart.getUserId(), checkoutKey)).isEmpty();
+        assertEquals(cart, cartRepository.findByUserIdAndDeletedAtIsNull(cart.getUserId()).orElseThrow());
+    }
+
+    @Test
+    void shouldNotSaveSecondActiveCartForSameUser() {
+        UUID userId = UUID.randomUUID();
+        Cart firstDeletedCart = Cart.builder()
+                .userId(userId)
+                .items(Map.of(1L, 2))
+                .deletedAt(LocalDateTime.now())
+                .build();
+        Cart secondDeletedCart = Cart.builder()
+                .userId(userId)
+                .items(Map.of(1L, 2))
+                .deletedAt(LocalDateTime.now())
+                .build();
+        Cart activeCart = Cart.builder()
+                .userId(userId)
+                .items(Map.of(1L, 2))
+                .build();
+        Cart secondActiveCart = Cart.builder()
+                .userId(userId)
+                .items(Map.of(2L, 1))
+                .build();
+
+        cartRepository.saveAll(List.of(firstDeletedCart, secondDeletedCart, activeCart));
+
+        assertThrows(DuplicateKeyException.class, () -> cartRepository.save(secondActiveCart));
+    }
+
+    private List<Future<Optional<Cart>>> startConcurrently(UUID userId, String... checkoutKeys) {
+        CountDownLatch startSignal = new CountDownLatch(1);
+        ExecutorService executorService = Executors.newFixedThreadPool(checkoutKeys.length);
+        try {
+            List<Future<Optional<Cart>>> futures = Arrays.stream(checkoutKeys)
+                    .map(checkoutKey -> executorService.submit(() -> {
+                        startSignal.await();
+                        return cartRepository.startCheckout(userId, checkoutKey);
+                    }))
+                    .toList();
+            startSignal.countDown();
+            return futures;
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    @Test
+    void shouldUseActiveCartIndexWhenFindByUserIdAndDeletedAtIsNull() {
+        Cart cart = Cart.builder()
+                .userId(UUID.randomUUID())
+                .items(Map.of(1L, 2))
+                .build();
+        cartRepository.save(cart);
+
+        Document filter = new Document("userId", cart.getUserId()).append("deletedAt", null);
+        Document explain = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Cart.class))
+                .find(filter)
+                .explain();
+
+        String winningPlan = explain.get("queryPlanner", Document.class).get("winningPlan", Document.class).toJson();
+        assertThat(winningPlan).contains("IXSCAN").contains(Cart.ACTIVE_CART_INDEX);
+    }
 }
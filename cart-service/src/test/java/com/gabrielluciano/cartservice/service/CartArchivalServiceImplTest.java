@@ -0,0 +1,112 @@
+package com.gabrielluciano.cartservice.service;
+
+import com.gabrielluciano.cartservice.model.ArchivedCart;
+import com.gabrielluciano.cartservice.model.Cart;
+import com.gabrielluciano.cartservice.repository.CartRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataMongoTest(properties = {"cart.archival.enabled=true", "cart.archival.min-age=1d",
+        "cart.archival.batch-size=2", "cart.archival.max-batches-per-run=2", "cart.archival.batch-pause=0ms"})
+@Import({CartArchivalServiceImpl.class, SimpleMeterRegistry.class})
+class CartArchivalServiceImplTest {
+
+    static final MongoDBContainer mongodb = new MongoDBContainer("mongo:7.0.5");
+
+    @BeforeAll
+    static void beforeAll() {
+        mongodb.start();
+    }
+
+    @AfterAll
+    static void afterAll() {
+        mongodb.stop();
+    }
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", () -> mongodb.getReplicaSetUrl("cartservice"));
+    }
+
+    @Autowired
+    private CartArchivalService cartArchivalService;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        cartRepository.deleteAll();
+        mongoTemplate.remove(ArchivedCart.class).all();
+    }
+
+    @Test
+    void shouldArchiveOnlyCartsDeletedBeforeMinimumAge() {
+        Cart oldDeletedCart = cartRepository.save(cartDeletedAt(LocalDateTime.now(ZoneOffset.UTC).minusDays(2)));
+        Cart recentlyDeletedCart = cartRepository.save(cartDeletedAt(LocalDateTime.now(ZoneOffset.UTC).minusHours(1)));
+        Cart activeCart = cartRepository.save(cartDeletedAt(null));
+        double archivedBefore = meterRegistry.get("cart.archival.archived").counter().count();
+
+        long archived = cartArchivalService.archiveDeletedCarts();
+
+        assertEquals(1, archived);
+        assertThat(cartRepository.findAll()).extracting(Cart::getId)
+                .containsExactlyInAnyOrder(recentlyDeletedCart.getId(), activeCart.getId());
+        ArchivedCart archivedCart = mongoTemplate.findById(oldDeletedCart.getId(), ArchivedCart.class);
+        assertThat(archivedCart).isNotNull();
+        assertEquals(oldDeletedCart.getUserId(), archivedCart.getUserId());
+        assertEquals(oldDeletedCart.getItems(), archivedCart.getItems());
+        assertEquals(archivedBefore + 1, meterRegistry.get("cart.archival.archived").counter().count());
+        assertEquals(0, meterRegistry.get("cart.archival.lag").gauge().value());
+    }
+
+    @Test
+    void shouldStopAfterMaxBatchesPerRunAndReportLag() {
+        for (int i = 0; i < 5; i++)
+            cartRepository.save(cartDeletedAt(LocalDateTime.now(ZoneOffset.UTC).minusDays(3).plusMinutes(i)));
+
+        long archived = cartArchivalService.archiveDeletedCarts();
+
+        assertEquals(4, archived);
+        assertEquals(1, cartRepository.count());
+        assertThat(meterRegistry.get("cart.archival.lag").gauge().value()).isPositive();
+
+        assertEquals(1, cartArchivalService.archiveDeletedCarts());
+        assertEquals(0, cartRepository.count());
+        assertEquals(5, mongoTemplate.count(new Query(), ArchivedCart.class));
+    }
+
+    private static Cart cartDeletedAt(LocalDateTime deletedAt) {
+        return Cart.builder()
+                .userId(UUID.randomUUID())
+                .items(Map.of(1L, 2))
+                .deletedAt(deletedAt)
+                .build();
+    }
+}
@@ -0,0 +1,120 @@
+package com.gabrielluciano.cartservice.store;
+
+import com.gabrielluciano.cartservice.model.Cart;
+import com.gabrielluciano.cartservice.repository.CartRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+@DataMongoTest
+class WriteBehindCartStoreTest {
+
+    static final MongoDBContainer mongodb = new MongoDBContainer("mongo:7.0.5");
+
+    @BeforeAll
+    static void beforeAll() {
+        mongodb.start();
+    }
+
+    @AfterAll
+    static void afterAll() {
+        mongodb.stop();
+    }
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", () -> mongodb.getReplicaSetUrl("cartservice"));
+    }
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    private WriteBehindCartStore cartStore;
+
+    @BeforeEach
+    void setUp() {
+        cartRepository.deleteAll();
+        cartStore = new WriteBehindCartStore(cartRepository, Duration.ofMinutes(10));
+    }
+
+    @Test
+    void shouldCoalesceAddsAndPersistThemOnFlush() {
+        UUID userId = UUID.randomUUID();
+
+        cartStore.addItems(userId, Map.of(1L, 1));
+        cartStore.addItems(userId, Map.of(1L, 2));
+        Cart cart = cartStore.addItems(userId, Map.of(2L, 1));
+
+        assertNotNull(cart.getId());
+        assertThat(cart.getItems()).containsExactly(entry(1L, 3), entry(2L, 1));
+        assertThat(cartStore.findActiveCart(userId).orElseThrow().getItems()).containsExactly(entry(1L, 3), entry(2L, 1));
+        assertThat(findPersistedCart(userId).getItems()).isEmpty();
+
+        cartStore.flushAll();
+
+        Cart persistedCart = findPersistedCart(userId);
+        assertEquals(cart.getId(), persistedCart.getId());
+        assertThat(persistedCart.getItems()).containsExactly(entry(1L, 3), entry(2L, 1));
+    }
+
+    @Test
+    void shouldLoseOnlyUnflushedAddsAndRecoverFlushedCartAfterCrash() {
+        UUID userId = UUID.randomUUID();
+        cartStore.addItems(userId, Map.of(1L, 2));
+        cartStore.flushAll();
+        cartStore.addItems(userId, Map.of(2L, 1));
+
+        // The instance dies without a graceful shutdown, a new one starts with an empty store
+        WriteBehindCartStore restartedCartStore = new WriteBehindCartStore(cartRepository, Duration.ofMinutes(10));
+
+        assertThat(restartedCartStore.findActiveCart(userId).orElseThrow().getItems()).containsExactly(entry(1L, 2));
+        Cart cart = restartedCartStore.addItems(userId, Map.of(1L, 1));
+        assertThat(cart.getItems()).containsExactly(entry(1L, 3));
+
+        restartedCartStore.flushAll();
+
+        assertThat(findPersistedCart(userId).getItems()).containsExactly(entry(1L, 3));
+        assertEquals(1, cartRepository.count());
+    }
+
+    @Test
+    void shouldPersistPendingAddsOnShutdown() {
+        UUID userId = UUID.randomUUID();
+        cartStore.addItems(userId, Map.of(1L, 2));
+
+        cartStore.shutdown();
+
+        assertThat(findPersistedCart(userId).getItems()).containsExactly(entry(1L, 2));
+    }
+
+    @Test
+    void shouldPersistPendingAddsBeforeDeletingCart() {
+        UUID userId = UUID.randomUUID();
+        cartStore.addItems(userId, Map.of(1L, 2));
+
+        Cart deletedCart = cartStore.deleteActiveCart(userId).orElseThrow();
+
+        assertNotNull(deletedCart.getDeletedAt());
+        assertThat(cartRepository.findById(deletedCart.getId()).orElseThrow().getItems()).containsExactly(entry(1L, 2));
+        assertThat(cartStore.findActiveCart(userId)).isEmpty();
+    }
+
+    private Cart findPersistedCart(UUID userId) {
+        return cartRepository.findByUserIdAndDeletedAtIsNull(userId).orElseThrow();
+    }
+}
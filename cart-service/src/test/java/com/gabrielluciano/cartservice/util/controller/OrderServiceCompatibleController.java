@@ -0,0 +1,85 @@
+package com.gabrielluciano.cartservice.util.controller;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+@RestController
+@RequestMapping("/api/v1/orders")
+public class OrderServiceCompatibleController {
+
+    public static final Long NON_EXISTENT_PRODUCT_ID = 2L;
+    public static final Long SERVICE_UNAVAILABLE_PRODUCT_ID = 4L;
+
+    private final Map<String, OrderCreateResponse> ordersByIdempotencyKey = new ConcurrentHashMap<>();
+
+    @PostMapping
+    public ResponseEntity<?> createOrder(@RequestBody OrderCreateRequest orderCreateRequest,
+                                         @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey) {
+        List<Long> productIds = orderCreateRequest.getItems().stream().map(OrderCreateRequestItem::getProductId).toList();
+        if (productIds.contains(SERVICE_UNAVAILABLE_PRODUCT_ID))
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+
+        if (productIds.contains(NON_EXISTENT_PRODUCT_ID))
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("status", 404,
+                            "error", "Product with id '2' is not available or doesn't exist",
+                            "path", "/api/v1/orders"));
+
+        OrderCreateResponse newOrder = OrderCreateResponse.builder()
+                .id(UUID.randomUUID())
+                .userId(orderCreateRequest.getUserId())
+                .totalAmount(new BigDecimal("12.99"))
+                .status("PENDING")
+                .createdAt(LocalDateTime.now())
+                .build();
+        OrderCreateResponse order = idempotencyKey == null
+                ? newOrder
+                : ordersByIdempotencyKey.computeIfAbsent(idempotencyKey, key -> newOrder);
+        return ResponseEntity.status(HttpStatus.CREATED).body(order);
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class OrderCreateRequest {
+
+        private UUID userId;
+        private List<OrderCreateRequestItem> items;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class OrderCreateRequestItem {
+
+        private Long productId;
+        private Integer quantity;
+    }
+
+    @Data
+    @Builder
+    public static class OrderCreateResponse {
+
+        private UUID id;
+        private UUID userId;
+        private BigDecimal totalAmount;
+        private String status;
+        private LocalDateTime createdAt;
+    }
+}
@@ -1,15 +1,22 @@
 package com.gabrielluciano.cartservice.util.controller;
 
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 
 @RestController
@@ -21,8 +28,15 @@ public class ProductServiceCompatibleController {
     public static final Long SLOW_RESPONSE_PRODUCT_ID = 3L;
     public static final Long SERVICE_UNAVAILABLE_PRODUCT_ID = 4L;
 
+    private final AtomicInteger requests = new AtomicInteger();
+
+    public int getRequests() {
+        return requests.get();
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<ProductResponse> getProduct(@PathVariable Long id) throws InterruptedException {
+        requests.incrementAndGet();
         ProductResponse productResponse = ProductResponse.builder()
                 .name("Coffee")
                 .description("Some description")
@@ -52,6 +66,49 @@ public class ProductServiceCompatibleController {
         return ResponseEntity.notFound().build();
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<ProductBatchResponse> getProducts(@RequestBody ProductBatchRequest productBatchRequest) {
+        requests.incrementAndGet();
+        if (productBatchRequest.getIds().contains(SERVICE_UNAVAILABLE_PRODUCT_ID))
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+
+        List<ProductResponse> products = new ArrayList<>();
+        List<Long> notFound = new ArrayList<>();
+        for (Long id : productBatchRequest.getIds()) {
+            if (EXISTENT_PRODUCT_ID.equals(id)) {
+                products.add(ProductResponse.builder()
+                        .id(id)
+                        .name("Coffee")
+                        .description("Some description")
+                        .price(BigDecimal.valueOf(12.99))
+                        .isAvailable(true)
+                        .build());
+            } else {
+                notFound.add(id);
+            }
+        }
+        return ResponseEntity.ok(ProductBatchResponse.builder()
+                .products(products)
+                .notFound(notFound)
+                .build());
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ProductBatchRequest {
+
+        private List<Long> ids;
+    }
+
+    @Data
+    @Builder
+    public static class ProductBatchResponse {
+
+        private List<ProductResponse> products;
+        private List<Long> notFound;
+    }
+
     @Data
     @Builder
     public static class ProductResponse {
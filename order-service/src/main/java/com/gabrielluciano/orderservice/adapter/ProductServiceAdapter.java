@@ -0,0 +1,141 @@
+package com.gabrielluciano.orderservice.adapter;
+
+import com.gabrielluciano.orderservice.config.AppConfig;
+import com.gabrielluciano.orderservice.dto.ProductBatchRequest;
+import com.gabrielluciano.orderservice.dto.ProductBatchResponse;
+import com.gabrielluciano.orderservice.dto.ProductResponse;
+import com.gabrielluciano.orderservice.exception.ProductNotAvailableException;
+import com.gabrielluciano.orderservice.exception.ServiceUnavailableException;
+import com.gabrielluciano.orderservice.service.ProductService;
+import com.github.benmanes.caffeine.cache.Cache;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.circuitbreaker.ReactiveCircuitBreakerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
+
+@Service
+@RequiredArgsConstructor
+@Log4j2
+public class ProductServiceAdapter implements ProductService {
+
+    private final WebClient productServiceWebClient;
+    private final ReactiveCircuitBreakerFactory cbFactory;
+    private final Cache<Long, BigDecimal> productPriceCache;
+
+    private static final String API_URL = "http://product-service/api/v1/products/batch";
+
+    // Matches the maximum number of ids accepted by the product-service batch endpoint
+    private static final int MAX_BATCH_SIZE = 100;
+
+    @Value("${product-service.max-concurrent-batches:4}")
+    private int maxConcurrentBatches;
+
+    @Value("${product-service.order-deadline:3s}")
+    private Duration orderDeadline;
+
+    @Override
+    public BigDecimal getProductPrice(Long id) throws ProductNotAvailableException {
+        return getProductPrices(List.of(id)).get(id);
+    }
+
+    @Override
+    public Map<Long, BigDecimal> getProductPrices(Collection<Long> ids) throws ProductNotAvailableException {
+        Set<Long> uniqueIds = new LinkedHashSet<>(ids);
+        Map<Long, BigDecimal> prices = new HashMap<>(productPriceCache.getAllPresent(uniqueIds));
+        List<Long> missingIds = uniqueIds.stream()
+                .filter(id -> !prices.containsKey(id))
+                .toList();
+
+        if (!missingIds.isEmpty()) {
+            Map<Long, BigDecimal> fetchedPrices = fetchAvailableProductPrices(missingIds);
+            productPriceCache.putAll(fetchedPrices);
+            prices.putAll(fetchedPrices);
+        }
+
+        for (Long id : uniqueIds) {
+            if (!prices.containsKey(id))
+                throw new ProductNotAvailableException(id);
+        }
+        return prices;
+    }
+
+    private Map<Long, BigDecimal> fetchAvailableProductPrices(List<Long> ids) throws ProductNotAvailableException {
+        // Batches are resolved concurrently; the first unavailable product or the order deadline
+        // cancels every batch still in flight instead of waiting for the slowest one
+        Mono<Map<Long, BigDecimal>> prices = Flux.fromIterable(partition(ids))
+                .flatMap(batch -> cbFactory.create(AppConfig.PRODUCT_SERVICE_CIRCUIT_BREAKER)
+                        .run(webClientCall(batch), throwable -> {
+                            log.error("Could not reach product service");
+                            return Mono.error(new ServiceUnavailableException("Product Service Unavailable"));
+                        }), maxConcurrentBatches)
+                .concatMap(this::failIfAnyProductIsNotAvailable)
+                .collectMap(ProductResponse::getId, ProductResponse::getPrice)
+                .timeout(orderDeadline)
+                .onErrorMap(TimeoutException.class, ex -> {
+                    log.error("Could not resolve product prices within '{}'", orderDeadline);
+                    return new ServiceUnavailableException("Product Service Unavailable");
+                });
+
+        try {
+            return Optional.ofNullable(prices.block()).orElse(Map.of());
+        } catch (RuntimeException ex) {
+            if (Exceptions.unwrap(ex) instanceof ProductNotAvailableException productNotAvailableException)
+                throw productNotAvailableException;
+            throw ex;
+        }
+    }
+
+    private Flux<ProductResponse> failIfAnyProductIsNotAvailable(ProductBatchResponse batchResponse) {
+        Optional<Long> notAvailableId = batchResponse.getNotFound().stream().findFirst()
+                .or(() -> batchResponse.getProducts().stream()
+                        .filter(product -> !Boolean.TRUE.equals(product.getIsAvailable()))
+                        .map(ProductResponse::getId)
+                        .findFirst());
+
+        return notAvailableId
+                .<Flux<ProductResponse>>map(id -> Flux.error(new ProductNotAvailableException(id)))
+                .orElseGet(() -> Flux.fromIterable(batchResponse.getProducts()));
+    }
+
+    private Mono<ProductBatchResponse> webClientCall(List<Long> ids) {
+        return productServiceWebClient.post()
+                .uri(API_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .bodyValue(ProductBatchRequest.builder().ids(ids).build())
+                .exchangeToMono(response -> {
+                    if (!response.statusCode().equals(HttpStatus.OK)) {
+                        log.error("Product service responded with status '{}'", response.statusCode().value());
+                        return Mono.error(new ServiceUnavailableException("Product Service Unavailable"));
+                    }
+                    return response.bodyToMono(ProductBatchResponse.class);
+                });
+    }
+
+    private static List<List<Long>> partition(List<Long> ids) {
+        List<List<Long>> batches = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i += MAX_BATCH_SIZE) {
+            batches.add(ids.subList(i, Math.min(i + MAX_BATCH_SIZE, ids.size())));
+        }
+        return batches;
+    }
+}
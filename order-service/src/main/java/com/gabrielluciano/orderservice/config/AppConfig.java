@@ -0,0 +1,59 @@
+package com.gabrielluciano.orderservice.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.timelimiter.TimeLimiterConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.circuitbreaker.resilience4j.ReactiveResilience4JCircuitBreakerFactory;
+import org.springframework.cloud.client.circuitbreaker.Customizer;
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+@Configuration
+public class AppConfig {
+
+    public static final String PRODUCT_SERVICE_CIRCUIT_BREAKER = "product-service";
+
+    @Value("${product-service.timeout:2s}")
+    private Duration productServiceTimeout;
+
+    @Value("${product-service.price-cache.ttl:30s}")
+    private Duration productPriceCacheTtl;
+
+    @Value("${product-service.price-cache.maximum-size:1000}")
+    private long productPriceCacheMaximumSize;
+
+    @Bean
+    @LoadBalanced
+    public WebClient.Builder webClientBuilder() {
+        return WebClient.builder();
+    }
+
+    @Bean
+    public WebClient productServiceWebClient(@LoadBalanced WebClient.Builder webClientBuilder) {
+        return webClientBuilder.clone().build();
+    }
+
+    @Bean
+    public Customizer<ReactiveResilience4JCircuitBreakerFactory> productServiceCircuitBreakerCustomizer() {
+        return factory -> factory.configure(builder -> builder
+                .timeLimiterConfig(TimeLimiterConfig.custom()
+                        .timeoutDuration(productServiceTimeout)
+                        .build())
+                .circuitBreakerConfig(CircuitBreakerConfig.ofDefaults()), PRODUCT_SERVICE_CIRCUIT_BREAKER);
+    }
+
+    @Bean
+    public Cache<Long, BigDecimal> productPriceCache() {
+        return Caffeine.newBuilder()
+                .maximumSize(productPriceCacheMaximumSize)
+                .expireAfterWrite(productPriceCacheTtl)
+                .build();
+    }
+}
@@ -0,0 +1,89 @@
+package com.gabrielluciano.orderservice.config;
+
+import com.gabrielluciano.orderservice.event.OrderStatusChangedEvent;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.annotation.EnableKafka;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Configuration
+@EnableKafka
+public class KafkaConfig {
+
+    private static final String TYPE_MAPPINGS = "orderStatusChanged:com.gabrielluciano.orderservice.event.OrderStatusChangedEvent";
+
+    @Value("${spring.kafka.bootstrap-servers}")
+    private String bootstrapServers;
+
+    @Value("${order.outbox.kafka.batch-size:65536}")
+    private int batchSize;
+
+    @Value("${order.outbox.kafka.linger:20ms}")
+    private Duration linger;
+
+    @Value("${order.outbox.kafka.max-block:5s}")
+    private Duration maxBlock;
+
+    @Bean
+    public ProducerFactory<String, OrderStatusChangedEvent> orderStatusChangedEventProducerFactory() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        props.put(JsonSerializer.TYPE_MAPPINGS, TYPE_MAPPINGS);
+        // The relay sends a whole outbox batch at once, lingering lets it leave in a few large requests
+        props.put(ProducerConfig.BATCH_SIZE_CONFIG, batchSize);
+        props.put(ProducerConfig.LINGER_MS_CONFIG, (int) linger.toMillis());
+        // Bounds how long the relay holds its outbox rows when the broker is unreachable
+        props.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, maxBlock.toMillis());
+        // Events are only removed from the outbox once acknowledged, so broker retries must not duplicate them
+        props.put(ProducerConfig.ACKS_CONFIG, "all");
+        props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        return new DefaultKafkaProducerFactory<>(props);
+    }
+
+    @Bean
+    public KafkaTemplate<String, OrderStatusChangedEvent> kafkaTemplate() {
+        return new KafkaTemplate<>(orderStatusChangedEventProducerFactory());
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, OrderStatusChangedEvent>
+    kafkaListenerContainerFactory(ConsumerFactory<String, OrderStatusChangedEvent> consumerFactory) {
+        ConcurrentKafkaListenerContainerFactory<String, OrderStatusChangedEvent> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory);
+        return factory;
+    }
+
+    @Bean
+    public ConsumerFactory<String, OrderStatusChangedEvent> orderStatusChangedEventConsumerFactory() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
+        props.put(JsonDeserializer.TYPE_MAPPINGS, TYPE_MAPPINGS);
+        // The queue feed only pushes live changes, what happened before the instance started is in the snapshot
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest");
+        // An event that cannot be read is logged and skipped instead of stopping the feed of every screen
+        return new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(),
+                new ErrorHandlingDeserializer<>(new JsonDeserializer<>(OrderStatusChangedEvent.class)));
+    }
+}
@@ -2,21 +2,67 @@ package com.gabrielluciano.orderservice.controller;
 
 import com.gabrielluciano.orderservice.dto.OrderCreateRequest;
 import com.gabrielluciano.orderservice.dto.OrderCreateResponse;
+import com.gabrielluciano.orderservice.dto.OrderListResponse;
+import com.gabrielluciano.orderservice.dto.OrderResponse;
+import com.gabrielluciano.orderservice.dto.OrderStatusUpdateRequest;
+import com.gabrielluciano.orderservice.dto.OrderSummaryResponse;
+import com.gabrielluciano.orderservice.feed.OrderQueueFeed;
 import com.gabrielluciano.orderservice.service.OrderService;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.prepost.PostAuthorize;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/v1/orders")
 @RequiredArgsConstructor
 public class OrderController {
 
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final int MAX_PAGE_SIZE = 100;
+
     private final OrderService orderService;
+    private final OrderQueueFeed orderQueueFeed;
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
-    public OrderCreateResponse createOrder(@RequestBody OrderCreateRequest orderCreateRequest) {
-        return orderService.createOrder(orderCreateRequest);
+    public OrderCreateResponse createOrder(@RequestBody OrderCreateRequest orderCreateRequest,
+                                           @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false)
+                                           @Size(max = 100) String idempotencyKey) {
+        return orderService.createOrder(orderCreateRequest, idempotencyKey);
+    }
+
+    @GetMapping(path = "/queue", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeToOrderQueue() {
+        return orderQueueFeed.subscribe();
+    }
+
+    @PatchMapping("/{id}/status")
+    public OrderSummaryResponse updateOrderStatus(@PathVariable UUID id,
+                                                  @RequestBody @Valid OrderStatusUpdateRequest request) {
+        return orderService.updateOrderStatus(id, request.getStatus());
+    }
+
+    @GetMapping("/{id}")
+    @PostAuthorize("hasRole('EMPLOYEE') or returnObject.userId.toString() == principal.claims['userId']")
+    public OrderResponse getOrder(@PathVariable UUID id) {
+        return orderService.getOrder(id);
+    }
+
+    @GetMapping
+    @PreAuthorize("hasRole('EMPLOYEE') or #userId.toString() == principal.claims['userId']")
+    public OrderListResponse getOrders(@RequestParam UUID userId,
+                                       @RequestParam(required = false) String cursor,
+                                       @RequestParam(defaultValue = "20") @Min(1) @Max(MAX_PAGE_SIZE) int size) {
+        return orderService.getOrders(userId, cursor, size);
     }
 }
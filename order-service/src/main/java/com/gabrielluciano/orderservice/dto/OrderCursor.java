@@ -0,0 +1,45 @@
+package com.gabrielluciano.orderservice.dto;
+
+import com.gabrielluciano.orderservice.exception.InvalidOrderCursorException;
+import lombok.Value;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position of the last order of a page. Orders are listed newest first, with the id breaking ties
+ * between orders created at the same time, so the next page starts right after this position.
+ */
+@Value
+public class OrderCursor {
+
+    private static final String SEPARATOR = "|";
+
+    LocalDateTime createdAt;
+    UUID id;
+
+    public static OrderCursor after(OrderSummaryResponse order) {
+        return new OrderCursor(order.getCreatedAt(), order.getId());
+    }
+
+    public static OrderCursor decode(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf(SEPARATOR);
+            if (separator < 0)
+                throw new InvalidOrderCursorException(cursor);
+            return new OrderCursor(LocalDateTime.parse(decoded.substring(0, separator)),
+                    UUID.fromString(decoded.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException ex) {
+            throw new InvalidOrderCursorException(cursor);
+        }
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((createdAt + SEPARATOR + id).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,24 @@
+package com.gabrielluciano.orderservice.dto;
+
+import com.gabrielluciano.orderservice.model.OrderItem;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderItemResponse {
+
+    private Long productId;
+    private Integer quantity;
+
+    public static OrderItemResponse fromOrderItem(OrderItem orderItem) {
+        return OrderItemResponse.builder()
+                .productId(orderItem.getProductId())
+                .quantity(orderItem.getQuantity())
+                .build();
+    }
+}
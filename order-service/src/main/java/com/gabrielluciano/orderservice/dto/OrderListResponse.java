@@ -0,0 +1,19 @@
+package com.gabrielluciano.orderservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderListResponse {
+
+    private List<OrderSummaryResponse> orders;
+    // Passed back as the cursor parameter to get the next, older page. Null on the last page
+    private String nextCursor;
+}
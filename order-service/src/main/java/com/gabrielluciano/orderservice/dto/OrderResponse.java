@@ -0,0 +1,44 @@
+package com.gabrielluciano.orderservice.dto;
+
+import com.gabrielluciano.orderservice.model.Order;
+import com.gabrielluciano.orderservice.model.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderResponse {
+
+    private UUID id;
+    private UUID userId;
+    private OrderStatus status;
+    private BigDecimal totalAmount;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private List<OrderItemResponse> items;
+
+    public static OrderResponse fromOrder(Order order) {
+        return OrderResponse.builder()
+                .id(order.getId())
+                .userId(order.getUserId())
+                .status(order.getStatus())
+                .totalAmount(order.getTotalAmount())
+                .createdAt(order.getCreatedAt())
+                .updatedAt(order.getUpdatedAt())
+                .items(order.getItems().stream()
+                        .map(OrderItemResponse::fromOrderItem)
+                        .sorted(Comparator.comparing(OrderItemResponse::getProductId))
+                        .toList())
+                .build();
+    }
+}
@@ -0,0 +1,18 @@
+package com.gabrielluciano.orderservice.dto;
+
+import com.gabrielluciano.orderservice.model.OrderStatus;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStatusUpdateRequest {
+
+    @NotNull
+    private OrderStatus status;
+}
@@ -0,0 +1,27 @@
+package com.gabrielluciano.orderservice.dto;
+
+import com.gabrielluciano.orderservice.model.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * An order without its items, selected straight into this class by the list queries.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSummaryResponse {
+
+    private UUID id;
+    private UUID userId;
+    private OrderStatus status;
+    private BigDecimal totalAmount;
+    private LocalDateTime createdAt;
+}
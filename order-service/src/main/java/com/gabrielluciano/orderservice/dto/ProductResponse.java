@@ -0,0 +1,21 @@
+package com.gabrielluciano.orderservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductResponse {
+
+    private Long id;
+    private String name;
+    private String description;
+    private BigDecimal price;
+    private Boolean isAvailable;
+}
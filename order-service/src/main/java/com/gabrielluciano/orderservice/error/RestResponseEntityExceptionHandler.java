@@ -1,6 +1,10 @@
 package com.gabrielluciano.orderservice.error;
 
+import com.gabrielluciano.orderservice.exception.InvalidOrderCursorException;
 import com.gabrielluciano.orderservice.exception.InvalidOrderProductException;
+import com.gabrielluciano.orderservice.exception.InvalidOrderStatusTransitionException;
+import com.gabrielluciano.orderservice.exception.OrderNotFoundException;
+import com.gabrielluciano.orderservice.exception.ServiceUnavailableException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
@@ -37,6 +41,19 @@ public class RestResponseEntityExceptionHandler extends ResponseEntityExceptionH
                         .build());
     }
 
+    @ExceptionHandler(InvalidOrderStatusTransitionException.class)
+    protected ResponseEntity<ErrorResponse> handleInvalidOrderStatusTransitionException(
+            InvalidOrderStatusTransitionException ex, HttpServletRequest request) {
+
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(ErrorResponse.builder()
+                        .error(ex.getMessage())
+                        .status(HttpStatus.CONFLICT.value())
+                        .path(request.getRequestURI())
+                        .timestamp(LocalDateTime.now(ZoneOffset.UTC).toString())
+                        .build());
+    }
+
     @ExceptionHandler(ConstraintViolationException.class)
     protected ResponseEntity<ErrorResponse> handleConstraintViolationException(
             ConstraintViolationException ex, HttpServletRequest request) {
@@ -50,9 +67,22 @@ public class RestResponseEntityExceptionHandler extends ResponseEntityExceptionH
                         .build());
     }
 
-    @ExceptionHandler(InvalidOrderProductException.class)
-    protected ResponseEntity<ErrorResponse> handleInvalidOrderProductException(
-            InvalidOrderProductException ex, HttpServletRequest request) {
+    @ExceptionHandler(InvalidOrderCursorException.class)
+    protected ResponseEntity<ErrorResponse> handleInvalidOrderCursorException(
+            InvalidOrderCursorException ex, HttpServletRequest request) {
+
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ErrorResponse.builder()
+                        .error(ex.getMessage())
+                        .status(HttpStatus.BAD_REQUEST.value())
+                        .path(request.getRequestURI())
+                        .timestamp(LocalDateTime.now(ZoneOffset.UTC).toString())
+                        .build());
+    }
+
+    @ExceptionHandler({InvalidOrderProductException.class, OrderNotFoundException.class})
+    protected ResponseEntity<ErrorResponse> handleNotFoundException(
+            RuntimeException ex, HttpServletRequest request) {
 
         return ResponseEntity.status(HttpStatus.NOT_FOUND)
                 .body(ErrorResponse.builder()
@@ -63,6 +93,19 @@ public class RestResponseEntityExceptionHandler extends ResponseEntityExceptionH
                         .build());
     }
 
+    @ExceptionHandler(ServiceUnavailableException.class)
+    protected ResponseEntity<ErrorResponse> handleServiceUnavailableException(
+            ServiceUnavailableException ex, HttpServletRequest request) {
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(ErrorResponse.builder()
+                        .error(ex.getMessage())
+                        .status(HttpStatus.SERVICE_UNAVAILABLE.value())
+                        .path(request.getRequestURI())
+                        .timestamp(LocalDateTime.now(ZoneOffset.UTC).toString())
+                        .build());
+    }
+
     @Override
     protected ResponseEntity<Object> handleExceptionInternal(
             Exception ex, Object body, HttpHeaders headers, HttpStatusCode statusCode, WebRequest request) {
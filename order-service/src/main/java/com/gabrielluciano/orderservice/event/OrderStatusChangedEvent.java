@@ -0,0 +1,45 @@
+package com.gabrielluciano.orderservice.event;
+
+import com.gabrielluciano.orderservice.model.Order;
+import com.gabrielluciano.orderservice.model.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Published when an order is created or changes status, and delivered to listeners once the change has
+ * committed.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStatusChangedEvent {
+
+    private final String eventType = "OrderStatusChangedEvent";
+    private UUID orderId;
+    private UUID userId;
+    // Null for a new order
+    private OrderStatus previousStatus;
+    private OrderStatus status;
+    private BigDecimal totalAmount;
+    private LocalDateTime createdAt;
+    private LocalDateTime changedAt;
+
+    public static OrderStatusChangedEvent fromOrder(Order order, OrderStatus previousStatus) {
+        return OrderStatusChangedEvent.builder()
+                .orderId(order.getId())
+                .userId(order.getUserId())
+                .previousStatus(previousStatus)
+                .status(order.getStatus())
+                .totalAmount(order.getTotalAmount())
+                .createdAt(order.getCreatedAt())
+                .changedAt(order.getUpdatedAt() != null ? order.getUpdatedAt() : order.getCreatedAt())
+                .build();
+    }
+}
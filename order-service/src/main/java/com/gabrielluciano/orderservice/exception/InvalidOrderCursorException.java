@@ -0,0 +1,8 @@
+package com.gabrielluciano.orderservice.exception;
+
+public class InvalidOrderCursorException extends RuntimeException {
+
+    public InvalidOrderCursorException(String cursor) {
+        super(String.format("Invalid cursor '%s'", cursor));
+    }
+}
@@ -0,0 +1,12 @@
+package com.gabrielluciano.orderservice.exception;
+
+import com.gabrielluciano.orderservice.model.OrderStatus;
+
+import java.util.UUID;
+
+public class InvalidOrderStatusTransitionException extends RuntimeException {
+
+    public InvalidOrderStatusTransitionException(UUID id, OrderStatus currentStatus, OrderStatus status) {
+        super(String.format("Order with id '%s' cannot go from status '%s' to '%s'", id, currentStatus, status));
+    }
+}
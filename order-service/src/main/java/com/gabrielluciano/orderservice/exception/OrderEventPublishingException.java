@@ -0,0 +1,8 @@
+package com.gabrielluciano.orderservice.exception;
+
+public class OrderEventPublishingException extends RuntimeException {
+
+    public OrderEventPublishingException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,145 @@
+package com.gabrielluciano.orderservice.feed;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gabrielluciano.orderservice.event.OrderStatusChangedEvent;
+import com.gabrielluciano.orderservice.service.OrderService;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Pushes the order queue to employee screens over server-sent events. A screen receives a {@code snapshot}
+ * event with the queued orders when it connects, then an {@code order} event for every order created or
+ * changing status once the change has committed. Changes are serialized once and written to every screen,
+ * so screens never query the database while connected.
+ * <p>
+ * Changes are read from the order events topic rather than from this instance's own transactions, since an
+ * order may be changed through any instance. Every instance consumes the topic in a consumer group of its own,
+ * so each sees every change, about one outbox poll interval after it committed.
+ */
+@Log4j2
+@Component
+@RequiredArgsConstructor
+public class OrderQueueFeed {
+
+    public static final String SNAPSHOT_EVENT = "snapshot";
+    public static final String ORDER_EVENT = "order";
+
+    private final OrderService orderService;
+    private final ObjectMapper objectMapper;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    // A single thread keeps events in the order they were consumed and a slow screen away from the consumer
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable ->
+            new Thread(runnable, "order-queue-feed"));
+
+    @Value("${order.queue.timeout:PT30M}")
+    private Duration timeout;
+
+    @Value("${order.queue.snapshot-size:200}")
+    private int snapshotSize;
+
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Subscriber subscriber = new Subscriber(emitter);
+        // Registered before the snapshot is read, so no change committed meanwhile is missed. A change already in
+        // the snapshot may still arrive as an event, which leaves the screen showing the same status
+        subscribers.add(subscriber);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(ex -> subscribers.remove(subscriber));
+
+        try {
+            subscriber.sendSnapshot(event(SNAPSHOT_EVENT, objectMapper.writeValueAsString(
+                    orderService.getOrderQueue(snapshotSize))));
+        } catch (IOException ex) {
+            subscribers.remove(subscriber);
+            emitter.completeWithError(ex);
+        } catch (RuntimeException ex) {
+            // The snapshot could not be read, the error is answered like any other request failure
+            subscribers.remove(subscriber);
+            throw ex;
+        }
+        return emitter;
+    }
+
+    @KafkaListener(id = "order-queue-feed", topics = "${order.outbox.topic}",
+            groupId = "order-queue-feed-${random.uuid}")
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) throws JsonProcessingException {
+        String data = objectMapper.writeValueAsString(event);
+        executor.execute(() -> broadcast(data));
+    }
+
+    // Keeps idle connections open through proxies and drops screens that went away
+    @Scheduled(initialDelayString = "${order.queue.heartbeat-interval:PT15S}",
+            fixedDelayString = "${order.queue.heartbeat-interval:PT15S}")
+    public void sendHeartbeat() {
+        executor.execute(() -> subscribers.forEach(subscriber ->
+                send(subscriber, SseEmitter.event().comment("heartbeat"))));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    private void broadcast(String data) {
+        subscribers.forEach(subscriber -> send(subscriber, event(ORDER_EVENT, data)));
+    }
+
+    private void send(Subscriber subscriber, SseEmitter.SseEventBuilder event) {
+        try {
+            subscriber.send(event);
+        } catch (IOException | IllegalStateException ex) {
+            log.debug("Removing order queue subscriber after failed send: {}", ex.getMessage());
+            subscribers.remove(subscriber);
+            subscriber.emitter.completeWithError(ex);
+        }
+    }
+
+    private static SseEmitter.SseEventBuilder event(String name, String data) {
+        return SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON);
+    }
+
+    private static class Subscriber {
+
+        private final SseEmitter emitter;
+        // Events received while the snapshot is being read, sent right after it
+        private List<SseEmitter.SseEventBuilder> pendingEvents = new ArrayList<>();
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        synchronized void send(SseEmitter.SseEventBuilder event) throws IOException {
+            if (pendingEvents != null)
+                pendingEvents.add(event);
+            else
+                emitter.send(event);
+        }
+
+        synchronized void sendSnapshot(SseEmitter.SseEventBuilder snapshot) throws IOException {
+            emitter.send(snapshot);
+            for (SseEmitter.SseEventBuilder event : pendingEvents)
+                emitter.send(event);
+            pendingEvents = null;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.gabrielluciano.orderservice.job;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates the monthly partitions of the orders table ahead of time, so new orders never land in the
+ * default partition. Only enabled with the partitioned schema, which declares the function called here.
+ */
+@Log4j2
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "order.partitioning.enabled", havingValue = "true")
+public class OrderPartitionMaintenanceJob {
+
+    private static final String CREATE_PARTITIONS_SQL = "SELECT create_orders_partitions(CURRENT_DATE, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${order.partitioning.months-ahead:3}")
+    private int monthsAhead;
+
+    @Scheduled(cron = "${order.partitioning.cron:0 0 3 * * *}")
+    public void createUpcomingPartitions() {
+        // The current month is included, so it is covered even if the schema script ran long ago
+        jdbcTemplate.queryForList(CREATE_PARTITIONS_SQL, monthsAhead + 1);
+        log.info("Order partitions ensured for the current month and {} months ahead", monthsAhead);
+    }
+}
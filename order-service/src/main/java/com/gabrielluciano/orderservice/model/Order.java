@@ -2,6 +2,7 @@ package com.gabrielluciano.orderservice.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.springframework.data.domain.Persistable;
 
 import java.io.Serializable;
 import java.math.BigDecimal;
@@ -18,7 +19,7 @@ import java.util.UUID;
 @Getter
 @Setter
 @Builder
-public class Order implements Serializable {
+public class Order implements Serializable, Persistable<UUID> {
 
     @Id
     private UUID id;
@@ -40,9 +41,31 @@ public class Order implements Serializable {
     @Temporal(TemporalType.TIMESTAMP)
     private LocalDateTime updatedAt;
 
-    @OneToMany(mappedBy = "id.order", cascade = CascadeType.ALL, fetch = FetchType.LAZY, orphanRemoval = true)
+    // Set by clients that may retry the creation, unique per user
+    @Column(length = 100)
+    private String idempotencyKey;
+
+    @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, fetch = FetchType.LAZY, orphanRemoval = true)
     private Set<OrderItem> items = new HashSet<>();
 
+    // Ids are assigned up front, so without this flag Spring Data would merge new orders, selecting the
+    // order and every item before inserting them
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean persisted;
+
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostPersist
+    @PostLoad
+    void markPersisted() {
+        persisted = true;
+    }
+
     @Override
     public boolean equals(Object object) {
         if (this == object) return true;
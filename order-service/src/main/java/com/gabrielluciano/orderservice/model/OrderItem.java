@@ -1,9 +1,6 @@
 package com.gabrielluciano.orderservice.model;
 
-import jakarta.persistence.Column;
-import jakarta.persistence.EmbeddedId;
-import jakarta.persistence.Entity;
-import jakarta.persistence.Table;
+import jakarta.persistence.*;
 import lombok.*;
 
 import java.io.Serializable;
@@ -21,30 +18,28 @@ public class OrderItem implements Serializable {
     @EmbeddedId
     private OrderItemId id;
 
+    @MapsId("orderId")
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "order_id", nullable = false)
+    private Order order;
+
     @Column(nullable = false)
     private Integer quantity;
 
     public OrderItem(Order order, Long productId, Integer quantity) {
-        id = new OrderItemId(order, productId);
+        id = new OrderItemId(order.getId(), productId);
+        this.order = order;
         this.quantity = quantity;
     }
 
     public void setProductId(Long productId) {
-        id.setProductId(productId);
+        id = new OrderItemId(id.getOrderId(), productId);
     }
 
     public Long getProductId() {
         return id.getProductId();
     }
 
-    public void setOrder(Order order) {
-        id.setOrder(order);
-    }
-
-    public Order getOrder() {
-        return id.getOrder();
-    }
-
     @Override
     public boolean equals(Object object) {
         if (this == object) return true;
@@ -55,6 +50,6 @@ public class OrderItem implements Serializable {
 
     @Override
     public int hashCode() {
-        return Objects.hash(id);
+        return Objects.hashCode(id);
     }
 }
@@ -1,24 +1,25 @@
 package com.gabrielluciano.orderservice.model;
 
-import jakarta.persistence.*;
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
-import lombok.Setter;
 
 import java.io.Serializable;
 import java.util.Objects;
+import java.util.UUID;
 
 @Embeddable
 @NoArgsConstructor
 @AllArgsConstructor
 @Getter
-@Setter
+// Immutable, so an item's hash cannot change while it is in a set
 public class OrderItemId implements Serializable {
 
-    @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "order_id", nullable = false)
-    private Order order;
+    // The raw order id rather than the Order itself, so ids compare and hash without touching the entity
+    @Column(name = "order_id", nullable = false)
+    private UUID orderId;
 
     @Column(nullable = false)
     private Long productId;
@@ -28,11 +29,13 @@ public class OrderItemId implements Serializable {
         if (this == object) return true;
         if (object == null || getClass() != object.getClass()) return false;
         OrderItemId that = (OrderItemId) object;
-        return Objects.equals(order, that.order) && Objects.equals(productId, that.productId);
+        // Items of the same order share the order id, so the product id tells them apart first
+        return Objects.equals(productId, that.productId) && Objects.equals(orderId, that.orderId);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(order, productId);
+        // Same result as Objects.hash(orderId, productId) without allocating its varargs array
+        return 31 * (31 + Objects.hashCode(orderId)) + Objects.hashCode(productId);
     }
 }
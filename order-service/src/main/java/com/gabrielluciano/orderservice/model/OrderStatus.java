@@ -1,5 +1,13 @@
 package com.gabrielluciano.orderservice.model;
 
 public enum OrderStatus {
-    PENDING, PAID, READY, CANCELED
+    PENDING, PAID, READY, CANCELED;
+
+    public boolean canTransitionTo(OrderStatus status) {
+        return switch (this) {
+            case PENDING -> status == PAID || status == CANCELED;
+            case PAID -> status == READY || status == CANCELED;
+            case READY, CANCELED -> false;
+        };
+    }
 }
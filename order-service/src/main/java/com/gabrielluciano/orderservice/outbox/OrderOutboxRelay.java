@@ -0,0 +1,145 @@
+package com.gabrielluciano.orderservice.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gabrielluciano.orderservice.event.OrderStatusChangedEvent;
+import com.gabrielluciano.orderservice.exception.OrderEventPublishingException;
+import com.gabrielluciano.orderservice.model.OrderOutboxEvent;
+import com.gabrielluciano.orderservice.repository.OrderOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes the events stored by {@link OrderOutboxWriter} to Kafka in batches, keyed by order id so the events
+ * of an order stay in one partition. Events are deleted once the broker acknowledged the whole batch; when
+ * publishing fails they stay in the outbox and are sent again on the next poll, so consumers may see an event
+ * more than once.
+ * <p>
+ * authorization-server's {@code UserRegistrationOutboxRelay} runs the same loop over its own outbox. The services
+ * are built and deployed on their own and share no code, just as each consumer keeps its own copy of the event
+ * classes, so there is no common module to hold the loop. A change to how batches are sent, acknowledged, deleted
+ * or retried belongs in both relays.
+ */
+@Log4j2
+@Component
+@ConditionalOnProperty(name = "order.outbox.relay.enabled", havingValue = "true")
+public class OrderOutboxRelay {
+
+    private final OrderOutboxRepository orderOutboxRepository;
+    private final KafkaTemplate<String, OrderStatusChangedEvent> kafkaTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter publishedEventsCounter;
+    private final Counter failedPollsCounter;
+    private final AtomicLong lagSeconds = new AtomicLong();
+
+    @Value("${order.outbox.topic:order-events}")
+    private String topic;
+
+    @Value("${order.outbox.batch-size:500}")
+    private int batchSize;
+
+    @Value("${order.outbox.send-timeout:10s}")
+    private Duration sendTimeout;
+
+    public OrderOutboxRelay(OrderOutboxRepository orderOutboxRepository,
+                            KafkaTemplate<String, OrderStatusChangedEvent> kafkaTemplate,
+                            ObjectMapper objectMapper,
+                            TransactionTemplate transactionTemplate,
+                            MeterRegistry meterRegistry) {
+        this.orderOutboxRepository = orderOutboxRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.publishedEventsCounter = Counter.builder("order.outbox.published")
+                .description("Order events published to Kafka")
+                .register(meterRegistry);
+        this.failedPollsCounter = Counter.builder("order.outbox.failures")
+                .description("Relay polls that stopped on an order event Kafka did not acknowledge")
+                .register(meterRegistry);
+        Gauge.builder("order.outbox.lag", lagSeconds, AtomicLong::get)
+                .description("Age of the oldest order event not yet published")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${order.outbox.poll-interval:PT0.5S}",
+            fixedDelayString = "${order.outbox.poll-interval:PT0.5S}")
+    public void relayEvents() {
+        try {
+            Integer published;
+            // A full batch means more events are waiting, keep going until the outbox is drained
+            do {
+                published = transactionTemplate.execute(status -> publishOldestEvents());
+            } while (published != null && published == batchSize);
+        } catch (RuntimeException ex) {
+            failedPollsCounter.increment();
+            log.error("Failed to publish order events, retrying on next poll", ex);
+        } finally {
+            updateLag();
+        }
+    }
+
+    private int publishOldestEvents() {
+        List<OrderOutboxEvent> events = orderOutboxRepository.findOldestForUpdate(batchSize);
+        if (events.isEmpty())
+            return 0;
+
+        CompletableFuture<?>[] results = events.stream()
+                .map(event -> kafkaTemplate.send(topic, event.getOrderId().toString(), readPayload(event)))
+                .toArray(CompletableFuture[]::new);
+        awaitAcknowledgements(results);
+
+        orderOutboxRepository.deleteAllByIdInBatch(events.stream().map(OrderOutboxEvent::getId).toList());
+        publishedEventsCounter.increment(events.size());
+        log.debug("Published {} order events to '{}'", events.size(), topic);
+        return events.size();
+    }
+
+    private void awaitAcknowledgements(CompletableFuture<?>[] results) {
+        try {
+            CompletableFuture.allOf(results).get(sendTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new OrderEventPublishingException("Interrupted while publishing order events", ex);
+        } catch (ExecutionException | TimeoutException ex) {
+            throw new OrderEventPublishingException("Order events were not acknowledged by Kafka", ex);
+        }
+    }
+
+    private OrderStatusChangedEvent readPayload(OrderOutboxEvent event) {
+        try {
+            return objectMapper.readValue(event.getPayload(), OrderStatusChangedEvent.class);
+        } catch (JsonProcessingException ex) {
+            throw new OrderEventPublishingException("Unreadable payload of outbox event " + event.getId(), ex);
+        }
+    }
+
+    private void updateLag() {
+        try {
+            lagSeconds.set(orderOutboxRepository.findOldestCreatedAt()
+                    .map(oldest -> Duration.between(oldest, LocalDateTime.now(ZoneOffset.UTC)).toSeconds())
+                    .orElse(0L));
+        } catch (RuntimeException ex) {
+            log.warn("Failed to read the age of the oldest order event", ex);
+        }
+    }
+}
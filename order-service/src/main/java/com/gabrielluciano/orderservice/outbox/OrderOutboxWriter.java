@@ -0,0 +1,36 @@
+package com.gabrielluciano.orderservice.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gabrielluciano.orderservice.event.OrderStatusChangedEvent;
+import com.gabrielluciano.orderservice.model.OrderOutboxEvent;
+import com.gabrielluciano.orderservice.repository.OrderOutboxRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Stores order events in the outbox table as part of the transaction that changed the order, so an event is
+ * kept exactly when the change commits. Publishing them is left to {@link OrderOutboxRelay}.
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderOutboxWriter {
+
+    private final OrderOutboxRepository orderOutboxRepository;
+    private final ObjectMapper objectMapper;
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) throws JsonProcessingException {
+        orderOutboxRepository.save(OrderOutboxEvent.builder()
+                .orderId(event.getOrderId())
+                .eventType(event.getEventType())
+                .payload(objectMapper.writeValueAsString(event))
+                .createdAt(LocalDateTime.now(ZoneOffset.UTC))
+                .build());
+    }
+}
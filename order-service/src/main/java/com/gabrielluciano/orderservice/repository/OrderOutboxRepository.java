@@ -0,0 +1,24 @@
+package com.gabrielluciano.orderservice.repository;
+
+import com.gabrielluciano.orderservice.model.OrderOutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface OrderOutboxRepository extends JpaRepository<OrderOutboxEvent, Long> {
+
+    // Locks the oldest events until the transaction ends. Relays of other instances wait for them instead of
+    // skipping ahead, which keeps the events of an order in order
+    @Query(value = """
+            SELECT * FROM order_outbox
+            ORDER BY id
+            LIMIT :limit
+            FOR UPDATE""", nativeQuery = true)
+    List<OrderOutboxEvent> findOldestForUpdate(int limit);
+
+    @Query("SELECT MIN(e.createdAt) FROM OrderOutboxEvent e")
+    Optional<LocalDateTime> findOldestCreatedAt();
+}
@@ -1,9 +1,66 @@
 package com.gabrielluciano.orderservice.repository;
 
+import com.gabrielluciano.orderservice.dto.OrderSummaryResponse;
 import com.gabrielluciano.orderservice.model.Order;
+import com.gabrielluciano.orderservice.model.OrderStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 public interface OrderRepository extends JpaRepository<Order, UUID> {
+
+    Optional<Order> findByUserIdAndIdempotencyKey(UUID userId, String idempotencyKey);
+
+    // Loads the order and its items with a single join instead of one more select for the items
+    @EntityGraph(attributePaths = "items")
+    Optional<Order> findWithItemsById(UUID id);
+
+    @Query("""
+            SELECT new com.gabrielluciano.orderservice.dto.OrderSummaryResponse(
+                o.id, o.userId, o.status, o.totalAmount, o.createdAt)
+            FROM Order o
+            WHERE o.id = :id""")
+    Optional<OrderSummaryResponse> findSummaryById(UUID id);
+
+    // Changes the status only if it is still the expected one, returning the number of updated orders
+    @Modifying
+    @Query("""
+            UPDATE Order o SET o.status = :status, o.updatedAt = :updatedAt
+            WHERE o.id = :id AND o.status = :expectedStatus""")
+    int updateStatus(UUID id, OrderStatus expectedStatus, OrderStatus status, LocalDateTime updatedAt);
+
+    @Query("""
+            SELECT new com.gabrielluciano.orderservice.dto.OrderSummaryResponse(
+                o.id, o.userId, o.status, o.totalAmount, o.createdAt)
+            FROM Order o
+            WHERE o.userId = :userId
+            ORDER BY o.createdAt DESC, o.id DESC""")
+    List<OrderSummaryResponse> findSummariesByUserId(UUID userId, Pageable pageable);
+
+    // Keyset pagination, the page starts after the given position instead of skipping the previous pages
+    @Query("""
+            SELECT new com.gabrielluciano.orderservice.dto.OrderSummaryResponse(
+                o.id, o.userId, o.status, o.totalAmount, o.createdAt)
+            FROM Order o
+            WHERE o.userId = :userId
+              AND (o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.id < :id))
+            ORDER BY o.createdAt DESC, o.id DESC""")
+    List<OrderSummaryResponse> findSummariesByUserIdAfter(UUID userId, LocalDateTime createdAt, UUID id,
+                                                          Pageable pageable);
+
+    @Query("""
+            SELECT new com.gabrielluciano.orderservice.dto.OrderSummaryResponse(
+                o.id, o.userId, o.status, o.totalAmount, o.createdAt)
+            FROM Order o
+            WHERE o.status IN :statuses
+            ORDER BY o.createdAt, o.id""")
+    List<OrderSummaryResponse> findSummariesByStatusIn(Collection<OrderStatus> statuses, Pageable pageable);
 }
@@ -2,7 +2,39 @@ package com.gabrielluciano.orderservice.service;
 
 import com.gabrielluciano.orderservice.dto.OrderCreateRequest;
 import com.gabrielluciano.orderservice.dto.OrderCreateResponse;
+import com.gabrielluciano.orderservice.dto.OrderListResponse;
+import com.gabrielluciano.orderservice.dto.OrderResponse;
+import com.gabrielluciano.orderservice.dto.OrderSummaryResponse;
+import com.gabrielluciano.orderservice.model.OrderStatus;
+
+import java.util.List;
+import java.util.UUID;
 
 public interface OrderService {
-    OrderCreateResponse createOrder(OrderCreateRequest orderCreateRequest);
+
+    /**
+     * Creates the order, or returns the one already created for the user with the same idempotency key.
+     *
+     * @param idempotencyKey may be null when the caller never retries
+     */
+    OrderCreateResponse createOrder(OrderCreateRequest orderCreateRequest, String idempotencyKey);
+
+    OrderResponse getOrder(UUID id);
+
+    /**
+     * Lists the user's orders newest first.
+     *
+     * @param cursor the next cursor of the previous page, or null for the first page
+     */
+    OrderListResponse getOrders(UUID userId, String cursor, int size);
+
+    /**
+     * Moves the order to the given status, following {@link OrderStatus#canTransitionTo(OrderStatus)}.
+     */
+    OrderSummaryResponse updateOrderStatus(UUID id, OrderStatus status);
+
+    /**
+     * Lists the orders employees still have to work on, oldest first.
+     */
+    List<OrderSummaryResponse> getOrderQueue(int size);
 }
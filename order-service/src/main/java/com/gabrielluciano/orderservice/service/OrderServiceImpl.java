@@ -3,50 +3,175 @@ package com.gabrielluciano.orderservice.service;
 import com.gabrielluciano.orderservice.dto.OrderCreateRequest;
 import com.gabrielluciano.orderservice.dto.OrderCreateRequestItem;
 import com.gabrielluciano.orderservice.dto.OrderCreateResponse;
+import com.gabrielluciano.orderservice.dto.OrderCursor;
+import com.gabrielluciano.orderservice.dto.OrderListResponse;
+import com.gabrielluciano.orderservice.dto.OrderResponse;
+import com.gabrielluciano.orderservice.dto.OrderSummaryResponse;
+import com.gabrielluciano.orderservice.event.OrderStatusChangedEvent;
 import com.gabrielluciano.orderservice.exception.InvalidOrderProductException;
+import com.gabrielluciano.orderservice.exception.InvalidOrderStatusTransitionException;
+import com.gabrielluciano.orderservice.exception.OrderNotFoundException;
 import com.gabrielluciano.orderservice.exception.ProductNotAvailableException;
 import com.gabrielluciano.orderservice.model.Order;
 import com.gabrielluciano.orderservice.model.OrderItem;
 import com.gabrielluciano.orderservice.model.OrderStatus;
 import com.gabrielluciano.orderservice.repository.OrderRepository;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
+@Log4j2
 public class OrderServiceImpl implements OrderService {
 
     private final OrderRepository orderRepository;
     private final ProductService productService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
 
     @Override
-    public OrderCreateResponse createOrder(OrderCreateRequest orderCreateRequest) {
+    public OrderCreateResponse createOrder(OrderCreateRequest orderCreateRequest, String idempotencyKey) {
+        UUID userId = orderCreateRequest.getUserId();
+        Optional<Order> existingOrder = findOrderByIdempotencyKey(userId, idempotencyKey);
+        if (existingOrder.isPresent()) {
+            log.info("Returning order '{}' already created with idempotency key '{}'",
+                    existingOrder.get().getId(), idempotencyKey);
+            return toOrderCreateResponse(existingOrder.get());
+        }
+
         Order order = Order.builder()
                 .id(UUID.randomUUID())
-                .userId(orderCreateRequest.getUserId())
+                .userId(userId)
                 .status(OrderStatus.PENDING)
                 .createdAt(LocalDateTime.now(ZoneOffset.UTC))
+                .idempotencyKey(idempotencyKey)
                 .build();
         Set<OrderItem> items = createOrderItems(orderCreateRequest, order);
         order.setItems(items);
         order.setTotalAmount(calculateTotalAmount(items));
 
-        Order savedOrder = orderRepository.saveAndFlush(order);
+        Order savedOrder;
+        try {
+            // Only the inserts run in a transaction, the prices are fetched before. Listeners store the event in
+            // the outbox as part of it
+            savedOrder = transactionTemplate.execute(status -> {
+                Order newOrder = orderRepository.saveAndFlush(order);
+                eventPublisher.publishEvent(OrderStatusChangedEvent.fromOrder(newOrder, null));
+                return newOrder;
+            });
+        } catch (DataIntegrityViolationException ex) {
+            // A concurrent request with the same key committed first, its order is the result of both
+            return findOrderByIdempotencyKey(userId, idempotencyKey)
+                    .map(this::toOrderCreateResponse)
+                    .orElseThrow(() -> ex);
+        }
+        return toOrderCreateResponse(savedOrder);
+    }
+
+    @Override
+    @Transactional
+    public OrderSummaryResponse updateOrderStatus(UUID id, OrderStatus status) {
+        while (true) {
+            OrderSummaryResponse order = orderRepository.findSummaryById(id)
+                    .orElseThrow(() -> new OrderNotFoundException(id));
+            OrderStatus previousStatus = order.getStatus();
+            if (!previousStatus.canTransitionTo(status))
+                throw new InvalidOrderStatusTransitionException(id, previousStatus, status);
+
+            // A single conditional update instead of locking the order between the read and the write. When it
+            // matches nothing the status was changed concurrently, and the transition is checked again against
+            // the new status. Statuses only move forward, so this ends after a few rounds at most
+            LocalDateTime updatedAt = LocalDateTime.now(ZoneOffset.UTC);
+            if (orderRepository.updateStatus(id, previousStatus, status, updatedAt) == 0) {
+                log.debug("Status of order '{}' changed concurrently, retrying transition to '{}'", id, status);
+                continue;
+            }
+
+            order.setStatus(status);
+            // Listeners receive it once the transaction has committed
+            eventPublisher.publishEvent(OrderStatusChangedEvent.builder()
+                    .orderId(id)
+                    .userId(order.getUserId())
+                    .previousStatus(previousStatus)
+                    .status(status)
+                    .totalAmount(order.getTotalAmount())
+                    .createdAt(order.getCreatedAt())
+                    .changedAt(updatedAt)
+                    .build());
+            log.info("Order '{}' changed from status '{}' to '{}'", id, previousStatus, status);
+            return order;
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public OrderResponse getOrder(UUID id) {
+        return orderRepository.findWithItemsById(id)
+                .map(OrderResponse::fromOrder)
+                .orElseThrow(() -> new OrderNotFoundException(id));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public OrderListResponse getOrders(UUID userId, String cursor, int size) {
+        // One more order than requested tells whether there is a next page without a count query
+        PageRequest pageRequest = PageRequest.ofSize(size + 1);
+        List<OrderSummaryResponse> orders;
+        if (cursor == null) {
+            orders = orderRepository.findSummariesByUserId(userId, pageRequest);
+        } else {
+            OrderCursor orderCursor = OrderCursor.decode(cursor);
+            orders = orderRepository.findSummariesByUserIdAfter(userId, orderCursor.getCreatedAt(),
+                    orderCursor.getId(), pageRequest);
+        }
+
+        if (orders.size() <= size)
+            return OrderListResponse.builder().orders(orders).build();
+
+        List<OrderSummaryResponse> page = orders.subList(0, size);
+        return OrderListResponse.builder()
+                .orders(page)
+                .nextCursor(OrderCursor.after(page.get(size - 1)).encode())
+                .build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<OrderSummaryResponse> getOrderQueue(int size) {
+        return orderRepository.findSummariesByStatusIn(Set.of(OrderStatus.PENDING, OrderStatus.PAID),
+                PageRequest.ofSize(size));
+    }
+
+    private Optional<Order> findOrderByIdempotencyKey(UUID userId, String idempotencyKey) {
+        if (idempotencyKey == null)
+            return Optional.empty();
+        return orderRepository.findByUserIdAndIdempotencyKey(userId, idempotencyKey);
+    }
 
+    private OrderCreateResponse toOrderCreateResponse(Order order) {
         return OrderCreateResponse.builder()
-                .id(savedOrder.getId())
-                .userId(savedOrder.getUserId())
+                .id(order.getId())
+                .userId(order.getUserId())
                 .totalAmount(order.getTotalAmount())
-                .status(savedOrder.getStatus())
-                .createdAt(savedOrder.getCreatedAt())
+                .status(order.getStatus())
+                .createdAt(order.getCreatedAt())
                 .build();
     }
 
@@ -59,22 +184,23 @@ public class OrderServiceImpl implements OrderService {
     }
 
     private BigDecimal calculateTotalAmount(Set<OrderItem> items) {
+        Map<Long, BigDecimal> prices = tryGetProductPrices(items.stream().map(OrderItem::getProductId).toList());
         BigDecimal totalAmount = new BigDecimal("0.00");
         for (OrderItem item : items) {
-            BigDecimal price = tryGetProductPrice(item.getProductId());
+            BigDecimal price = prices.get(item.getProductId());
             totalAmount = totalAmount.add(price.multiply(BigDecimal.valueOf(item.getQuantity())));
         }
         return totalAmount.setScale(2, RoundingMode.FLOOR);
     }
 
-    private BigDecimal tryGetProductPrice(Long productId) {
-        BigDecimal price;
+    private Map<Long, BigDecimal> tryGetProductPrices(List<Long> productIds) {
+        Map<Long, BigDecimal> prices;
         try {
-            price = productService.getProductPrice(productId);
+            prices = productService.getProductPrices(productIds);
         } catch (ProductNotAvailableException e) {
             String message = String.format("Product with id '%d' is not available or doesn't exist", e.getProductId());
             throw new InvalidOrderProductException(message);
         }
-        return price;
+        return prices;
     }
 }
@@ -3,8 +3,12 @@ package com.gabrielluciano.orderservice.service;
 import com.gabrielluciano.orderservice.exception.ProductNotAvailableException;
 
 import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Map;
 
 public interface ProductService {
 
     BigDecimal getProductPrice(Long id) throws ProductNotAvailableException;
+
+    Map<Long, BigDecimal> getProductPrices(Collection<Long> ids) throws ProductNotAvailableException;
 }
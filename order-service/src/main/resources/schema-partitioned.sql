@@ -0,0 +1,93 @@
+-- Schema used by the "partitioned" profile, for new databases expected to hold tens of millions of orders.
+-- Orders are range partitioned by month of creation, so listings touching recent orders only scan recent
+-- partitions and old months can be detached or dropped as a whole. An existing unpartitioned orders table
+-- is not converted by this script.
+-- The script runs as a single statement, see application-partitioned.yml.
+
+CREATE TABLE IF NOT EXISTS orders (
+    id UUID NOT NULL,
+    user_id UUID NOT NULL,
+    status VARCHAR(50) NOT NULL,
+    total_amount NUMERIC(10, 2) NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP,
+    idempotency_key VARCHAR(100),
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+-- Catches orders outside of the created partitions, kept empty by creating partitions ahead of time
+CREATE TABLE IF NOT EXISTS orders_default PARTITION OF orders DEFAULT;
+
+CREATE OR REPLACE FUNCTION create_orders_partitions(first_month DATE, months INTEGER) RETURNS VOID AS $$
+DECLARE
+    month_start DATE;
+BEGIN
+    FOR i IN 0..months - 1 LOOP
+        month_start := date_trunc('month', first_month) + make_interval(months => i);
+        EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF orders FOR VALUES FROM (%L) TO (%L)',
+                'orders_' || to_char(month_start, 'YYYY_MM'), month_start, month_start + interval '1 month');
+    END LOOP;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Previous month for orders created around the turn of the month, then the current and the next three
+SELECT create_orders_partitions(CAST(CURRENT_DATE - interval '1 month' AS DATE), 5);
+
+CREATE INDEX IF NOT EXISTS orders_user_id_created_at_id_idx ON orders (user_id, created_at DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS orders_status_created_at_id_idx ON orders (status, created_at, id);
+
+-- Unique indexes on a partitioned table must contain the partition key, which would let a retried request
+-- create a second order in another month. Keys are claimed in an unpartitioned table instead, and a
+-- duplicate fails the insert of the order the same way the unique index of schema.sql does.
+CREATE INDEX IF NOT EXISTS orders_user_id_idempotency_key_idx ON orders (user_id, idempotency_key);
+
+CREATE TABLE IF NOT EXISTS order_idempotency_keys (
+    user_id UUID NOT NULL,
+    idempotency_key VARCHAR(100) NOT NULL,
+    order_id UUID NOT NULL,
+    PRIMARY KEY (user_id, idempotency_key)
+);
+
+CREATE OR REPLACE FUNCTION claim_order_idempotency_key() RETURNS TRIGGER AS $$
+BEGIN
+    INSERT INTO order_idempotency_keys (user_id, idempotency_key, order_id)
+    VALUES (NEW.user_id, NEW.idempotency_key, NEW.id);
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE TRIGGER orders_claim_idempotency_key
+    BEFORE INSERT ON orders
+    FOR EACH ROW WHEN (NEW.idempotency_key IS NOT NULL)
+    EXECUTE FUNCTION claim_order_idempotency_key();
+
+-- Items carry no creation time, so they are spread by order instead: the items of an order always live
+-- in the same partition and are found through the order_id index of that partition only. Foreign keys
+-- to a partitioned table must include its partition key, so items are tied to orders by the application.
+CREATE TABLE IF NOT EXISTS order_items (
+    product_id INTEGER NOT NULL,
+    quantity INTEGER NOT NULL,
+    order_id UUID NOT NULL,
+    PRIMARY KEY (product_id, order_id)
+) PARTITION BY HASH (order_id);
+
+DO $$
+BEGIN
+    FOR i IN 0..7 LOOP
+        EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF order_items FOR VALUES WITH (MODULUS 8, REMAINDER %s)',
+                'order_items_' || i, i);
+    END LOOP;
+END;
+$$;
+
+CREATE INDEX IF NOT EXISTS order_items_order_id_idx ON order_items (order_id);
+
+-- Order events waiting to be published to Kafka, stored in the transaction that changed the order
+CREATE TABLE IF NOT EXISTS order_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    order_id UUID NOT NULL,
+    event_type VARCHAR(100) NOT NULL,
+    payload TEXT NOT NULL,
+    created_at TIMESTAMP NOT NULL
+);
@@ -4,12 +4,36 @@ CREATE TABLE IF NOT EXISTS orders (
     status VARCHAR(50) NOT NULL,
     total_amount NUMERIC(10, 2) NOT NULL,
     created_at TIMESTAMP NOT NULL,
-    updated_at TIMESTAMP
+    updated_at TIMESTAMP,
+    idempotency_key VARCHAR(100)
 );
 
+ALTER TABLE orders ADD COLUMN IF NOT EXISTS idempotency_key VARCHAR(100);
+
+-- Retried requests carrying the same key resolve to the order created by the first one
+CREATE UNIQUE INDEX IF NOT EXISTS orders_user_id_idempotency_key_idx ON orders (user_id, idempotency_key);
+
+-- Order history of a user, newest first, read page by page in the order of the index
+CREATE INDEX IF NOT EXISTS orders_user_id_created_at_id_idx ON orders (user_id, created_at DESC, id DESC);
+
+-- Orders of a given status in arrival order, e.g. the pending orders employees have to prepare
+CREATE INDEX IF NOT EXISTS orders_status_created_at_id_idx ON orders (status, created_at, id);
+
 CREATE TABLE IF NOT EXISTS order_items (
     product_id INTEGER NOT NULL,
     quantity INTEGER NOT NULL,
     order_id UUID REFERENCES orders(id) NOT NULL,
     PRIMARY KEY (product_id, order_id)
 );
+
+-- The primary key starts with the product, so loading the items of an order needs its own index
+CREATE INDEX IF NOT EXISTS order_items_order_id_idx ON order_items (order_id);
+
+-- Order events waiting to be published to Kafka, stored in the transaction that changed the order
+CREATE TABLE IF NOT EXISTS order_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    order_id UUID NOT NULL,
+    event_type VARCHAR(100) NOT NULL,
+    payload TEXT NOT NULL,
+    created_at TIMESTAMP NOT NULL
+);
@@ -0,0 +1,173 @@
+package com.gabrielluciano.orderservice;
+
+import com.gabrielluciano.orderservice.dto.OrderCreateResponse;
+import com.gabrielluciano.orderservice.dto.OrderListResponse;
+import com.gabrielluciano.orderservice.dto.OrderResponse;
+import com.gabrielluciano.orderservice.dto.OrderSummaryResponse;
+import com.gabrielluciano.orderservice.feed.OrderQueueFeed;
+import com.gabrielluciano.orderservice.model.OrderStatus;
+import com.gabrielluciano.orderservice.repository.OrderOutboxRepository;
+import com.gabrielluciano.orderservice.repository.OrderRepository;
+import com.gabrielluciano.orderservice.service.OrderService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.jpa.JpaRepositoriesAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.JwtRequestPostProcessor;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {"eureka.client.enabled=false", "order.outbox.relay.enabled=false"})
+@EnableAutoConfiguration(exclude = {DataSourceAutoConfiguration.class, HibernateJpaAutoConfiguration.class,
+        JpaRepositoriesAutoConfiguration.class})
+@AutoConfigureMockMvc
+class OrderControllerSecurityTest {
+
+    private static final UUID OWNER_ID = UUID.fromString("5730f4bb-30ea-4cc5-b0a5-9cae8c3da714");
+    private static final UUID ORDER_ID = UUID.randomUUID();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private OrderService orderService;
+
+    @MockBean
+    private OrderQueueFeed orderQueueFeed;
+
+    // These mocks are required because otherwise Spring will try to create the repository beans
+    // leading to an error because the DataSource and JPA auto configurations are disabled
+    @MockBean
+    private OrderRepository orderRepository;
+
+    @MockBean
+    private OrderOutboxRepository orderOutboxRepository;
+
+    @MockBean
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        BDDMockito.when(orderService.getOrder(ORDER_ID))
+                .thenReturn(OrderResponse.builder().id(ORDER_ID).userId(OWNER_ID).status(OrderStatus.PENDING).build());
+        BDDMockito.when(orderService.getOrders(ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.anyInt()))
+                .thenReturn(OrderListResponse.builder().orders(List.of()).build());
+        BDDMockito.when(orderService.updateOrderStatus(ArgumentMatchers.any(), ArgumentMatchers.any()))
+                .thenReturn(OrderSummaryResponse.builder().id(ORDER_ID).status(OrderStatus.PAID).build());
+        BDDMockito.when(orderService.createOrder(ArgumentMatchers.any(), ArgumentMatchers.any()))
+                .thenReturn(OrderCreateResponse.builder().id(ORDER_ID).totalAmount(BigDecimal.TEN).build());
+        BDDMockito.when(orderQueueFeed.subscribe()).thenReturn(new SseEmitter());
+    }
+
+    @Test
+    void shouldReturn401WhenReadingOrderWithoutToken() throws Exception {
+        mockMvc.perform(get("/api/v1/orders/" + ORDER_ID))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void shouldGetOrderOfOwner() throws Exception {
+        mockMvc.perform(get("/api/v1/orders/" + ORDER_ID).with(user(OWNER_ID)))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void shouldReturn403WhenOrderBelongsToAnotherUser() throws Exception {
+        mockMvc.perform(get("/api/v1/orders/" + ORDER_ID).with(user(UUID.randomUUID())))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void shouldGetOrderOfAnyUserAsEmployee() throws Exception {
+        mockMvc.perform(get("/api/v1/orders/" + ORDER_ID).with(employee()))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void shouldListOrdersOfOwner() throws Exception {
+        mockMvc.perform(get("/api/v1/orders").param("userId", OWNER_ID.toString()).with(user(OWNER_ID)))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void shouldReturn403WhenListingOrdersOfAnotherUser() throws Exception {
+        mockMvc.perform(get("/api/v1/orders").param("userId", OWNER_ID.toString()).with(user(UUID.randomUUID())))
+                .andExpect(status().isForbidden());
+
+        BDDMockito.verify(orderService, BDDMockito.never())
+                .getOrders(ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.anyInt());
+    }
+
+    @Test
+    void shouldListOrdersOfAnyUserAsEmployee() throws Exception {
+        mockMvc.perform(get("/api/v1/orders").param("userId", OWNER_ID.toString()).with(employee()))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void shouldReturn403WhenUserSubscribesToOrderQueue() throws Exception {
+        mockMvc.perform(get("/api/v1/orders/queue").with(user(OWNER_ID)))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void shouldSubscribeToOrderQueueAsEmployee() throws Exception {
+        mockMvc.perform(get("/api/v1/orders/queue").with(employee()))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void shouldReturn403WhenUserUpdatesOrderStatus() throws Exception {
+        mockMvc.perform(patch("/api/v1/orders/" + ORDER_ID + "/status")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"PAID\"}")
+                        .with(user(OWNER_ID)))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void shouldUpdateOrderStatusAsEmployee() throws Exception {
+        mockMvc.perform(patch("/api/v1/orders/" + ORDER_ID + "/status")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"PAID\"}")
+                        .with(employee()))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void shouldCreateOrderWithoutTokenForCartService() throws Exception {
+        mockMvc.perform(post("/api/v1/orders")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"userId\":\"" + OWNER_ID + "\",\"items\":[{\"productId\":1,\"quantity\":1}]}"))
+                .andExpect(status().isCreated());
+    }
+
+    private static JwtRequestPostProcessor user(UUID userId) {
+        return jwt().jwt(jwt -> jwt.claim("userId", userId.toString()))
+                .authorities(new SimpleGrantedAuthority("ROLE_USER"));
+    }
+
+    private static JwtRequestPostProcessor employee() {
+        return jwt().jwt(jwt -> jwt.claim("userId", UUID.randomUUID().toString()))
+                .authorities(new SimpleGrantedAuthority("ROLE_EMPLOYEE"));
+    }
+}
@@ -1,12 +1,20 @@
 package com.gabrielluciano.orderservice;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.gabrielluciano.orderservice.dto.OrderCreateRequest;
+import com.gabrielluciano.orderservice.controller.OrderController;
 import com.gabrielluciano.orderservice.dto.OrderCreateRequestItem;
+import com.gabrielluciano.orderservice.dto.OrderStatusUpdateRequest;
 import com.gabrielluciano.orderservice.exception.ProductNotAvailableException;
+import com.gabrielluciano.orderservice.model.Order;
+import com.gabrielluciano.orderservice.model.OrderItem;
 import com.gabrielluciano.orderservice.model.OrderStatus;
 import com.gabrielluciano.orderservice.repository.OrderRepository;
 import com.gabrielluciano.orderservice.service.ProductService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
@@ -19,22 +27,37 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.JwtRequestPostProcessor;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.testcontainers.containers.PostgreSQLContainer;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
-@SpringBootTest
+@SpringBootTest(properties = {"spring.jpa.properties.hibernate.generate_statistics=true", "order.outbox.relay.enabled=false"})
 @AutoConfigureMockMvc
 class OrderControllerTest {
 
@@ -66,9 +89,15 @@ class OrderControllerTest {
     @MockBean
     private ProductService productService;
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
     @BeforeEach
     void setUp() {
         orderRepository.deleteAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
     }
 
     @Test
@@ -83,8 +112,8 @@ class OrderControllerTest {
         OrderCreateRequestItem item1 = OrderCreateRequestItem.builder().productId(id1).quantity(quantity1).build();
         OrderCreateRequestItem item2 = OrderCreateRequestItem.builder().productId(id2).quantity(quantity2).build();
 
-        BDDMockito.when(productService.getProductPrice(1L)).thenReturn(price1);
-        BDDMockito.when(productService.getProductPrice(2L)).thenReturn(price2);
+        BDDMockito.when(productService.getProductPrices(ArgumentMatchers.anyCollection()))
+                .thenReturn(Map.of(id1, price1, id2, price2));
 
         BigDecimal expectedTotalAmount = price1.multiply(BigDecimal.valueOf(quantity1))
                 .add(price2.multiply(BigDecimal.valueOf(quantity2)))
@@ -107,6 +136,64 @@ class OrderControllerTest {
                 .andExpect(jsonPath("$.createdAt").isString());
     }
 
+    @Test
+    void shouldReturnSameOrderWhenRequestIsRetriedWithSameIdempotencyKey() throws Exception {
+        long id = 1L;
+        OrderCreateRequestItem item = OrderCreateRequestItem.builder().productId(id).quantity(2).build();
+
+        BDDMockito.when(productService.getProductPrices(ArgumentMatchers.anyCollection()))
+                .thenReturn(Map.of(id, new BigDecimal("5.50")));
+
+        OrderCreateRequest orderCreateRequest = OrderCreateRequest.builder()
+                .userId(UUID.randomUUID())
+                .items(Set.of(item))
+                .build();
+        String idempotencyKey = UUID.randomUUID().toString();
+
+        MvcResult firstResult = mockMvc.perform(post("/api/v1/orders")
+                        .header(OrderController.IDEMPOTENCY_KEY_HEADER, idempotencyKey)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(orderCreateRequest)))
+                .andExpect(status().isCreated())
+                .andReturn();
+        String orderId = new ObjectMapper().readTree(firstResult.getResponse().getContentAsString())
+                .get("id").asText();
+
+        mockMvc.perform(post("/api/v1/orders")
+                        .header(OrderController.IDEMPOTENCY_KEY_HEADER, idempotencyKey)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(orderCreateRequest)))
+                .andDo(print())
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value(orderId));
+
+        assertEquals(1, orderRepository.count());
+    }
+
+    @Test
+    void shouldCreateOneOrderPerIdempotencyKey() throws Exception {
+        long id = 1L;
+        OrderCreateRequestItem item = OrderCreateRequestItem.builder().productId(id).quantity(2).build();
+
+        BDDMockito.when(productService.getProductPrices(ArgumentMatchers.anyCollection()))
+                .thenReturn(Map.of(id, new BigDecimal("5.50")));
+
+        OrderCreateRequest orderCreateRequest = OrderCreateRequest.builder()
+                .userId(UUID.randomUUID())
+                .items(Set.of(item))
+                .build();
+
+        for (String idempotencyKey : Set.of("first", "second")) {
+            mockMvc.perform(post("/api/v1/orders")
+                            .header(OrderController.IDEMPOTENCY_KEY_HEADER, idempotencyKey)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(asJsonString(orderCreateRequest)))
+                    .andExpect(status().isCreated());
+        }
+
+        assertEquals(2, orderRepository.count());
+    }
+
     @Test
     void shouldReturn404NotFoundWhenProductIsNotAvailable() throws Exception {
         long id = 1L;
@@ -114,7 +201,7 @@ class OrderControllerTest {
 
         OrderCreateRequestItem item = OrderCreateRequestItem.builder().productId(id).quantity(quantity).build();
 
-        BDDMockito.when(productService.getProductPrice(ArgumentMatchers.anyLong()))
+        BDDMockito.when(productService.getProductPrices(ArgumentMatchers.anyCollection()))
                 .thenThrow(new ProductNotAvailableException(id));
 
         OrderCreateRequest orderCreateRequest = OrderCreateRequest.builder()
@@ -131,6 +218,151 @@ class OrderControllerTest {
                 .andExpect(jsonPath("$.path").value("/api/v1/orders"));
     }
 
+    @Test
+    void shouldGetOrderWithItemsInOneQuery() throws Exception {
+        Order order = saveOrder(UUID.randomUUID(), LocalDateTime.now(), 1L, 2L, 3L);
+        statistics.clear();
+
+        mockMvc.perform(get("/api/v1/orders/" + order.getId()).with(owner(order.getUserId())))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(order.getId().toString()))
+                .andExpect(jsonPath("$.status").value(OrderStatus.PENDING.name()))
+                .andExpect(jsonPath("$.items.length()").value(3))
+                .andExpect(jsonPath("$.items[0].productId").value(1))
+                .andExpect(jsonPath("$.items[0].quantity").value(1));
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void shouldReturn404WhenOrderIsNotFound() throws Exception {
+        mockMvc.perform(get("/api/v1/orders/" + UUID.randomUUID()).with(employee()))
+                .andDo(print())
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void shouldListOrdersOfUserNewestFirstWithOneQueryPerPage() throws Exception {
+        UUID userId = UUID.randomUUID();
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        List<Order> orders = new ArrayList<>(List.of(
+                saveOrder(userId, now.minusMinutes(3), 1L),
+                saveOrder(userId, now.minusMinutes(2), 1L, 2L),
+                // Created at the same time, so the id decides the order
+                saveOrder(userId, now.minusMinutes(1), 1L),
+                saveOrder(userId, now.minusMinutes(1), 1L),
+                saveOrder(userId, now, 1L)));
+        saveOrder(UUID.randomUUID(), now, 1L);
+        // Postgres compares uuids byte by byte, which matches their string form
+        orders.sort(Comparator.comparing(Order::getCreatedAt)
+                .thenComparing(order -> order.getId().toString())
+                .reversed());
+
+        List<String> listedIds = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            statistics.clear();
+            var request = get("/api/v1/orders")
+                    .param("userId", userId.toString())
+                    .param("size", "2")
+                    .with(owner(userId));
+            if (cursor != null)
+                request.param("cursor", cursor);
+
+            String content = mockMvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            assertEquals(1, statistics.getPrepareStatementCount());
+
+            JsonNode page = new ObjectMapper().readTree(content);
+            page.get("orders").forEach(order -> listedIds.add(order.get("id").asText()));
+            cursor = page.hasNonNull("nextCursor") ? page.get("nextCursor").asText() : null;
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(orders.stream().map(order -> order.getId().toString()).toList(), listedIds);
+        assertEquals(3, pages);
+    }
+
+    @Test
+    void shouldReturn400WhenCursorIsInvalid() throws Exception {
+        mockMvc.perform(get("/api/v1/orders")
+                        .param("userId", UUID.randomUUID().toString())
+                        .param("cursor", "not-a-cursor")
+                        .with(employee()))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldUpdateOrderStatus() throws Exception {
+        Order order = saveOrder(UUID.randomUUID(), LocalDateTime.now(), 1L);
+
+        mockMvc.perform(patch("/api/v1/orders/" + order.getId() + "/status")
+                        .with(employee())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(new OrderStatusUpdateRequest(OrderStatus.PAID))))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(order.getId().toString()))
+                .andExpect(jsonPath("$.status").value(OrderStatus.PAID.name()));
+
+        Order updatedOrder = orderRepository.findById(order.getId()).orElseThrow();
+        assertEquals(OrderStatus.PAID, updatedOrder.getStatus());
+    }
+
+    @Test
+    void shouldReturn409WhenStatusTransitionIsNotAllowed() throws Exception {
+        Order order = saveOrder(UUID.randomUUID(), LocalDateTime.now(), 1L);
+
+        mockMvc.perform(patch("/api/v1/orders/" + order.getId() + "/status")
+                        .with(employee())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(new OrderStatusUpdateRequest(OrderStatus.READY))))
+                .andDo(print())
+                .andExpect(status().isConflict());
+
+        assertEquals(OrderStatus.PENDING, orderRepository.findById(order.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void shouldReturn400WhenStatusIsMissing() throws Exception {
+        Order order = saveOrder(UUID.randomUUID(), LocalDateTime.now(), 1L);
+
+        mockMvc.perform(patch("/api/v1/orders/" + order.getId() + "/status")
+                        .with(employee())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+    }
+
+    private Order saveOrder(UUID userId, LocalDateTime createdAt, Long... productIds) {
+        Order order = Order.builder()
+                .id(UUID.randomUUID())
+                .userId(userId)
+                .status(OrderStatus.PENDING)
+                .totalAmount(new BigDecimal("10.00"))
+                .createdAt(createdAt)
+                .build();
+        Set<OrderItem> items = new HashSet<>();
+        for (Long productId : productIds)
+            items.add(new OrderItem(order, productId, 1));
+        order.setItems(items);
+        return orderRepository.saveAndFlush(order);
+    }
+
+    private static JwtRequestPostProcessor owner(UUID userId) {
+        return jwt().jwt(jwt -> jwt.claim("userId", userId.toString()))
+                .authorities(new SimpleGrantedAuthority("ROLE_USER"));
+    }
+
+    private static JwtRequestPostProcessor employee() {
+        return jwt().authorities(new SimpleGrantedAuthority("ROLE_EMPLOYEE"));
+    }
+
     static String asJsonString(final Object object) throws Exception {
         return new ObjectMapper().writeValueAsString(object);
     }
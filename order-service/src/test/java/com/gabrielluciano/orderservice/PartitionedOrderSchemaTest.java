@@ -0,0 +1,136 @@
+package com.gabrielluciano.orderservice;
+
+import com.gabrielluciano.orderservice.dto.OrderCreateRequest;
+import com.gabrielluciano.orderservice.dto.OrderCreateRequestItem;
+import com.gabrielluciano.orderservice.dto.OrderCreateResponse;
+import com.gabrielluciano.orderservice.job.OrderPartitionMaintenanceJob;
+import com.gabrielluciano.orderservice.repository.OrderRepository;
+import com.gabrielluciano.orderservice.service.OrderService;
+import com.gabrielluciano.orderservice.service.ProductService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {"eureka.client.enabled=false", "order.partitioning.months-ahead=6", "order.outbox.relay.enabled=false"})
+@ActiveProfiles("partitioned")
+class PartitionedOrderSchemaTest {
+
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @BeforeAll
+    static void beforeAll() {
+        postgres.start();
+    }
+
+    @AfterAll
+    static void afterAll() {
+        postgres.stop();
+    }
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderPartitionMaintenanceJob orderPartitionMaintenanceJob;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockBean
+    private ProductService productService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        orderRepository.deleteAll();
+        BDDMockito.when(productService.getProductPrices(ArgumentMatchers.anyCollection()))
+                .thenReturn(Map.of(1L, new BigDecimal("2.50"), 2L, new BigDecimal("4.00")));
+    }
+
+    @Test
+    void shouldStoreOrderInPartitionOfItsMonth() {
+        OrderCreateResponse order = orderService.createOrder(orderCreateRequest(UUID.randomUUID()), null);
+
+        String partition = jdbcTemplate.queryForObject(
+                "SELECT CAST(CAST(tableoid AS regclass) AS TEXT) FROM orders WHERE id = ?", String.class, order.getId());
+
+        assertThat(partition).isEqualTo("orders_" + order.getCreatedAt().format(DateTimeFormatter.ofPattern("yyyy_MM")));
+        assertThat(orderService.getOrder(order.getId()).getItems()).hasSize(2);
+    }
+
+    @Test
+    void shouldReturnExistingOrderWhenIdempotencyKeyIsRepeated() {
+        UUID userId = UUID.randomUUID();
+        String idempotencyKey = UUID.randomUUID().toString();
+
+        OrderCreateResponse first = orderService.createOrder(orderCreateRequest(userId), idempotencyKey);
+        OrderCreateResponse second = orderService.createOrder(orderCreateRequest(userId), idempotencyKey);
+
+        assertThat(second.getId()).isEqualTo(first.getId());
+        assertThat(orderRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldRejectSameIdempotencyKeyInAnotherPartition() {
+        UUID userId = UUID.randomUUID();
+        String idempotencyKey = UUID.randomUUID().toString();
+        String insert = """
+                INSERT INTO orders (id, user_id, status, total_amount, created_at, idempotency_key)
+                VALUES (?, ?, 'PENDING', 1.00, ?, ?)""";
+
+        jdbcTemplate.update(insert, UUID.randomUUID(), userId, LocalDateTime.now(), idempotencyKey);
+
+        assertThatThrownBy(() -> jdbcTemplate.update(insert, UUID.randomUUID(), userId,
+                LocalDateTime.now().minusMonths(1), idempotencyKey))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    @Test
+    void shouldCreateUpcomingPartitions() {
+        String partitionInSixMonths = """
+                SELECT CAST(to_regclass('orders_' || to_char(CURRENT_DATE + interval '6 months', 'YYYY_MM')) AS TEXT)""";
+        assertThat(jdbcTemplate.queryForObject(partitionInSixMonths, String.class)).isNull();
+
+        orderPartitionMaintenanceJob.createUpcomingPartitions();
+
+        assertThat(jdbcTemplate.queryForObject(partitionInSixMonths, String.class)).isNotNull();
+    }
+
+    private static OrderCreateRequest orderCreateRequest(UUID userId) {
+        return OrderCreateRequest.builder()
+                .userId(userId)
+                .items(Set.of(new OrderCreateRequestItem(1L, 2), new OrderCreateRequestItem(2L, 1)))
+                .build();
+    }
+}
@@ -0,0 +1,178 @@
+package com.gabrielluciano.orderservice.adapter;
+
+import com.gabrielluciano.orderservice.OrderServiceApplication;
+import com.gabrielluciano.orderservice.exception.ProductNotAvailableException;
+import com.gabrielluciano.orderservice.exception.ServiceUnavailableException;
+import com.gabrielluciano.orderservice.repository.OrderOutboxRepository;
+import com.gabrielluciano.orderservice.repository.OrderRepository;
+import com.gabrielluciano.orderservice.util.controller.ProductServiceCompatibleController;
+import com.github.benmanes.caffeine.cache.Cache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.jpa.JpaRepositoriesAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClient;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.ServiceInstanceListSuppliers;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+import static com.gabrielluciano.orderservice.util.controller.ProductServiceCompatibleController.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+
+@SpringBootTest(classes = {ProductServiceAdapterTest.TestConfig.class}, webEnvironment = RANDOM_PORT,
+        properties = {"eureka.client.enabled=false", "product-service.timeout=1s", "order.outbox.relay.enabled=false"})
+@EnableAutoConfiguration(exclude = {DataSourceAutoConfiguration.class, HibernateJpaAutoConfiguration.class,
+        JpaRepositoriesAutoConfiguration.class})
+class ProductServiceAdapterTest {
+
+    @Autowired
+    private ProductServiceAdapter productServiceAdapter;
+
+    @Autowired
+    private ProductServiceCompatibleController productServiceCompatibleController;
+
+    @Autowired
+    private Cache<Long, BigDecimal> productPriceCache;
+
+    // These mocks are required because otherwise Spring will try to create the repository beans
+    // leading to an error because the DataSource and JPA auto configurations are disabled
+    @MockBean
+    private OrderRepository orderRepository;
+
+    @MockBean
+    private OrderOutboxRepository orderOutboxRepository;
+
+    // Without a DataSource there is no transaction manager, so no TransactionTemplate is auto-configured
+    @MockBean
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        productPriceCache.invalidateAll();
+    }
+
+    @Test
+    void shouldReturnPricesOfAvailableProductsInOneRequest() throws Exception {
+        int batchRequestsBefore = productServiceCompatibleController.getBatchRequests();
+
+        Map<Long, BigDecimal> prices = productServiceAdapter.getProductPrices(
+                List.of(AVAILABLE_PRODUCT_ID, OTHER_AVAILABLE_PRODUCT_ID));
+
+        assertThat(prices).containsEntry(AVAILABLE_PRODUCT_ID, AVAILABLE_PRODUCT_PRICE)
+                .containsEntry(OTHER_AVAILABLE_PRODUCT_ID, OTHER_AVAILABLE_PRODUCT_PRICE);
+        assertEquals(batchRequestsBefore + 1, productServiceCompatibleController.getBatchRequests());
+    }
+
+    @Test
+    void shouldReturnCachedPriceWithoutCallingProductService() throws Exception {
+        productServiceAdapter.getProductPrice(AVAILABLE_PRODUCT_ID);
+        int batchRequestsBefore = productServiceCompatibleController.getBatchRequests();
+
+        BigDecimal price = productServiceAdapter.getProductPrice(AVAILABLE_PRODUCT_ID);
+
+        assertEquals(AVAILABLE_PRODUCT_PRICE, price);
+        assertEquals(batchRequestsBefore, productServiceCompatibleController.getBatchRequests());
+    }
+
+    @Test
+    void shouldThrowProductNotAvailableExceptionWhenProductIsNotAvailable() {
+        ProductNotAvailableException ex = assertThrows(ProductNotAvailableException.class, () ->
+                productServiceAdapter.getProductPrices(List.of(AVAILABLE_PRODUCT_ID, UNAVAILABLE_PRODUCT_ID)));
+
+        assertEquals(UNAVAILABLE_PRODUCT_ID, ex.getProductId());
+    }
+
+    @Test
+    void shouldThrowProductNotAvailableExceptionWhenProductDoesNotExist() {
+        ProductNotAvailableException ex = assertThrows(ProductNotAvailableException.class, () ->
+                productServiceAdapter.getProductPrice(NON_EXISTENT_PRODUCT_ID));
+
+        assertEquals(NON_EXISTENT_PRODUCT_ID, ex.getProductId());
+    }
+
+    @Test
+    void shouldFailFastWhenAnyBatchHasProductNotAvailable() {
+        // The first batch is slow enough to hit the timeout, the second one holds an unavailable product
+        List<Long> ids = new ArrayList<>();
+        ids.add(SLOW_RESPONSE_PRODUCT_ID);
+        LongStream.range(1000, 1099).forEach(ids::add);
+        ids.add(UNAVAILABLE_PRODUCT_ID);
+
+        assertThrows(ProductNotAvailableException.class, () ->
+                productServiceAdapter.getProductPrices(ids));
+    }
+
+    @Test
+    void shouldThrowServiceUnavailableExceptionWhenTimeout() {
+        assertThrows(ServiceUnavailableException.class, () ->
+                productServiceAdapter.getProductPrice(SLOW_RESPONSE_PRODUCT_ID));
+    }
+
+    @Test
+    void shouldThrowServiceUnavailableExceptionWhenProductServiceIsNotAvailable() {
+        assertThrows(ServiceUnavailableException.class, () ->
+                productServiceAdapter.getProductPrice(SERVICE_UNAVAILABLE_PRODUCT_ID));
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @EnableAutoConfiguration
+    @LoadBalancerClients({
+            @LoadBalancerClient(name = "product-service", configuration = ProductServiceLoadBalancerConfig.class),
+    })
+    @Import(OrderServiceApplication.class)
+    static class TestConfig {
+
+        @Bean
+        public ProductServiceCompatibleController productServiceCompatibleController() {
+            return new ProductServiceCompatibleController();
+        }
+
+        // The stand-in product-service runs in this application, behind the order-service security,
+        // while the real product-service has no security of its own
+        @Bean
+        @Order(Ordered.HIGHEST_PRECEDENCE)
+        public SecurityFilterChain productServiceCompatibleSecurityFilterChain(HttpSecurity http) throws Exception {
+            http.securityMatcher("/api/v1/products/**");
+            http.csrf(csrf -> csrf.disable());
+            http.authorizeHttpRequests(requests -> requests.anyRequest().permitAll());
+            return http.build();
+        }
+    }
+
+    static class ProductServiceLoadBalancerConfig {
+
+        @LocalServerPort
+        private int port;
+
+        @Bean
+        public ServiceInstanceListSupplier fixedServiceInstanceListSupplier(Environment env) {
+            return ServiceInstanceListSuppliers.from("product-service",
+                    new DefaultServiceInstance("product-service-1", "product-service", "localhost", port, false));
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.gabrielluciano.orderservice.benchmark;
+
+import com.gabrielluciano.orderservice.model.Order;
+import com.gabrielluciano.orderservice.model.OrderItem;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares building the item set of an order, as {@code OrderServiceImpl.createOrder} does, with the
+ * {@link OrderItem} id keyed by the raw order id against the former id, which held the {@link Order}
+ * and hashed the whole entity for every item.
+ * <p>
+ * Run from the order-service directory with
+ * {@code mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java
+ * -Dexec.args="-cp %classpath org.openjdk.jmh.Main OrderItemSetBenchmark -prof gc"}, the forked benchmark
+ * JVMs need the test classpath on the command line. The GC profiler reports the bytes allocated per
+ * operation next to the timings.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderItemSetBenchmark {
+
+    @Param({"1", "10", "100", "500"})
+    private int lines;
+
+    private Order order;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        order = Order.builder()
+                .id(UUID.randomUUID())
+                .userId(UUID.randomUUID())
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    @Benchmark
+    public Set<OrderItem> buildItemSet() {
+        Set<OrderItem> items = new HashSet<>();
+        for (long productId = 1; productId <= lines; productId++)
+            items.add(new OrderItem(order, productId, 1));
+        return items;
+    }
+
+    @Benchmark
+    public Set<LegacyOrderItem> buildLegacyItemSet() {
+        Set<LegacyOrderItem> items = new HashSet<>();
+        for (long productId = 1; productId <= lines; productId++)
+            items.add(new LegacyOrderItem(new LegacyOrderItemId(order, productId), 1));
+        return items;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(OrderItemSetBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+
+    /**
+     * The order item before its id was keyed by the raw order id.
+     */
+    public record LegacyOrderItem(LegacyOrderItemId id, Integer quantity) {
+
+        @Override
+        public boolean equals(Object object) {
+            if (this == object) return true;
+            if (object == null || getClass() != object.getClass()) return false;
+            LegacyOrderItem orderItem = (LegacyOrderItem) object;
+            return Objects.equals(id, orderItem.id);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(id);
+        }
+    }
+
+    public record LegacyOrderItemId(Order order, Long productId) {
+
+        @Override
+        public boolean equals(Object object) {
+            if (this == object) return true;
+            if (object == null || getClass() != object.getClass()) return false;
+            LegacyOrderItemId that = (LegacyOrderItemId) object;
+            return Objects.equals(order, that.order) && Objects.equals(productId, that.productId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(order, productId);
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.gabrielluciano.orderservice.feed;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gabrielluciano.orderservice.model.Order;
+import com.gabrielluciano.orderservice.model.OrderStatus;
+import com.gabrielluciano.orderservice.repository.OrderRepository;
+import com.gabrielluciano.orderservice.service.OrderService;
+import com.gabrielluciano.orderservice.service.ProductService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.ContainerTestUtils;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.testcontainers.containers.PostgreSQLContainer;
+import reactor.core.publisher.Flux;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+
+@SpringBootTest(webEnvironment = RANDOM_PORT, properties = {"eureka.client.enabled=false",
+        "spring.kafka.bootstrap-servers=${" + EmbeddedKafkaBroker.SPRING_EMBEDDED_KAFKA_BROKERS + "}",
+        "order.outbox.poll-interval=PT0.1S"})
+@EmbeddedKafka(topics = "order-events")
+@DirtiesContext
+class OrderQueueFeedTest {
+
+    private static final int SCREENS = 5;
+
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @BeforeAll
+    static void beforeAll() {
+        postgres.start();
+    }
+
+    @AfterAll
+    static void afterAll() {
+        postgres.stop();
+    }
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private EmbeddedKafkaBroker embeddedKafka;
+
+    @Autowired
+    private KafkaListenerEndpointRegistry kafkaListenerEndpointRegistry;
+
+    @MockBean
+    private ProductService productService;
+
+    // Accepts any bearer token as the token of an employee, the only role allowed on the queue
+    @MockBean
+    private JwtDecoder jwtDecoder;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeEach
+    void setUp() {
+        orderRepository.deleteAll();
+        BDDMockito.when(jwtDecoder.decode(ArgumentMatchers.anyString()))
+                .thenReturn(Jwt.withTokenValue("token")
+                        .header("alg", "none")
+                        .claim("userId", UUID.randomUUID().toString())
+                        .claim("roles", List.of("EMPLOYEE"))
+                        .build());
+        // The feed only reads changes published after it joined the topic
+        ContainerTestUtils.waitForAssignment(kafkaListenerEndpointRegistry.getListenerContainer("order-queue-feed"),
+                embeddedKafka.getPartitionsPerTopic());
+    }
+
+    @Test
+    void shouldPushSnapshotAndCommittedTransitionsToEveryScreen() throws Exception {
+        Order queuedOrder = saveOrder(OrderStatus.PENDING);
+        saveOrder(OrderStatus.READY);
+
+        CountDownLatch snapshots = new CountDownLatch(SCREENS);
+        List<CompletableFuture<List<ServerSentEvent<String>>>> screens = IntStream.range(0, SCREENS)
+                .mapToObj(screen -> subscribe(snapshots)
+                        .take(3)
+                        .collectList()
+                        .toFuture())
+                .toList();
+        assertThat(snapshots.await(10, TimeUnit.SECONDS)).isTrue();
+
+        orderService.updateOrderStatus(queuedOrder.getId(), OrderStatus.PAID);
+        orderService.updateOrderStatus(queuedOrder.getId(), OrderStatus.READY);
+
+        for (CompletableFuture<List<ServerSentEvent<String>>> screen : screens) {
+            List<ServerSentEvent<String>> events = screen.get(10, TimeUnit.SECONDS);
+
+            assertThat(events).extracting(ServerSentEvent::event).containsExactly(
+                    OrderQueueFeed.SNAPSHOT_EVENT, OrderQueueFeed.ORDER_EVENT, OrderQueueFeed.ORDER_EVENT);
+
+            JsonNode snapshot = objectMapper.readTree(events.get(0).data());
+            assertThat(snapshot).hasSize(1);
+            assertThat(snapshot.get(0).get("id").asText()).isEqualTo(queuedOrder.getId().toString());
+
+            JsonNode paid = objectMapper.readTree(events.get(1).data());
+            assertThat(paid.get("orderId").asText()).isEqualTo(queuedOrder.getId().toString());
+            assertThat(paid.get("previousStatus").asText()).isEqualTo(OrderStatus.PENDING.name());
+            assertThat(paid.get("status").asText()).isEqualTo(OrderStatus.PAID.name());
+            assertThat(objectMapper.readTree(events.get(2).data()).get("status").asText())
+                    .isEqualTo(OrderStatus.READY.name());
+        }
+    }
+
+    @Test
+    void shouldNotPushTransitionThatIsRejected() throws Exception {
+        Order readyOrder = saveOrder(OrderStatus.READY);
+
+        CountDownLatch snapshots = new CountDownLatch(1);
+        CompletableFuture<List<ServerSentEvent<String>>> screen = subscribe(snapshots)
+                .take(Duration.ofSeconds(2))
+                .collectList()
+                .toFuture();
+        assertThat(snapshots.await(10, TimeUnit.SECONDS)).isTrue();
+
+        try {
+            orderService.updateOrderStatus(readyOrder.getId(), OrderStatus.PAID);
+        } catch (RuntimeException ignored) {
+            // Expected, READY is final
+        }
+
+        assertThat(screen.get(10, TimeUnit.SECONDS)).extracting(ServerSentEvent::event)
+                .containsExactly(OrderQueueFeed.SNAPSHOT_EVENT);
+    }
+
+    // Named events of the feed, heartbeats left out. The latch is released once the snapshot arrived, from then
+    // on the screen receives every committed change
+    private Flux<ServerSentEvent<String>> subscribe(CountDownLatch snapshots) {
+        return WebClient.create("http://localhost:" + port)
+                .get().uri("/api/v1/orders/queue")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer token")
+                .retrieve()
+                .bodyToFlux(new ParameterizedTypeReference<ServerSentEvent<String>>() {})
+                .filter(event -> event.event() != null)
+                .doOnNext(event -> {
+                    if (OrderQueueFeed.SNAPSHOT_EVENT.equals(event.event()))
+                        snapshots.countDown();
+                });
+    }
+
+    private Order saveOrder(OrderStatus status) {
+        Order order = Order.builder()
+                .id(UUID.randomUUID())
+                .userId(UUID.randomUUID())
+                .status(status)
+                .totalAmount(new BigDecimal("10.00"))
+                .createdAt(LocalDateTime.now(ZoneOffset.UTC))
+                .items(new HashSet<>())
+                .build();
+        return orderRepository.saveAndFlush(order);
+    }
+}
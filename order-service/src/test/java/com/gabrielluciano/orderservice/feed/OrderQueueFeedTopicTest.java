@@ -0,0 +1,180 @@
+package com.gabrielluciano.orderservice.feed;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gabrielluciano.orderservice.event.OrderStatusChangedEvent;
+import com.gabrielluciano.orderservice.model.OrderStatus;
+import com.gabrielluciano.orderservice.repository.OrderOutboxRepository;
+import com.gabrielluciano.orderservice.repository.OrderRepository;
+import com.gabrielluciano.orderservice.service.OrderService;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.jpa.JpaRepositoriesAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.ContainerTestUtils;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+
+/**
+ * Order changes committed through another order-service instance only reach this one through the order events
+ * topic, so they are published here by a producer of the test's own instead of by this instance's outbox relay.
+ */
+@SpringBootTest(webEnvironment = RANDOM_PORT, properties = {"eureka.client.enabled=false",
+        "spring.kafka.bootstrap-servers=${" + EmbeddedKafkaBroker.SPRING_EMBEDDED_KAFKA_BROKERS + "}",
+        "order.outbox.relay.enabled=false"})
+@EnableAutoConfiguration(exclude = {DataSourceAutoConfiguration.class, HibernateJpaAutoConfiguration.class,
+        JpaRepositoriesAutoConfiguration.class})
+@EmbeddedKafka(topics = "order-events")
+@DirtiesContext
+class OrderQueueFeedTopicTest {
+
+    private static final int SCREENS = 3;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private EmbeddedKafkaBroker embeddedKafka;
+
+    @Autowired
+    private KafkaListenerEndpointRegistry kafkaListenerEndpointRegistry;
+
+    @MockBean
+    private OrderService orderService;
+
+    // Accepts any bearer token as the token of an employee, the only role allowed on the queue
+    @MockBean
+    private JwtDecoder jwtDecoder;
+
+    // These mocks are required because otherwise Spring will try to create the repository beans
+    // leading to an error because the DataSource and JPA auto configurations are disabled
+    @MockBean
+    private OrderRepository orderRepository;
+
+    @MockBean
+    private OrderOutboxRepository orderOutboxRepository;
+
+    @MockBean
+    private TransactionTemplate transactionTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeEach
+    void setUp() {
+        BDDMockito.when(orderService.getOrderQueue(ArgumentMatchers.anyInt())).thenReturn(List.of());
+        BDDMockito.when(jwtDecoder.decode(ArgumentMatchers.anyString()))
+                .thenReturn(Jwt.withTokenValue("token")
+                        .header("alg", "none")
+                        .claim("userId", UUID.randomUUID().toString())
+                        .claim("roles", List.of("EMPLOYEE"))
+                        .build());
+        // The feed only reads changes published after it joined the topic
+        ContainerTestUtils.waitForAssignment(kafkaListenerEndpointRegistry.getListenerContainer("order-queue-feed"),
+                embeddedKafka.getPartitionsPerTopic());
+    }
+
+    @Test
+    void shouldPushChangesPublishedByAnotherInstanceToEveryScreen() throws Exception {
+        UUID orderId = UUID.randomUUID();
+
+        CountDownLatch snapshots = new CountDownLatch(SCREENS);
+        List<CompletableFuture<List<ServerSentEvent<String>>>> screens = IntStream.range(0, SCREENS)
+                .mapToObj(screen -> subscribe(snapshots)
+                        .take(3)
+                        .collectList()
+                        .toFuture())
+                .toList();
+        assertThat(snapshots.await(10, TimeUnit.SECONDS)).isTrue();
+
+        KafkaTemplate<String, OrderStatusChangedEvent> otherInstance = createProducer();
+        otherInstance.send("order-events", orderId.toString(), event(orderId, OrderStatus.PENDING, OrderStatus.PAID));
+        otherInstance.send("order-events", orderId.toString(), event(orderId, OrderStatus.PAID, OrderStatus.READY));
+        otherInstance.flush();
+
+        for (CompletableFuture<List<ServerSentEvent<String>>> screen : screens) {
+            List<ServerSentEvent<String>> events = screen.get(10, TimeUnit.SECONDS);
+
+            assertThat(events).extracting(ServerSentEvent::event).containsExactly(
+                    OrderQueueFeed.SNAPSHOT_EVENT, OrderQueueFeed.ORDER_EVENT, OrderQueueFeed.ORDER_EVENT);
+
+            JsonNode paid = objectMapper.readTree(events.get(1).data());
+            assertThat(paid.get("orderId").asText()).isEqualTo(orderId.toString());
+            assertThat(paid.get("previousStatus").asText()).isEqualTo(OrderStatus.PENDING.name());
+            assertThat(paid.get("status").asText()).isEqualTo(OrderStatus.PAID.name());
+            assertThat(objectMapper.readTree(events.get(2).data()).get("status").asText())
+                    .isEqualTo(OrderStatus.READY.name());
+        }
+    }
+
+    private Flux<ServerSentEvent<String>> subscribe(CountDownLatch snapshots) {
+        return WebClient.create("http://localhost:" + port)
+                .get().uri("/api/v1/orders/queue")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer token")
+                .retrieve()
+                .bodyToFlux(new ParameterizedTypeReference<ServerSentEvent<String>>() {})
+                .filter(event -> event.event() != null)
+                .doOnNext(event -> {
+                    if (OrderQueueFeed.SNAPSHOT_EVENT.equals(event.event()))
+                        snapshots.countDown();
+                });
+    }
+
+    private KafkaTemplate<String, OrderStatusChangedEvent> createProducer() {
+        Map<String, Object> producerProps = KafkaTestUtils.producerProps(embeddedKafka);
+        producerProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        producerProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        producerProps.put(JsonSerializer.TYPE_MAPPINGS, "orderStatusChanged:com.gabrielluciano.orderservice.event.OrderStatusChangedEvent");
+        return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(producerProps));
+    }
+
+    private static OrderStatusChangedEvent event(UUID orderId, OrderStatus previousStatus, OrderStatus status) {
+        LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+        return OrderStatusChangedEvent.builder()
+                .orderId(orderId)
+                .userId(UUID.randomUUID())
+                .previousStatus(previousStatus)
+                .status(status)
+                .totalAmount(new BigDecimal("10.00"))
+                .createdAt(now)
+                .changedAt(now)
+                .build();
+    }
+}
@@ -0,0 +1,111 @@
+package com.gabrielluciano.orderservice.load;
+
+import com.gabrielluciano.orderservice.dto.OrderCreateRequest;
+import com.gabrielluciano.orderservice.dto.OrderCreateRequestItem;
+import com.gabrielluciano.orderservice.service.OrderService;
+import com.gabrielluciano.orderservice.service.ProductService;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.log4j.Log4j2;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+/**
+ * Creates orders with many lines through {@link OrderService} against a real PostgreSQL and logs the time
+ * and number of JDBC statements per order, so the batched and unbatched insert settings can be compared
+ * side by side.
+ * <p>
+ * Disabled by default, run with {@code mvn test -DloadTest=true -Dtest='*LoadTest'}. The load can be
+ * tuned with {@code loadTest.orders} and {@code loadTest.itemsPerOrder}.
+ */
+@Log4j2
+abstract class AbstractOrderInsertLoadTest {
+
+    protected static final int ORDERS = Integer.getInteger("loadTest.orders", 500);
+    protected static final int ITEMS_PER_ORDER = Integer.getInteger("loadTest.itemsPerOrder", 50);
+
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @BeforeAll
+    static void beforeAll() {
+        postgres.start();
+    }
+
+    @AfterAll
+    static void afterAll() {
+        postgres.stop();
+    }
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockBean
+    private ProductService productService;
+
+    protected abstract String settingsName();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        BDDMockito.when(productService.getProductPrices(ArgumentMatchers.anyCollection()))
+                .thenAnswer(invocation -> invocation.<Collection<Long>>getArgument(0).stream()
+                        .collect(Collectors.toMap(Function.identity(), id -> new BigDecimal("1.50"))));
+    }
+
+    @Test
+    void createOrdersUnderLoad() {
+        // Warm up the connection pool, Hibernate and the JIT before measuring
+        createOrders(ORDERS / 10);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        long start = System.nanoTime();
+        createOrders(ORDERS);
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        log.info("[{}] {} orders of {} items: {} ms ({} ms/order), {} statements/order, {} entity loads",
+                settingsName(), ORDERS, ITEMS_PER_ORDER, elapsed.toMillis(),
+                String.format("%.2f", elapsed.toNanos() / 1_000_000.0 / ORDERS),
+                String.format("%.1f", (double) statistics.getPrepareStatementCount() / ORDERS),
+                statistics.getEntityLoadCount());
+    }
+
+    private void createOrders(int orders) {
+        for (int i = 0; i < orders; i++) {
+            orderService.createOrder(OrderCreateRequest.builder()
+                    .userId(UUID.randomUUID())
+                    .items(LongStream.rangeClosed(1, ITEMS_PER_ORDER)
+                            .mapToObj(productId -> new OrderCreateRequestItem(productId, 1))
+                            .collect(Collectors.toSet()))
+                    .build(), null);
+        }
+    }
+}
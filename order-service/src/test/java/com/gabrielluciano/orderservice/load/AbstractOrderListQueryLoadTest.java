@@ -0,0 +1,138 @@
+package com.gabrielluciano.orderservice.load;
+
+import com.gabrielluciano.orderservice.dto.OrderListResponse;
+import com.gabrielluciano.orderservice.service.OrderService;
+import com.gabrielluciano.orderservice.service.ProductService;
+import lombok.extern.log4j.Log4j2;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Generates a large orders table against a real PostgreSQL, then lists the orders of random users through
+ * {@link OrderService} and logs the latency percentiles of the first and second pages along with the query
+ * plans of the user and status listings, so the plain and partitioned schemas can be compared side by side.
+ * <p>
+ * Disabled by default, run with {@code mvn test -DloadTest=true -Dtest='*OrderListQueryLoadTest'}. The size
+ * of the table can be tuned with {@code loadTest.orderRows}, e.g. {@code -DloadTest.orderRows=20000000},
+ * along with {@code loadTest.users} and {@code loadTest.queries}.
+ */
+@Log4j2
+abstract class AbstractOrderListQueryLoadTest {
+
+    protected static final long ORDER_ROWS = Long.getLong("loadTest.orderRows", 1_000_000);
+    protected static final int USERS = Integer.getInteger("loadTest.users", 10_000);
+    protected static final int QUERIES = Integer.getInteger("loadTest.queries", 1_000);
+    // Orders are spread over the last two years
+    protected static final int DAYS = 730;
+    private static final int PAGE_SIZE = 20;
+
+    private static final String USER_LISTING_SQL = """
+            SELECT id, user_id, status, total_amount, created_at FROM orders
+            WHERE user_id = '%s'
+            ORDER BY created_at DESC, id DESC LIMIT %d""";
+    private static final String STATUS_LISTING_SQL = """
+            SELECT id, user_id, status, total_amount, created_at FROM orders
+            WHERE status = 'PENDING'
+            ORDER BY created_at, id LIMIT %d""";
+
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @BeforeAll
+    static void beforeAll() {
+        postgres.start();
+    }
+
+    @AfterAll
+    static void afterAll() {
+        postgres.stop();
+    }
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    protected JdbcTemplate jdbcTemplate;
+
+    @MockBean
+    private ProductService productService;
+
+    protected abstract String schemaName();
+
+    // Lets the partitioned schema create the partitions of the generated months
+    protected void prepareSchema() {
+    }
+
+    @Test
+    void listOrdersOfLargeTable() {
+        prepareSchema();
+        new OrderDataGenerator(jdbcTemplate).generate(ORDER_ROWS, USERS, LocalDateTime.now(), DAYS);
+
+        // Warm up the connection pool, Hibernate and the JIT before measuring
+        listOrders(QUERIES / 10);
+        long[][] latencies = listOrders(QUERIES);
+
+        log.info("[{}] {} orders, {} users: first page p50 {} ms, p99 {} ms; second page p50 {} ms, p99 {} ms",
+                schemaName(), ORDER_ROWS, USERS,
+                percentile(latencies[0], 50), percentile(latencies[0], 99),
+                percentile(latencies[1], 50), percentile(latencies[1], 99));
+
+        String userPlan = explain(USER_LISTING_SQL.formatted(OrderDataGenerator.userId(0), PAGE_SIZE + 1));
+        String statusPlan = explain(STATUS_LISTING_SQL.formatted(PAGE_SIZE + 1));
+        log.info("[{}] User listing plan:\n{}", schemaName(), userPlan);
+        log.info("[{}] Status listing plan:\n{}", schemaName(), statusPlan);
+
+        assertThat(userPlan).doesNotContain("Seq Scan");
+        assertThat(statusPlan).doesNotContain("Seq Scan");
+    }
+
+    private long[][] listOrders(int queries) {
+        long[] firstPage = new long[queries];
+        long[] secondPage = new long[queries];
+        for (int i = 0; i < queries; i++) {
+            UUID userId = OrderDataGenerator.userId(ThreadLocalRandom.current().nextInt(USERS));
+
+            long start = System.nanoTime();
+            OrderListResponse page = orderService.getOrders(userId, null, PAGE_SIZE);
+            firstPage[i] = System.nanoTime() - start;
+
+            if (page.getNextCursor() != null) {
+                start = System.nanoTime();
+                orderService.getOrders(userId, page.getNextCursor(), PAGE_SIZE);
+                secondPage[i] = System.nanoTime() - start;
+            }
+        }
+        return new long[][]{firstPage, secondPage};
+    }
+
+    private String explain(String sql) {
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN (ANALYZE, BUFFERS) " + sql, String.class));
+    }
+
+    private static String percentile(long[] latencies, int percentile) {
+        long[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+        int index = Math.min(sorted.length - 1, sorted.length * percentile / 100);
+        return String.format("%.2f", sorted[index] / 1_000_000.0);
+    }
+}
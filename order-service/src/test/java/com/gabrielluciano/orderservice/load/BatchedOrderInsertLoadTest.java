@@ -0,0 +1,15 @@
+package com.gabrielluciano.orderservice.load;
+
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.test.context.SpringBootTest;
+
+// Runs with the JDBC batching settings from application.yml
+@SpringBootTest(properties = {"eureka.client.enabled=false", "order.outbox.relay.enabled=false"})
+@EnabledIfSystemProperty(named = "loadTest", matches = "true")
+class BatchedOrderInsertLoadTest extends AbstractOrderInsertLoadTest {
+
+    @Override
+    protected String settingsName() {
+        return "batched";
+    }
+}
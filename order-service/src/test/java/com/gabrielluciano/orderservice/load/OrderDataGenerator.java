@@ -0,0 +1,47 @@
+package com.gabrielluciano.orderservice.load;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Fills the orders table directly in the database, spreading orders over a fixed set of users and over
+ * the last months, fast enough to reach tens of millions of rows. Order items are not generated since
+ * the listings never read them.
+ */
+@Log4j2
+@RequiredArgsConstructor
+class OrderDataGenerator {
+
+    private static final int CHUNK_SIZE = 1_000_000;
+
+    // User n gets the id 00000000-0000-0000-0000-<n in hex>, see userId(long)
+    private static final String INSERT_ORDERS_SQL = """
+            INSERT INTO orders (id, user_id, status, total_amount, created_at)
+            SELECT gen_random_uuid(),
+                   CAST('00000000-0000-0000-0000-' || lpad(to_hex(floor(random() * ?)::bigint), 12, '0') AS UUID),
+                   (ARRAY['PENDING', 'PAID', 'READY', 'CANCELED'])[1 + floor(random() * 4)::int],
+                   round(CAST(random() * 100 AS NUMERIC), 2),
+                   ? - random() * (? * interval '1 day')
+            FROM generate_series(1, ?)""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    static UUID userId(long user) {
+        return new UUID(0, user);
+    }
+
+    void generate(long rows, int users, LocalDateTime until, int days) {
+        long start = System.nanoTime();
+        for (long generated = 0; generated < rows; generated += CHUNK_SIZE) {
+            long chunk = Math.min(CHUNK_SIZE, rows - generated);
+            jdbcTemplate.update(INSERT_ORDERS_SQL, users, until, days, chunk);
+            log.info("Generated {} of {} orders", generated + chunk, rows);
+        }
+        jdbcTemplate.execute("ANALYZE orders");
+        log.info("Generated {} orders in {} s", rows, (System.nanoTime() - start) / 1_000_000_000);
+    }
+}
@@ -0,0 +1,24 @@
+package com.gabrielluciano.orderservice.load;
+
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+// Runs with the monthly partitioned schema-partitioned.sql
+@SpringBootTest(properties = {"eureka.client.enabled=false", "order.outbox.relay.enabled=false"})
+@ActiveProfiles("partitioned")
+@EnabledIfSystemProperty(named = "loadTest", matches = "true")
+class PartitionedOrderListQueryLoadTest extends AbstractOrderListQueryLoadTest {
+
+    @Override
+    protected void prepareSchema() {
+        // One partition per generated month, so no order lands in the default partition
+        jdbcTemplate.queryForList("SELECT create_orders_partitions(CAST(CURRENT_DATE - ? * interval '1 day' AS DATE), ?)",
+                DAYS, DAYS / 28 + 2);
+    }
+
+    @Override
+    protected String schemaName() {
+        return "partitioned";
+    }
+}
@@ -0,0 +1,15 @@
+package com.gabrielluciano.orderservice.load;
+
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.test.context.SpringBootTest;
+
+// Runs with the unpartitioned schema.sql
+@SpringBootTest(properties = {"eureka.client.enabled=false", "order.outbox.relay.enabled=false"})
+@EnabledIfSystemProperty(named = "loadTest", matches = "true")
+class PlainOrderListQueryLoadTest extends AbstractOrderListQueryLoadTest {
+
+    @Override
+    protected String schemaName() {
+        return "plain";
+    }
+}
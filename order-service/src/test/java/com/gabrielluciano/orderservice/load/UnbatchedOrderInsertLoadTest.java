@@ -0,0 +1,19 @@
+package com.gabrielluciano.orderservice.load;
+
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.test.context.SpringBootTest;
+
+// Turns JDBC batching off, as the baseline for the batched settings
+@SpringBootTest(properties = {"eureka.client.enabled=false", "order.outbox.relay.enabled=false",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=1",
+        "spring.jpa.properties.hibernate.order_inserts=false",
+        "spring.jpa.properties.hibernate.order_updates=false",
+        "spring.datasource.hikari.data-source-properties.reWriteBatchedInserts=false"})
+@EnabledIfSystemProperty(named = "loadTest", matches = "true")
+class UnbatchedOrderInsertLoadTest extends AbstractOrderInsertLoadTest {
+
+    @Override
+    protected String settingsName() {
+        return "unbatched";
+    }
+}
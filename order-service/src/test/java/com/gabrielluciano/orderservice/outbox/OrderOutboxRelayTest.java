@@ -0,0 +1,141 @@
+package com.gabrielluciano.orderservice.outbox;
+
+import com.gabrielluciano.orderservice.dto.OrderCreateRequest;
+import com.gabrielluciano.orderservice.dto.OrderCreateRequestItem;
+import com.gabrielluciano.orderservice.dto.OrderCreateResponse;
+import com.gabrielluciano.orderservice.event.OrderStatusChangedEvent;
+import com.gabrielluciano.orderservice.model.OrderStatus;
+import com.gabrielluciano.orderservice.repository.OrderOutboxRepository;
+import com.gabrielluciano.orderservice.service.OrderService;
+import com.gabrielluciano.orderservice.service.ProductService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {"eureka.client.enabled=false",
+        "spring.kafka.bootstrap-servers=${" + EmbeddedKafkaBroker.SPRING_EMBEDDED_KAFKA_BROKERS + "}",
+        "order.outbox.poll-interval=PT0.1S",
+        "order.outbox.batch-size=" + OrderOutboxRelayTest.BATCH_SIZE})
+@EmbeddedKafka(topics = "order-events")
+@DirtiesContext
+class OrderOutboxRelayTest {
+
+    static final int BATCH_SIZE = 20;
+    private static final int ORDERS = 50;
+
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @BeforeAll
+    static void beforeAll() {
+        postgres.start();
+    }
+
+    @AfterAll
+    static void afterAll() {
+        postgres.stop();
+    }
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderOutboxRepository orderOutboxRepository;
+
+    @Autowired
+    private EmbeddedKafkaBroker embeddedKafka;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockBean
+    private ProductService productService;
+
+    @Test
+    void shouldPublishOrderEventsInOrderAndDrainOutbox() throws Exception {
+        BDDMockito.when(productService.getProductPrices(ArgumentMatchers.anyCollection()))
+                .thenReturn(Map.of(1L, new BigDecimal("2.50")));
+        Consumer<String, OrderStatusChangedEvent> consumer = createConsumer();
+
+        List<UUID> orderIds = new ArrayList<>();
+        for (int i = 0; i < ORDERS; i++) {
+            OrderCreateResponse order = orderService.createOrder(OrderCreateRequest.builder()
+                    .userId(UUID.randomUUID())
+                    .items(Set.of(new OrderCreateRequestItem(1L, 1)))
+                    .build(), null);
+            orderService.updateOrderStatus(order.getId(), OrderStatus.PAID);
+            orderIds.add(order.getId());
+        }
+
+        // More events than fit in one batch, so the relay has to drain the outbox over several batches
+        List<ConsumerRecord<String, OrderStatusChangedEvent>> records = new ArrayList<>();
+        KafkaTestUtils.getRecords(consumer, Duration.ofSeconds(20), ORDERS * 2).forEach(records::add);
+
+        assertThat(records).hasSize(ORDERS * 2);
+        for (UUID orderId : orderIds) {
+            List<OrderStatus> statuses = records.stream()
+                    .filter(record -> record.key().equals(orderId.toString()))
+                    .map(record -> record.value().getStatus())
+                    .toList();
+            assertThat(statuses).containsExactly(OrderStatus.PENDING, OrderStatus.PAID);
+        }
+        awaitEmptyOutbox();
+        assertThat(meterRegistry.get("order.outbox.published").counter().count()).isEqualTo(ORDERS * 2);
+    }
+
+    private void awaitEmptyOutbox() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (orderOutboxRepository.count() > 0 && System.nanoTime() < deadline)
+            Thread.sleep(100);
+        assertThat(orderOutboxRepository.count()).isZero();
+    }
+
+    private Consumer<String, OrderStatusChangedEvent> createConsumer() {
+        Map<String, Object> consumerProps = KafkaTestUtils.consumerProps(UUID.randomUUID().toString(), "true", embeddedKafka);
+        consumerProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        consumerProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
+        consumerProps.put(JsonDeserializer.TYPE_MAPPINGS, "orderStatusChanged:com.gabrielluciano.orderservice.event.OrderStatusChangedEvent");
+        ConsumerFactory<String, OrderStatusChangedEvent> cf = new DefaultKafkaConsumerFactory<>(consumerProps,
+                new StringDeserializer(), new JsonDeserializer<>(OrderStatusChangedEvent.class));
+        Consumer<String, OrderStatusChangedEvent> consumer = cf.createConsumer();
+        embeddedKafka.consumeFromAnEmbeddedTopic(consumer, "order-events");
+        return consumer;
+    }
+}
@@ -0,0 +1,138 @@
+package com.gabrielluciano.orderservice.service;
+
+import com.gabrielluciano.orderservice.dto.OrderCreateRequest;
+import com.gabrielluciano.orderservice.dto.OrderCreateRequestItem;
+import com.gabrielluciano.orderservice.dto.OrderCreateResponse;
+import com.gabrielluciano.orderservice.model.OrderOutboxEvent;
+import com.gabrielluciano.orderservice.model.OrderStatus;
+import com.gabrielluciano.orderservice.repository.OrderOutboxRepository;
+import com.gabrielluciano.orderservice.repository.OrderRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {"eureka.client.enabled=false", "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=" + OrderServiceImplTest.BATCH_SIZE,
+        "order.outbox.relay.enabled=false"})
+class OrderServiceImplTest {
+
+    static final int BATCH_SIZE = 50;
+    static final int ITEMS = 120;
+
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @BeforeAll
+    static void beforeAll() {
+        postgres.start();
+    }
+
+    @AfterAll
+    static void afterAll() {
+        postgres.stop();
+    }
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderOutboxRepository orderOutboxRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockBean
+    private ProductService productService;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        orderRepository.deleteAll();
+        BDDMockito.when(productService.getProductPrices(ArgumentMatchers.anyCollection()))
+                .thenAnswer(invocation -> invocation.<Collection<Long>>getArgument(0).stream()
+                        .collect(Collectors.toMap(Function.identity(), id -> new BigDecimal("1.50"))));
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void shouldInsertOrderItemsInJdbcBatchesWithoutSelectingFirst() {
+        OrderCreateRequest orderCreateRequest = OrderCreateRequest.builder()
+                .userId(UUID.randomUUID())
+                .items(LongStream.rangeClosed(1, ITEMS)
+                        .mapToObj(productId -> new OrderCreateRequestItem(productId, 1))
+                        .collect(Collectors.toSet()))
+                .build();
+
+        OrderCreateResponse orderCreateResponse = orderService.createOrder(orderCreateRequest, null);
+
+        // A merge of the new order would load it and each of its items before inserting
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(statistics.getEntityFetchCount()).isZero();
+        // The order, its items and its outbox event
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(1 + ITEMS + 1);
+        // One statement for the order, one per batch of items instead of one per item, and one for the event
+        assertThat(statistics.getPrepareStatementCount())
+                .isLessThanOrEqualTo(1 + (ITEMS + BATCH_SIZE - 1) / BATCH_SIZE + 1);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM order_items WHERE order_id = ?",
+                Integer.class, orderCreateResponse.getId())).isEqualTo(ITEMS);
+    }
+
+    @Test
+    void shouldStoreOneOutboxEventPerCreatedOrder() {
+        UUID userId = UUID.randomUUID();
+        OrderCreateRequest orderCreateRequest = OrderCreateRequest.builder()
+                .userId(userId)
+                .items(Set.of(new OrderCreateRequestItem(1L, 1)))
+                .build();
+
+        OrderCreateResponse orderCreateResponse = orderService.createOrder(orderCreateRequest, "key");
+        // Returns the existing order, nothing new to publish
+        orderService.createOrder(orderCreateRequest, "key");
+
+        List<OrderOutboxEvent> events = orderOutboxRepository.findAll().stream()
+                .filter(event -> event.getOrderId().equals(orderCreateResponse.getId()))
+                .toList();
+        assertThat(events).hasSize(1);
+        assertThat(events.get(0).getEventType()).isEqualTo("OrderStatusChangedEvent");
+        assertThat(events.get(0).getPayload()).contains(userId.toString(), OrderStatus.PENDING.name());
+    }
+}
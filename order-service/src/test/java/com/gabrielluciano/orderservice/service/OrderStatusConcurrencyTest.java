@@ -0,0 +1,202 @@
+package com.gabrielluciano.orderservice.service;
+
+import com.gabrielluciano.orderservice.event.OrderStatusChangedEvent;
+import com.gabrielluciano.orderservice.exception.InvalidOrderStatusTransitionException;
+import com.gabrielluciano.orderservice.model.Order;
+import com.gabrielluciano.orderservice.model.OrderStatus;
+import com.gabrielluciano.orderservice.repository.OrderRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Many threads apply conflicting transitions to the same orders at the same time, as baristas would from
+ * several screens. Exactly one of the competing transitions must win per order, and the stored status must be
+ * the one of the winner.
+ */
+@SpringBootTest(properties = {"eureka.client.enabled=false", "order.outbox.relay.enabled=false"})
+class OrderStatusConcurrencyTest {
+
+    private static final int ORDERS = 20;
+    private static final int THREADS = 16;
+    private static final int ATTEMPTS_PER_ORDER = 8;
+
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @BeforeAll
+    static void beforeAll() {
+        postgres.start();
+    }
+
+    @AfterAll
+    static void afterAll() {
+        postgres.stop();
+    }
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private Queue<OrderStatusChangedEvent> publishedEvents;
+
+    @MockBean
+    private ProductService productService;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository.deleteAll();
+        publishedEvents.clear();
+    }
+
+    @Test
+    void shouldApplyExactlyOneOfConflictingTransitions() throws Exception {
+        List<Order> orders = saveOrders(OrderStatus.PAID);
+        Map<UUID, Queue<OrderStatus>> appliedTransitions = new ConcurrentHashMap<>();
+
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (Order order : orders) {
+            for (int attempt = 0; attempt < ATTEMPTS_PER_ORDER; attempt++) {
+                // READY and CANCELED are both final, only the first of them can be applied
+                OrderStatus status = attempt % 2 == 0 ? OrderStatus.READY : OrderStatus.CANCELED;
+                tasks.add(() -> {
+                    try {
+                        orderService.updateOrderStatus(order.getId(), status);
+                        appliedTransitions.computeIfAbsent(order.getId(), id -> new ConcurrentLinkedQueue<>())
+                                .add(status);
+                    } catch (InvalidOrderStatusTransitionException ignored) {
+                        // Lost the race, the order already has a final status
+                    }
+                    return null;
+                });
+            }
+        }
+        runConcurrently(tasks);
+
+        for (Order order : orders) {
+            assertThat(appliedTransitions.get(order.getId())).hasSize(1);
+            assertThat(orderRepository.findById(order.getId()).orElseThrow().getStatus())
+                    .isEqualTo(appliedTransitions.get(order.getId()).peek());
+        }
+        assertThat(publishedEvents).hasSize(ORDERS);
+    }
+
+    @Test
+    void shouldApplyEveryStepOnceWhenTheSameFlowIsRepeatedConcurrently() throws Exception {
+        List<Order> orders = saveOrders(OrderStatus.PENDING);
+
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (Order order : orders) {
+            for (int attempt = 0; attempt < ATTEMPTS_PER_ORDER; attempt++) {
+                tasks.add(() -> {
+                    for (OrderStatus status : List.of(OrderStatus.PAID, OrderStatus.READY)) {
+                        try {
+                            orderService.updateOrderStatus(order.getId(), status);
+                        } catch (InvalidOrderStatusTransitionException ignored) {
+                            // Another thread already applied this step
+                        }
+                    }
+                    return null;
+                });
+            }
+        }
+        runConcurrently(tasks);
+
+        for (Order order : orders)
+            assertThat(orderRepository.findById(order.getId()).orElseThrow().getStatus()).isEqualTo(OrderStatus.READY);
+        // One PAID and one READY transition per order, no step applied twice
+        assertThat(publishedEvents).hasSize(ORDERS * 2);
+        assertThat(publishedEvents).filteredOn(event -> event.getStatus() == OrderStatus.READY)
+                .allMatch(event -> event.getPreviousStatus() == OrderStatus.PAID)
+                .hasSize(ORDERS);
+    }
+
+    private void runConcurrently(List<Callable<Void>> tasks) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (Callable<Void> task : tasks) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+            for (Future<Void> future : futures)
+                future.get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private List<Order> saveOrders(OrderStatus status) {
+        return IntStream.range(0, ORDERS)
+                .mapToObj(i -> orderRepository.saveAndFlush(Order.builder()
+                        .id(UUID.randomUUID())
+                        .userId(UUID.randomUUID())
+                        .status(status)
+                        .totalAmount(new BigDecimal("10.00"))
+                        .createdAt(LocalDateTime.now(ZoneOffset.UTC))
+                        .items(new HashSet<>())
+                        .build()))
+                .toList();
+    }
+
+    @TestConfiguration
+    static class EventRecorderConfig {
+
+        private final Queue<OrderStatusChangedEvent> publishedEvents = new ConcurrentLinkedQueue<>();
+
+        @Bean
+        public Queue<OrderStatusChangedEvent> publishedEvents() {
+            return publishedEvents;
+        }
+
+        // Only changes that committed are recorded
+        @TransactionalEventListener
+        public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+            publishedEvents.add(event);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.gabrielluciano.orderservice.util.controller;
+
+import lombok.Builder;
+import lombok.Data;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@RestController
+@RequestMapping("/api/v1/products")
+public class ProductServiceCompatibleController {
+
+    public static final Long AVAILABLE_PRODUCT_ID = 1L;
+    public static final Long OTHER_AVAILABLE_PRODUCT_ID = 2L;
+    public static final Long UNAVAILABLE_PRODUCT_ID = 3L;
+    public static final Long NON_EXISTENT_PRODUCT_ID = 4L;
+    public static final Long SLOW_RESPONSE_PRODUCT_ID = 5L;
+    public static final Long SERVICE_UNAVAILABLE_PRODUCT_ID = 6L;
+
+    public static final BigDecimal AVAILABLE_PRODUCT_PRICE = new BigDecimal("5.50");
+    public static final BigDecimal OTHER_AVAILABLE_PRODUCT_PRICE = new BigDecimal("10.35");
+
+    private final AtomicInteger batchRequests = new AtomicInteger();
+
+    @PostMapping("/batch")
+    public ResponseEntity<ProductBatchResponse> getProducts(@RequestBody ProductBatchRequest request)
+            throws InterruptedException {
+        batchRequests.incrementAndGet();
+
+        if (request.getIds().contains(SERVICE_UNAVAILABLE_PRODUCT_ID)) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+
+        if (request.getIds().contains(SLOW_RESPONSE_PRODUCT_ID)) {
+            Thread.sleep(15 * 1000);
+        }
+
+        List<ProductResponse> products = new ArrayList<>();
+        List<Long> notFound = new ArrayList<>();
+        for (Long id : request.getIds()) {
+            if (AVAILABLE_PRODUCT_ID.equals(id)) {
+                products.add(createProductResponse(id, AVAILABLE_PRODUCT_PRICE, true));
+            } else if (OTHER_AVAILABLE_PRODUCT_ID.equals(id)) {
+                products.add(createProductResponse(id, OTHER_AVAILABLE_PRODUCT_PRICE, true));
+            } else if (UNAVAILABLE_PRODUCT_ID.equals(id)) {
+                products.add(createProductResponse(id, BigDecimal.ONE, false));
+            } else {
+                notFound.add(id);
+            }
+        }
+
+        return ResponseEntity.ok(ProductBatchResponse.builder()
+                .products(products)
+                .notFound(notFound)
+                .build());
+    }
+
+    public int getBatchRequests() {
+        return batchRequests.get();
+    }
+
+    private static ProductResponse createProductResponse(Long id, BigDecimal price, boolean isAvailable) {
+        return ProductResponse.builder()
+                .id(id)
+                .name("Coffee " + id)
+                .description("Some description")
+                .price(price)
+                .isAvailable(isAvailable)
+                .build();
+    }
+
+    @Data
+    public static class ProductBatchRequest {
+
+        private List<Long> ids;
+    }
+
+    @Data
+    @Builder
+    public static class ProductBatchResponse {
+
+        private List<ProductResponse> products;
+        private List<Long> notFound;
+    }
+
+    @Data
+    @Builder
+    public static class ProductResponse {
+
+        private Long id;
+        private String name;
+        private String description;
+        private BigDecimal price;
+        private Boolean isAvailable;
+    }
+}
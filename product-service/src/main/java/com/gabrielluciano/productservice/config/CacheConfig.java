@@ -0,0 +1,14 @@
+package com.gabrielluciano.productservice.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+@Configuration
+// Caching advice wraps the transactional advice so evictions only happen after the write has committed
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
+public class CacheConfig {
+
+    public static final String PRODUCTS_CACHE = "products";
+    public static final String PRODUCT_CATALOG_CACHE = "productCatalog";
+}
@@ -1,13 +1,25 @@
 package com.gabrielluciano.productservice.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gabrielluciano.productservice.dto.ProductBatchRequest;
+import com.gabrielluciano.productservice.dto.ProductBatchResponse;
 import com.gabrielluciano.productservice.dto.ProductCreateRequest;
+import com.gabrielluciano.productservice.dto.ProductPageResponse;
 import com.gabrielluciano.productservice.dto.ProductResponse;
 import com.gabrielluciano.productservice.service.ProductService;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 @RestController
@@ -15,18 +27,47 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ProductController {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final ProductService productService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping
     public List<ProductResponse> getAllProducts() {
         return productService.getAllProducts();
     }
 
+    @GetMapping(params = "limit")
+    public ProductPageResponse getProductsPage(@RequestParam(defaultValue = "0") @PositiveOrZero Long after,
+                                               @RequestParam @Min(1) @Max(MAX_PAGE_SIZE) int limit) {
+        return productService.getProductsPage(after, limit);
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllProducts() {
+        StreamingResponseBody body = outputStream -> productService.streamAllProducts(product -> {
+            try {
+                outputStream.write(objectMapper.writeValueAsBytes(product));
+                outputStream.write('\n');
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
     @GetMapping("/{id}")
     public ProductResponse getProduct(@PathVariable Long id) {
         return productService.getProduct(id);
     }
 
+    @PostMapping("/batch")
+    public ProductBatchResponse getProducts(@RequestBody @Valid ProductBatchRequest productBatchRequest) {
+        return productService.getProducts(productBatchRequest.getIds());
+    }
+
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
     public ProductResponse createProduct(@RequestBody @Valid ProductCreateRequest productCreateRequest) {
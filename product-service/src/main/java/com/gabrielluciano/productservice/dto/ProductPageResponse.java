@@ -0,0 +1,14 @@
+package com.gabrielluciano.productservice.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class ProductPageResponse {
+
+    private List<ProductResponse> products;
+    private Long next;
+}
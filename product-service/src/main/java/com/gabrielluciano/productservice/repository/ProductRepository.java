@@ -1,17 +1,32 @@
 package com.gabrielluciano.productservice.repository;
 
 import com.gabrielluciano.productservice.model.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface ProductRepository extends JpaRepository<Product, Long> {
 
+    int STREAM_FETCH_SIZE = 100;
+
     @Query("FROM Product p ORDER BY p.id ASC")
     List<Product> findAll();
 
+    @Query("FROM Product p WHERE p.id > :after ORDER BY p.id ASC")
+    List<Product> findAllAfter(Long after, Pageable pageable);
+
+    // Must be consumed inside a transaction so the driver can use a server-side cursor
+    @Query("FROM Product p ORDER BY p.id ASC")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE))
+    Stream<Product> streamAll();
+
     @Query("FROM Product p WHERE p.name = :name")
     Optional<Product> findByName(String name);
 }
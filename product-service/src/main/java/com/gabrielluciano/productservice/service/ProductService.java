@@ -1,15 +1,25 @@
 package com.gabrielluciano.productservice.service;
 
+import com.gabrielluciano.productservice.dto.ProductBatchResponse;
 import com.gabrielluciano.productservice.dto.ProductCreateRequest;
+import com.gabrielluciano.productservice.dto.ProductPageResponse;
 import com.gabrielluciano.productservice.dto.ProductResponse;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface ProductService {
 
     List<ProductResponse> getAllProducts();
 
+    ProductPageResponse getProductsPage(Long after, int limit);
+
+    void streamAllProducts(Consumer<ProductResponse> consumer);
+
     ProductResponse createProduct(ProductCreateRequest productCreateRequest);
 
     ProductResponse getProduct(Long id);
+
+    ProductBatchResponse getProducts(Collection<Long> ids);
 }
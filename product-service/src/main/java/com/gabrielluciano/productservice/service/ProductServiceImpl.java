@@ -1,17 +1,33 @@
 package com.gabrielluciano.productservice.service;
 
+import com.gabrielluciano.productservice.config.CacheConfig;
+import com.gabrielluciano.productservice.dto.ProductBatchResponse;
 import com.gabrielluciano.productservice.dto.ProductCreateRequest;
+import com.gabrielluciano.productservice.dto.ProductPageResponse;
 import com.gabrielluciano.productservice.dto.ProductResponse;
 import com.gabrielluciano.productservice.exception.ProductNotFoundException;
 import com.gabrielluciano.productservice.exception.UniqueConstraintViolationException;
 import com.gabrielluciano.productservice.model.Product;
 import com.gabrielluciano.productservice.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -19,16 +35,50 @@ import java.util.List;
 public class ProductServiceImpl implements ProductService {
 
     private final ProductRepository productRepository;
+    private final EntityManager entityManager;
 
     @Override
+    @Cacheable(CacheConfig.PRODUCT_CATALOG_CACHE)
     public List<ProductResponse> getAllProducts() {
         return productRepository.findAll().stream()
                 .map(ProductResponse::fromProduct)
                 .toList();
     }
 
+    @Override
+    public ProductPageResponse getProductsPage(Long after, int limit) {
+        // Fetch one extra row to know whether another page exists without a count query
+        List<Product> products = productRepository.findAllAfter(after, PageRequest.ofSize(limit + 1));
+        boolean hasNext = products.size() > limit;
+        List<ProductResponse> page = products.stream()
+                .limit(limit)
+                .map(ProductResponse::fromProduct)
+                .toList();
+
+        return ProductPageResponse.builder()
+                .products(page)
+                .next(hasNext ? page.get(page.size() - 1).getId() : null)
+                .build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAllProducts(Consumer<ProductResponse> consumer) {
+        try (Stream<Product> products = productRepository.streamAll()) {
+            products.forEach(product -> {
+                consumer.accept(ProductResponse.fromProduct(product));
+                // Keep the persistence context from growing with every row read from the cursor
+                entityManager.detach(product);
+            });
+        }
+    }
+
     @Override
     @Transactional
+    @Caching(
+            evict = @CacheEvict(cacheNames = CacheConfig.PRODUCT_CATALOG_CACHE, allEntries = true),
+            put = @CachePut(cacheNames = CacheConfig.PRODUCTS_CACHE, key = "#result.id")
+    )
     public ProductResponse createProduct(ProductCreateRequest productCreateRequest) {
         findProductByNameAndThrowExceptionIfFound(productCreateRequest.getName());
         Product product = productRepository.save(productCreateRequest.toProduct());
@@ -43,9 +93,27 @@ public class ProductServiceImpl implements ProductService {
     }
 
     @Override
+    @Cacheable(CacheConfig.PRODUCTS_CACHE)
     public ProductResponse getProduct(Long id) {
         return productRepository.findById(id)
                 .map(ProductResponse::fromProduct)
                 .orElseThrow(() -> new ProductNotFoundException(id));
     }
+
+    @Override
+    public ProductBatchResponse getProducts(Collection<Long> ids) {
+        LinkedHashSet<Long> uniqueIds = new LinkedHashSet<>(ids);
+        Map<Long, Product> productsById = productRepository.findAllById(uniqueIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        return ProductBatchResponse.builder()
+                .products(uniqueIds.stream()
+                        .filter(productsById::containsKey)
+                        .map(id -> ProductResponse.fromProduct(productsById.get(id)))
+                        .toList())
+                .notFound(uniqueIds.stream()
+                        .filter(id -> !productsById.containsKey(id))
+                        .toList())
+                .build();
+    }
 }
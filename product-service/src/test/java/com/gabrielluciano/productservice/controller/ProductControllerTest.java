@@ -1,6 +1,7 @@
 package com.gabrielluciano.productservice.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gabrielluciano.productservice.dto.ProductBatchRequest;
 import com.gabrielluciano.productservice.dto.ProductCreateRequest;
 import com.gabrielluciano.productservice.model.Product;
 import com.gabrielluciano.productservice.repository.ProductRepository;
@@ -11,21 +12,26 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.testcontainers.containers.PostgreSQLContainer;
 
 import java.math.BigDecimal;
 import java.util.List;
 
 import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -57,9 +63,13 @@ class ProductControllerTest {
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private CacheManager cacheManager;
+
     @BeforeEach
     void setUp() {
         productRepository.deleteAll();
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
     }
 
     @Test
@@ -89,6 +99,84 @@ class ProductControllerTest {
                 .andExpect(jsonPath("$[1].name").value(product2.getName()));
     }
 
+    @Test
+    void shouldGetProductsPage() throws Exception {
+        List<Product> products = productRepository.saveAll(List.of(
+                Product.builder().name("Espresso").price(BigDecimal.valueOf(2.99)).isAvailable(true).build(),
+                Product.builder().name("Cappuccino").price(BigDecimal.valueOf(3.49)).isAvailable(true).build(),
+                Product.builder().name("Latte").price(BigDecimal.valueOf(3.99)).isAvailable(true).build()));
+
+        mockMvc.perform(get("/api/v1/products")
+                        .param("limit", "2"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.products.length()").value(2))
+                .andExpect(jsonPath("$.products[0].id").value(products.get(0).getId()))
+                .andExpect(jsonPath("$.products[1].id").value(products.get(1).getId()))
+                .andExpect(jsonPath("$.next").value(products.get(1).getId()));
+
+        mockMvc.perform(get("/api/v1/products")
+                        .param("after", products.get(1).getId().toString())
+                        .param("limit", "2"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.products.length()").value(1))
+                .andExpect(jsonPath("$.products[0].id").value(products.get(2).getId()))
+                .andExpect(jsonPath("$.next").doesNotExist());
+    }
+
+    @Test
+    void shouldReturn400BadRequestWhenPageLimitIsGreaterThan100() throws Exception {
+        mockMvc.perform(get("/api/v1/products")
+                        .param("limit", "101"))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldStreamAllProducts() throws Exception {
+        List<Product> products = productRepository.saveAll(List.of(
+                Product.builder().name("Espresso").price(BigDecimal.valueOf(2.99)).isAvailable(true).build(),
+                Product.builder().name("Cappuccino").price(BigDecimal.valueOf(3.49)).isAvailable(true).build()));
+
+        MvcResult result = mockMvc.perform(get("/api/v1/products/stream")
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(containsString("\"id\":" + products.get(0).getId())))
+                .andExpect(content().string(containsString("\"id\":" + products.get(1).getId())));
+    }
+
+    @Test
+    void shouldEvictCachedProductsWhenProductIsCreated() throws Exception {
+        mockMvc.perform(get("/api/v1/products"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+
+        ProductCreateRequest productCreateRequest = ProductCreateRequest.builder()
+                .name("Espresso")
+                .description("Strong and concentrated coffee")
+                .price(BigDecimal.valueOf(2.99))
+                .isAvailable(true)
+                .build();
+
+        mockMvc.perform(post("/api/v1/products")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(productCreateRequest)))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/api/v1/products"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].name").value(productCreateRequest.getName()));
+    }
+
     @Test
     void shouldCreateProduct() throws Exception {
         ProductCreateRequest productCreateRequest = ProductCreateRequest.builder()
@@ -280,6 +368,45 @@ class ProductControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    void shouldGetProductsInBatch() throws Exception {
+        List<Product> products = productRepository.saveAll(List.of(
+                Product.builder().name("Espresso").price(BigDecimal.valueOf(2.99)).isAvailable(true).build(),
+                Product.builder().name("Cappuccino").price(BigDecimal.valueOf(3.49)).isAvailable(false).build()));
+        long nonExistentId = products.get(1).getId() + 1;
+
+        ProductBatchRequest productBatchRequest = ProductBatchRequest.builder()
+                .ids(List.of(products.get(1).getId(), nonExistentId, products.get(0).getId()))
+                .build();
+
+        mockMvc.perform(post("/api/v1/products/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(productBatchRequest)))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.products.length()").value(2))
+                .andExpect(jsonPath("$.products[0].id").value(products.get(1).getId()))
+                .andExpect(jsonPath("$.products[0].isAvailable").value(false))
+                .andExpect(jsonPath("$.products[1].id").value(products.get(0).getId()))
+                .andExpect(jsonPath("$.products[1].price").value(2.99))
+                .andExpect(jsonPath("$.notFound.length()").value(1))
+                .andExpect(jsonPath("$.notFound[0]").value(nonExistentId));
+    }
+
+    @Test
+    void shouldReturn400BadRequestWhenBatchIdsAreEmpty() throws Exception {
+        ProductBatchRequest productBatchRequest = ProductBatchRequest.builder()
+                .ids(List.of())
+                .build();
+
+        mockMvc.perform(post("/api/v1/products/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(productBatchRequest)))
+                .andDo(print())
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.path").value("/api/v1/products/batch"));
+    }
+
     @Test
     void shouldReturn404WhenIdIsNotANumber() throws Exception {
         mockMvc.perform(get("/api/v1/products/notANumber"))
@@ -9,6 +9,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.testcontainers.containers.PostgreSQLContainer;
@@ -118,6 +119,31 @@ class ProductRepositoryTest {
         assertThat(products).contains(product2);
     }
 
+    @Test
+    void shouldFindAllProductsAfterId() {
+        Product product1 = Product.builder()
+                .name("Some Coffee 1")
+                .description("Description of the product 1")
+                .price(BigDecimal.valueOf(10.99))
+                .isAvailable(true)
+                .build();
+
+        Product product2 = Product.builder()
+                .name("Some Coffee 2")
+                .description("Description of the product 2")
+                .price(BigDecimal.valueOf(11.99))
+                .isAvailable(true)
+                .build();
+
+        entityManager.persist(product1);
+        entityManager.persist(product2);
+        entityManager.flush();
+
+        List<Product> products = productRepository.findAllAfter(product1.getId(), PageRequest.ofSize(10));
+
+        assertThat(products).containsExactly(product2);
+    }
+
     @Test
     void shouldFindProductByName() {
         Product product = Product.builder()